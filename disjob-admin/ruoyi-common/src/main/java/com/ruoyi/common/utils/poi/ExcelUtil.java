@@ -40,6 +40,7 @@ import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -646,32 +647,103 @@ public class ExcelUtil<T>
         for (int index = 0; index < sheetNo; index++)
         {
             createSheet(sheetNo, index);
+            createHeadRow();
+            if (Type.EXPORT.equals(type))
+            {
+                fillExcelData(index);
+                addStatisticsRow();
+            }
+        }
+    }
 
-            // 产生一行
-            Row row = sheet.createRow(rownum);
-            int column = 0;
-            // 写入各个字段的列头名称
-            for (Object[] os : fields)
+    /**
+     * 分页读取数据源并流式写入到excel表单，内存中只保留当前页数据及SXSSFWorkbook的行窗口
+     *
+     * @param pageLoader 分页数据加载器，返回空集合表示数据已读取完
+     * @param maxRows 最大导出行数
+     * @param sheetName 工作表的名称
+     * @return 结果
+     */
+    public AjaxResult exportExcel(Supplier<List<T>> pageLoader, int maxRows, String sheetName)
+    {
+        this.init(null, sheetName, StringUtils.EMPTY, Type.EXPORT);
+        OutputStream out = null;
+        try
+        {
+            createHeadRow();
+            int sheetIndex = 0, sheetRows = 0, totalRows = 0;
+            int currentRowNum = rownum + 1;
+            List<T> page;
+            while (totalRows < maxRows && (page = pageLoader.get()) != null && !page.isEmpty())
             {
-                Field field = (Field) os[0];
-                Excel excel = (Excel) os[1];
-                if (Collection.class.isAssignableFrom(field.getType()))
+                this.list = page.size() > maxRows - totalRows ? page.subList(0, maxRows - totalRows) : page;
+                int startNo = 0;
+                while (startNo < list.size())
                 {
-                    for (Field subField : subFields)
+                    if (sheetRows == sheetSize)
                     {
-                        Excel subExcel = subField.getAnnotation(Excel.class);
-                        this.createHeadCell(subExcel, row, column++);
+                        // 当前sheet已写满，创建新的sheet
+                        addStatisticsRow();
+                        createSheet(2, ++sheetIndex);
+                        createHeadRow();
+                        sheetRows = 0;
+                        currentRowNum = rownum + 1;
                     }
+                    int endNo = Math.min(list.size(), startNo + sheetSize - sheetRows);
+                    currentRowNum = fillExcelData(startNo, endNo, currentRowNum);
+                    sheetRows += endNo - startNo;
+                    startNo = endNo;
                 }
-                else
+                totalRows += list.size();
+            }
+            addStatisticsRow();
+            this.list = new ArrayList<>();
+
+            String filename = encodingFilename(sheetName);
+            out = new FileOutputStream(getAbsoluteFile(filename));
+            wb.write(out);
+            return AjaxResult.success(filename);
+        }
+        catch (Exception e)
+        {
+            log.error("导出Excel异常{}", e.getMessage());
+            throw new UtilException("导出Excel失败，请联系网站管理员！");
+        }
+        finally
+        {
+            if (wb instanceof SXSSFWorkbook)
+            {
+                // 删除SXSSFWorkbook产生的临时文件
+                ((SXSSFWorkbook) wb).dispose();
+            }
+            IOUtils.closeQuietly(wb);
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * 写入各个字段的列头名称
+     */
+    private void createHeadRow()
+    {
+        // 产生一行
+        Row row = sheet.createRow(rownum);
+        int column = 0;
+        for (Object[] os : fields)
+        {
+            Field field = (Field) os[0];
+            Excel excel = (Excel) os[1];
+            if (Collection.class.isAssignableFrom(field.getType()))
+            {
+                for (Field subField : subFields)
                 {
-                    this.createHeadCell(excel, row, column++);
+                    Excel subExcel = subField.getAnnotation(Excel.class);
+                    this.createHeadCell(subExcel, row, column++);
                 }
             }
-            if (Type.EXPORT.equals(type))
+            else
             {
-                fillExcelData(index);
-                addStatisticsRow();
+                this.createHeadCell(excel, row, column++);
             }
         }
     }
@@ -680,13 +752,23 @@ public class ExcelUtil<T>
      * 填充excel数据
      * @param index 序号
      */
-    @SuppressWarnings("unchecked")
     public void fillExcelData(int index)
     {
         int startNo = index * sheetSize;
         int endNo = Math.min(startNo + sheetSize, list.size());
-        int currentRowNum = rownum + 1; // 从标题行后开始
+        fillExcelData(startNo, endNo, rownum + 1); // 从标题行后开始
+    }
 
+    /**
+     * 填充excel数据
+     * @param startNo 数据开始序号(包含)
+     * @param endNo 数据结束序号(不包含)
+     * @param currentRowNum 开始行号
+     * @return 填充后的下一行号
+     */
+    @SuppressWarnings("unchecked")
+    private int fillExcelData(int startNo, int endNo, int currentRowNum)
+    {
         for (int i = startNo; i < endNo; i++)
         {
             Row row = sheet.createRow(currentRowNum);
@@ -742,6 +824,7 @@ public class ExcelUtil<T>
             }
             currentRowNum += maxSubListSize;
         }
+        return currentRowNum;
     }
 
     /**
@@ -146,6 +146,12 @@ public class SchedJobExport {
     @Excel(name = "Worker关机的执行策略")
     private Integer shutdownStrategy;
 
+    /**
+     * 任务优先级：1-低优先级；2-普通优先级；3-高优先级；
+     */
+    @Excel(name = "任务优先级")
+    private Integer priority;
+
     public static SchedJobExport of(SchedJobResponse schedJobResponse) {
         SchedJobExport schedJobExport = new SchedJobExport();
         BeanUtils.copyProperties(schedJobResponse, schedJobExport);
@@ -306,4 +312,12 @@ public class SchedJobExport {
         this.shutdownStrategy = shutdownStrategy;
     }
 
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
 }
@@ -25,6 +25,7 @@ import cn.ponfee.disjob.common.concurrent.ThreadPoolExecutors;
 import cn.ponfee.disjob.common.dag.DAGUtils;
 import cn.ponfee.disjob.common.exception.Throwables;
 import cn.ponfee.disjob.common.model.PageResponse;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.core.exception.JobException;
 import cn.ponfee.disjob.supervisor.application.AuthorizeGroupService;
 import cn.ponfee.disjob.supervisor.application.SchedGroupService;
@@ -51,6 +52,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * 作业配置Controller
@@ -64,6 +66,8 @@ public class DisjobJobController extends BaseController {
     static final String PREFIX = "disjob/job";
     private static final int MAX_TEXT_LENGTH = 900;
     private static final String PERMISSION_CODE = "disjob:job:operate";
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int EXPORT_MAX_ROWS = 100000;
 
     private final SchedJobService schedJobService;
     private final AuthorizeGroupService authorizeGroupService;
@@ -141,15 +145,16 @@ public class DisjobJobController extends BaseController {
     public AjaxResult export(SchedJobPageRequest request) {
         request.authorizeAndTruncateGroup(getLoginName());
 
-        List<SchedJobExport> list = Collections.emptyList();
-        if (CollectionUtils.isNotEmpty(request.getGroups())) {
-            // 不分页查询，导出全部数据
-            request.setPaged(false);
-            List<SchedJobResponse> rows = schedJobService.queryJobForPage(request).getRows();
-            list = Collects.convert(rows, SchedJobExport::of);
-        }
         ExcelUtil<SchedJobExport> excel = new ExcelUtil<>(SchedJobExport.class);
-        return excel.exportExcel(list, "作业配置数据");
+        if (CollectionUtils.isEmpty(request.getGroups())) {
+            return excel.exportExcel(Collections.emptyList(), "作业配置数据");
+        }
+
+        // 基于job_id分页查询并流式写入，内存中只保留一页数据
+        request.setPageSize(EXPORT_PAGE_SIZE);
+        request.setCursorJobId(null);
+        Supplier<List<SchedJobExport>> pageLoader = () -> Collects.convert(schedJobService.queryJobForExport(request), SchedJobExport::of);
+        return excel.exportExcel(pageLoader, EXPORT_MAX_ROWS, "作业配置数据");
     }
 
     // -------------------------------------------------------操作
@@ -160,7 +165,9 @@ public class DisjobJobController extends BaseController {
     @RequiresPermissions(PERMISSION_CODE)
     @GetMapping("/add")
     public String add(ModelMap mmap) {
-        return toAdd(new SchedJobResponse(), mmap);
+        SchedJobResponse job = new SchedJobResponse();
+        job.setPriority(JobPriority.NORMAL.value());
+        return toAdd(job, mmap);
     }
 
     /**
@@ -20,12 +20,15 @@ import com.google.common.hash.Hashing;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.Function;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Consistent hashing algorithm.
+ * <p>The ring is thread-safe, route is lock-free and add/remove node costs O(v·log n).
  *
  * @param <T> the ring node type
  * @author Ponfee
@@ -97,21 +100,27 @@ public class ConsistentHash<T> {
      */
     private class VirtualNode {
         private final T physicalNode;
-        private final String physicalKey;
         private final String virtualKey;
 
-        private VirtualNode(T physicalNode, int replicaIndex) {
+        private VirtualNode(T physicalNode, String physicalKey, int replicaIndex) {
             this.physicalNode = physicalNode;
-            this.physicalKey = keyMapper.apply(physicalNode);
             this.virtualKey = "SHARD-" + physicalKey + "-NODE-" + replicaIndex;
         }
+    }
 
-        private boolean isVirtualNodeOf(T pNode) {
-            return physicalKey.equals(keyMapper.apply(pNode));
-        }
+    /**
+     * Physical node's placed virtual nodes, 用于O(v·log n)的增删节点
+     */
+    private class PhysicalNode {
+        private final Map<Integer, VirtualNode> placed = new HashMap<>();
+        private int replicaSequence = 0;
     }
 
-    private final TreeMap<Integer, VirtualNode> ring = new TreeMap<>();
+    /**
+     * 跳表实现，读(routeNode)无锁，写(addNode/removeNode)加锁
+     */
+    private final ConcurrentNavigableMap<Integer, VirtualNode> ring = new ConcurrentSkipListMap<>();
+    private final Map<String, PhysicalNode> physicalNodes = new HashMap<>();
     private final Function<T, String> keyMapper;
     private final HashFunction hashFunction;
 
@@ -150,14 +159,19 @@ public class ConsistentHash<T> {
      * @param pNode      physical node
      * @param vNodeCount the number virtual node of the physical node.
      */
-    public void addNode(T pNode, int vNodeCount) {
+    public synchronized void addNode(T pNode, int vNodeCount) {
         if (vNodeCount < 0) {
             throw new IllegalArgumentException("Invalid virtual node counts :" + vNodeCount);
         }
-        int existingReplicas = getExistingReplicas(pNode);
+        String physicalKey = keyMapper.apply(pNode);
+        PhysicalNode physicalNode = physicalNodes.computeIfAbsent(physicalKey, k -> new PhysicalNode());
         for (int i = 0; i < vNodeCount; i++) {
-            VirtualNode vNode = new VirtualNode(pNode, i + existingReplicas);
-            ring.put(hashFunction.hash(vNode.virtualKey), vNode);
+            VirtualNode vNode = new VirtualNode(pNode, physicalKey, physicalNode.replicaSequence++);
+            int hash = hashFunction.hash(vNode.virtualKey);
+            // hash冲突时保留先放置的虚拟节点，避免删除节点时误删其它节点的虚拟节点
+            if (ring.putIfAbsent(hash, vNode) == null) {
+                physicalNode.placed.put(hash, vNode);
+            }
         }
     }
 
@@ -166,14 +180,10 @@ public class ConsistentHash<T> {
      *
      * @param pNode the physical node
      */
-    public void removeNode(T pNode) {
-        Iterator<Integer> it = ring.keySet().iterator();
-        while (it.hasNext()) {
-            Integer key = it.next();
-            VirtualNode virtualNode = ring.get(key);
-            if (virtualNode.isVirtualNodeOf(pNode)) {
-                it.remove();
-            }
+    public synchronized void removeNode(T pNode) {
+        PhysicalNode physicalNode = physicalNodes.remove(keyMapper.apply(pNode));
+        if (physicalNode != null) {
+            physicalNode.placed.forEach(ring::remove);
         }
     }
 
@@ -184,17 +194,21 @@ public class ConsistentHash<T> {
      * @return routed physical node
      */
     public T routeNode(String key) {
-        if (ring.isEmpty()) {
-            return null;
+        Map.Entry<Integer, VirtualNode> entry = ring.ceilingEntry(hashFunction.hash(key));
+        if (entry == null) {
+            // wrap around the ring
+            entry = ring.firstEntry();
         }
+        return entry == null ? null : entry.getValue().physicalNode;
+    }
 
-        SortedMap<Integer, VirtualNode> tailMap = ring.tailMap(hashFunction.hash(key));
-        VirtualNode virtualNode = tailMap.isEmpty() ? ring.firstEntry().getValue() : ring.get(tailMap.firstKey());
-        return virtualNode.physicalNode;
+    public synchronized int getExistingReplicas(T pNode) {
+        PhysicalNode physicalNode = physicalNodes.get(keyMapper.apply(pNode));
+        return physicalNode == null ? 0 : physicalNode.placed.size();
     }
 
-    public int getExistingReplicas(T pNode) {
-        return (int) ring.entrySet().stream().filter(e -> e.getValue().isVirtualNodeOf(pNode)).count();
+    public synchronized boolean containsNode(T pNode) {
+        return physicalNodes.containsKey(keyMapper.apply(pNode));
     }
 
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.base;
+
+import com.google.common.hash.Hashing;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Jump consistent hash algorithm(Lamping &amp; Veach).
+ * <p>无内存占用且O(log n)路由，但只适用于节点编号为[0, buckets)的场景：仅在末尾增删节点时移动最少的key
+ *
+ * <p><a href="https://arxiv.org/abs/1406.2294">A Fast, Minimal Memory, Consistent Hash Algorithm</a>
+ *
+ * @author Ponfee
+ */
+public final class JumpConsistentHash {
+
+    private JumpConsistentHash() {
+        throw new AssertionError("No JumpConsistentHash instances for you!");
+    }
+
+    /**
+     * Returns the bucket of the key
+     *
+     * @param key     the key
+     * @param buckets the number of buckets
+     * @return bucket number in range [0, buckets)
+     */
+    public static int bucket(long key, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Buckets must be positive number: " + buckets);
+        }
+        long b = -1, j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    public static int bucket(String key, int buckets) {
+        return bucket(Hashing.murmur3_128().hashBytes(key.getBytes(UTF_8)).asLong(), buckets);
+    }
+
+    /**
+     * Returns the routed node of specified key
+     *
+     * @param key   the key
+     * @param nodes the node list, order sensitive
+     * @param <T>   node type
+     * @return routed node
+     */
+    public static <T> T routeNode(String key, List<T> nodes) {
+        return (nodes == null || nodes.isEmpty()) ? null : nodes.get(bucket(key, nodes.size()));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.base;
+
+import cn.ponfee.disjob.common.base.ConsistentHash.HashFunction;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Rendezvous hashing(Highest random weight) algorithm.
+ * <p>无需维护哈希环，增删节点只移动该节点相关的key，路由耗时O(n)
+ *
+ * @param <T> the node type
+ * @author Ponfee
+ */
+public class RendezvousHash<T> {
+
+    private final Function<T, String> keyMapper;
+    private final HashFunction hashFunction;
+    private volatile List<Node<T>> nodes = Collections.emptyList();
+
+    public RendezvousHash(Collection<T> pNodes) {
+        this(pNodes, String::valueOf, HashFunction.MURMUR3_32);
+    }
+
+    /**
+     * @param pNodes       collections of physical nodes
+     * @param keyMapper    physical node mapping to string key function
+     * @param hashFunction hash function to hash node instances
+     */
+    public RendezvousHash(Collection<T> pNodes,
+                          Function<T, String> keyMapper,
+                          HashFunction hashFunction) {
+        this.keyMapper = Objects.requireNonNull(keyMapper, "Key mapper cannot be null.");
+        this.hashFunction = Objects.requireNonNull(hashFunction, "Hash function cannot be null.");
+        if (pNodes != null) {
+            pNodes.forEach(this::addNode);
+        }
+    }
+
+    public synchronized void addNode(T pNode) {
+        String nodeKey = keyMapper.apply(pNode);
+        if (nodes.stream().noneMatch(e -> e.key.equals(nodeKey))) {
+            List<Node<T>> list = new ArrayList<>(nodes);
+            list.add(new Node<>(pNode, nodeKey));
+            this.nodes = Collections.unmodifiableList(list);
+        }
+    }
+
+    public synchronized void removeNode(T pNode) {
+        String nodeKey = keyMapper.apply(pNode);
+        List<Node<T>> list = new ArrayList<>(nodes);
+        if (list.removeIf(e -> e.key.equals(nodeKey))) {
+            this.nodes = Collections.unmodifiableList(list);
+        }
+    }
+
+    /**
+     * Returns the node which has the highest weight for specified key
+     *
+     * @param key the key
+     * @return routed node
+     */
+    public T routeNode(String key) {
+        T result = null;
+        int maxWeight = Integer.MIN_VALUE;
+        for (Node<T> node : nodes) {
+            int weight = hashFunction.hash(node.key + "-" + key);
+            if (result == null || weight > maxWeight) {
+                result = node.node;
+                maxWeight = weight;
+            }
+        }
+        return result;
+    }
+
+    private static class Node<T> {
+        private final T node;
+        private final String key;
+
+        private Node(T node, String key) {
+            this.node = node;
+            this.key = key;
+        }
+    }
+
+}
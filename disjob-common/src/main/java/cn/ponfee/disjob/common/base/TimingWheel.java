@@ -152,6 +152,15 @@ public abstract class TimingWheel<T extends TimingWheel.Timing<T>> implements ja
         return timing != null;
     }
 
+    /**
+     * Callback after the timing data put to timing wheel successfully
+     *
+     * @param timing the timing data
+     */
+    protected void offered(T timing) {
+        // No-op
+    }
+
     public final boolean offer(T timing) {
         // “+ tickMs”：如果小于当前时间(要立即触发)，则放入下一个刻度
         return offer(timing, System.currentTimeMillis() + tickMs);
@@ -175,6 +184,7 @@ public abstract class TimingWheel<T extends TimingWheel.Timing<T>> implements ja
 
         boolean res = wheel[ringIndex].offer(timing);
         if (res) {
+            offered(timing);
             log.info("Timing wheel task success {}", timing);
         } else {
             log.error("Timing wheel task failed {}", timing);
@@ -45,6 +45,16 @@ public abstract class AbstractHeartbeatThread extends Thread implements Closeabl
      */
     protected final long heartbeatPeriodMs;
 
+    /**
+     * Sleep monitor, for wakeup the sleeping heartbeat thread.
+     */
+    private final Object sleepMonitor = new Object();
+
+    /**
+     * Whether it has been waked up, guarded by sleepMonitor.
+     */
+    private boolean wokenUp = false;
+
     protected AbstractHeartbeatThread(long heartbeatPeriodMs) {
         log.info("Heartbeat thread init.");
         this.heartbeatPeriodMs = Math.floorDiv(2 * heartbeatPeriodMs, 3);
@@ -109,10 +119,27 @@ public abstract class AbstractHeartbeatThread extends Thread implements Closeabl
     }
 
     private void doSleep(long sleepTimeMillis) throws InterruptedException {
-        Thread.sleep(sleepTimeMillis);
+        long deadline = System.currentTimeMillis() + sleepTimeMillis;
+        synchronized (sleepMonitor) {
+            for (long remaining = sleepTimeMillis; !wokenUp && remaining > 0; ) {
+                sleepMonitor.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            wokenUp = false;
+        }
         log.debug("Heartbeat sleep time: {}", sleepTimeMillis);
     }
 
+    /**
+     * Wakeup the heartbeat thread if it is sleeping, or skip its next sleep if it is processing.
+     */
+    public final void wakeup() {
+        synchronized (sleepMonitor) {
+            wokenUp = true;
+            sleepMonitor.notifyAll();
+        }
+    }
+
     /**
      * Returns thread is whether stopped
      *
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.lock;
+
+import cn.ponfee.disjob.common.base.RetryTemplate;
+import cn.ponfee.disjob.common.concurrent.Threads;
+import cn.ponfee.disjob.common.spring.JdbcTemplateWrapper;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Objects;
+
+/**
+ * Lease lock template based database.
+ * <p>与DatabaseLockTemplate不同，不会在每次执行时持有数据库连接及行锁(SELECT ... FOR UPDATE)
+ *
+ * @author Ponfee
+ */
+public final class DatabaseLeaseLockTemplate extends LeaseLockTemplate {
+
+    private static final String TABLE_NAME = "sched_lease";
+
+    private static final String CREATE_TABLE_DDL =
+        "CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` (                                                                    \n" +
+        "  `id`             BIGINT       UNSIGNED  NOT NULL  AUTO_INCREMENT  COMMENT 'auto increment primary key id',         \n" +
+        "  `name`           VARCHAR(60)            NOT NULL                  COMMENT 'lease name',                            \n" +
+        "  `owner`          VARCHAR(64)            NOT NULL  DEFAULT ''      COMMENT 'lease owner',                           \n" +
+        "  `fencing_token`  BIGINT       UNSIGNED  NOT NULL  DEFAULT '0'     COMMENT 'fencing token, increment when acquired', \n" +
+        "  `expire_time`    BIGINT       UNSIGNED  NOT NULL  DEFAULT '0'     COMMENT 'lease expire time milliseconds',        \n" +
+        "  PRIMARY KEY (`id`),                                                                                                \n" +
+        "  UNIQUE KEY `uk_name` (`name`)                                                                                      \n" +
+        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='Distributed lease lock based database';         \n" ;
+
+    /**
+     * 使用数据库的时间(毫秒)判断及计算租约过期时间，不依赖各supervisor的本地时钟
+     */
+    private static final String DB_NOW_MILLIS = "CAST(UNIX_TIMESTAMP(NOW(3))*1000 AS UNSIGNED)";
+
+    private static final String INSERT_SQL  = "INSERT INTO " + TABLE_NAME + " (name, owner, fencing_token, expire_time) VALUES (?, '', 0, 0)";
+
+    private static final String GET_SQL     = "SELECT 1 FROM " + TABLE_NAME + " WHERE name=?";
+
+    private static final String ACQUIRE_SQL = "UPDATE " + TABLE_NAME + " SET owner=?, fencing_token=fencing_token+1, expire_time=" + DB_NOW_MILLIS + "+? WHERE name=? AND (expire_time<" + DB_NOW_MILLIS + " OR owner=?)";
+
+    private static final String TOKEN_SQL   = "SELECT fencing_token FROM " + TABLE_NAME + " WHERE name=? AND owner=?";
+
+    private static final String VERIFY_SQL  = "SELECT fencing_token FROM " + TABLE_NAME + " WHERE name=? AND owner=? LOCK IN SHARE MODE";
+
+    private static final String RENEW_SQL   = "UPDATE " + TABLE_NAME + " SET expire_time=" + DB_NOW_MILLIS + "+? WHERE name=? AND owner=? AND fencing_token=?";
+
+    private static final String RELEASE_SQL = "UPDATE " + TABLE_NAME + " SET expire_time=0 WHERE name=? AND owner=? AND fencing_token=?";
+
+    /**
+     * Spring jdbc template wrapper.
+     */
+    private final JdbcTemplateWrapper jdbcTemplateWrapper;
+
+    public DatabaseLeaseLockTemplate(JdbcTemplate jdbcTemplate, String lockName, long leaseMillis) {
+        super(lockName, leaseMillis);
+        this.jdbcTemplateWrapper = JdbcTemplateWrapper.of(jdbcTemplate);
+
+        // create table
+        jdbcTemplateWrapper.createTableIfNotExists(TABLE_NAME, CREATE_TABLE_DDL);
+
+        // initialize lease
+        try {
+            RetryTemplate.execute(this::initializeLeaseIfNecessary, 3, 1000L);
+        } catch (Throwable e) {
+            Threads.interruptIfNecessary(e);
+            throw new Error("Initialize lease '" + lockName + "' failed.", e);
+        }
+    }
+
+    @Override
+    protected Long tryAcquire0() {
+        int row = jdbcTemplateWrapper.update(ACQUIRE_SQL, owner, leaseMillis, lockName, owner);
+        return row == 1 ? jdbcTemplateWrapper.get(TOKEN_SQL, JdbcTemplateWrapper.LONG_ROW_MAPPER, lockName, owner) : null;
+    }
+
+    @Override
+    protected boolean renew0(long token) {
+        return jdbcTemplateWrapper.update(RENEW_SQL, leaseMillis, lockName, owner, token) == 1;
+    }
+
+    @Override
+    protected void release0(long token) {
+        jdbcTemplateWrapper.update(RELEASE_SQL, lockName, owner, token);
+    }
+
+    /**
+     * 在写操作的事务内执行时，共享锁会阻塞其它进程抢占租约(UPDATE)直到事务结束
+     */
+    @Override
+    protected boolean verifyFencing0(long token) {
+        Long latest = jdbcTemplateWrapper.get(VERIFY_SQL, JdbcTemplateWrapper.LONG_ROW_MAPPER, lockName, owner);
+        return latest != null && latest == token;
+    }
+
+    private void initializeLeaseIfNecessary() {
+        if (getLeaseId() != null) {
+            return;
+        }
+        try {
+            jdbcTemplateWrapper.insert(INSERT_SQL, lockName);
+        } catch (DuplicateKeyException e) {
+            log.info("Lease name '{}' already exists: {}", lockName, e.getMessage());
+        }
+        Objects.requireNonNull(getLeaseId());
+    }
+
+    private Integer getLeaseId() {
+        return jdbcTemplateWrapper.get(GET_SQL, JdbcTemplateWrapper.INTEGER_ROW_MAPPER, lockName);
+    }
+
+}
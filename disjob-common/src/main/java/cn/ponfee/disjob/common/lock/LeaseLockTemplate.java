@@ -0,0 +1,317 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.lock;
+
+import cn.ponfee.disjob.common.concurrent.NamedThreadFactory;
+import cn.ponfee.disjob.common.concurrent.Threads;
+import cn.ponfee.disjob.common.util.UuidUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Lock template based lease.
+ * <p>获取到租约后在后台自动续租，租约有效期内执行action无需再次加锁，直到续租失败或租约过期才需要重新竞争。
+ * <p>每次获取租约都会递增fencing token，执行action期间会将fencing绑定到当前线程，
+ * 写操作通过{@link #checkFencing()}校验token，防止已失去租约的持有者写入数据。
+ *
+ * @author Ponfee
+ */
+public abstract class LeaseLockTemplate implements LockTemplate, AutoCloseable {
+
+    /**
+     * The fencing of current thread executing action
+     */
+    private static final ThreadLocal<Fencing> CURRENT_FENCING = new ThreadLocal<>();
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Lease lock name
+     */
+    protected final String lockName;
+
+    /**
+     * Lease owner
+     */
+    protected final String owner;
+
+    /**
+     * Lease milliseconds
+     */
+    protected final long leaseMillis;
+
+    /**
+     * Background renew lease executor
+     */
+    private final ScheduledExecutorService renewExecutor;
+
+    /**
+     * Local lease deadline(System#nanoTime), reserve a safe margin for clock drift and network delay.
+     * <p>使用单调时钟，不受本地系统时间调整的影响
+     */
+    private volatile long leaseDeadline = 0;
+
+    /**
+     * Fencing token of current lease
+     */
+    private volatile long fencingToken = -1;
+
+    protected LeaseLockTemplate(String lockName, long leaseMillis) {
+        Assert.hasText(lockName, "Lease lock name cannot be empty.");
+        Assert.isTrue(leaseMillis >= 3000, "Lease milliseconds cannot less than 3000.");
+        this.lockName = lockName;
+        this.owner = UuidUtils.uuid32();
+        this.leaseMillis = leaseMillis;
+
+        long renewPeriod = leaseMillis / 3;
+        this.renewExecutor = Executors.newSingleThreadScheduledExecutor(
+            NamedThreadFactory.builder().prefix("lease_renew_" + lockName).daemon(true).uncaughtExceptionHandler(log).build()
+        );
+        renewExecutor.scheduleWithFixedDelay(this::renew, renewPeriod, renewPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <T> T execute(Callable<T> action) {
+        if (!isLeader() && !acquire()) {
+            return null;
+        }
+        Fencing previous = CURRENT_FENCING.get();
+        CURRENT_FENCING.set(new Fencing(this, fencingToken));
+        try {
+            return action.call();
+        } catch (Throwable t) {
+            log.error("Executed in lease lock occur error: " + lockName, t);
+            Threads.interruptIfNecessary(t);
+            return null;
+        } finally {
+            restoreFencing(previous);
+        }
+    }
+
+    /**
+     * Returns whether the current process hold the lease.
+     *
+     * @return {@code true} if hold the lease
+     */
+    public final boolean isLeader() {
+        return leaseDeadline != 0 && System.nanoTime() - leaseDeadline < 0;
+    }
+
+    /**
+     * Returns the fencing token of current lease, it is increment on every acquired.
+     *
+     * @return fencing token
+     */
+    public final long fencingToken() {
+        return fencingToken;
+    }
+
+    /**
+     * Verify the fencing token is still the latest token of the lease, and held by current process.
+     *
+     * @param token the fencing token
+     * @return {@code true} if verified
+     */
+    public final boolean verifyFencing(long token) {
+        if (token != fencingToken || !isLeader()) {
+            return false;
+        }
+        try {
+            return verifyFencing0(token);
+        } catch (Throwable t) {
+            log.error("Verify lease fencing token error: " + lockName + ", " + token, t);
+            Threads.interruptIfNecessary(t);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the fencing bound to current thread, {@code null} if not executing in lease lock.
+     *
+     * @return fencing
+     */
+    public static Fencing currentFencing() {
+        return CURRENT_FENCING.get();
+    }
+
+    /**
+     * Check the fencing bound to current thread, it is noop if not executing in lease lock.
+     *
+     * @throws IllegalStateException if the fencing token is stale
+     */
+    public static void checkFencing() {
+        Fencing fencing = CURRENT_FENCING.get();
+        if (fencing != null) {
+            fencing.check();
+        }
+    }
+
+    /**
+     * Wraps the action for execute in other thread, which propagate the fencing of current thread.
+     *
+     * @param action the action
+     * @param <T>    the action argument type
+     * @return wrapped action
+     */
+    public static <T> Consumer<T> propagateFencing(Consumer<T> action) {
+        Fencing fencing = CURRENT_FENCING.get();
+        if (fencing == null) {
+            return action;
+        }
+        return e -> {
+            Fencing previous = CURRENT_FENCING.get();
+            CURRENT_FENCING.set(fencing);
+            try {
+                action.accept(e);
+            } finally {
+                restoreFencing(previous);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        renewExecutor.shutdownNow();
+        if (isLeader()) {
+            leaseDeadline = 0;
+            try {
+                release0(fencingToken);
+                log.info("Released lease lock: {}, {}", lockName, fencingToken);
+            } catch (Throwable t) {
+                log.error("Release lease lock error: " + lockName, t);
+            }
+        }
+    }
+
+    /**
+     * Try acquire the lease.
+     *
+     * @return fencing token if acquired, {@code null} if not acquired
+     */
+    protected abstract Long tryAcquire0();
+
+    /**
+     * Renew the held lease.
+     *
+     * @param token the fencing token
+     * @return {@code true} if renewed
+     */
+    protected abstract boolean renew0(long token);
+
+    /**
+     * Release the held lease.
+     *
+     * @param token the fencing token
+     */
+    protected abstract void release0(long token);
+
+    /**
+     * Verify the fencing token is the latest token and the lease owner is current process.
+     * <p>在写操作的事务内调用，实现方可对租约加共享锁，使其它进程在事务提交前无法抢占租约
+     *
+     * @param token the fencing token
+     * @return {@code true} if verified
+     */
+    protected abstract boolean verifyFencing0(long token);
+
+    // ------------------------------------------------------------------------private methods
+
+    private boolean acquire() {
+        long begin = System.nanoTime();
+        Long token;
+        try {
+            token = tryAcquire0();
+        } catch (Throwable t) {
+            log.error("Acquire lease lock error: " + lockName, t);
+            Threads.interruptIfNecessary(t);
+            return false;
+        }
+        if (token == null) {
+            return false;
+        }
+        this.fencingToken = token;
+        this.leaseDeadline = computeDeadline(begin);
+        log.info("Acquired lease lock: {}, {}", lockName, token);
+        return true;
+    }
+
+    private void renew() {
+        if (!isLeader()) {
+            return;
+        }
+        long begin = System.nanoTime();
+        try {
+            if (renew0(fencingToken)) {
+                this.leaseDeadline = computeDeadline(begin);
+            } else {
+                this.leaseDeadline = 0;
+                log.warn("Lost lease lock: {}, {}", lockName, fencingToken);
+            }
+        } catch (Throwable t) {
+            // 续租异常时保留当前的deadline，到期后自然失去租约
+            log.error("Renew lease lock error: " + lockName, t);
+        }
+    }
+
+    private long computeDeadline(long begin) {
+        return begin + TimeUnit.MILLISECONDS.toNanos(leaseMillis - leaseMillis / 5);
+    }
+
+    private static void restoreFencing(Fencing previous) {
+        if (previous == null) {
+            CURRENT_FENCING.remove();
+        } else {
+            CURRENT_FENCING.set(previous);
+        }
+    }
+
+    /**
+     * The fencing of lease lock
+     */
+    public static final class Fencing {
+        private final LeaseLockTemplate lockTemplate;
+        private final long token;
+
+        private Fencing(LeaseLockTemplate lockTemplate, long token) {
+            this.lockTemplate = lockTemplate;
+            this.token = token;
+        }
+
+        public long token() {
+            return token;
+        }
+
+        /**
+         * Check the fencing token
+         *
+         * @throws IllegalStateException if the fencing token is stale
+         */
+        public void check() {
+            if (!lockTemplate.verifyFencing(token)) {
+                throw new IllegalStateException("Lease fencing token rejected: " + lockTemplate.lockName + ", " + token);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.lock;
+
+import cn.ponfee.disjob.common.spring.RedisTemplateUtils;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Lease lock template based redis.
+ *
+ * @author Ponfee
+ */
+public class RedisLeaseLockTemplate extends LeaseLockTemplate {
+
+    /**
+     * <pre>
+     * Acquire lease lua script
+     *   KEYS[1]=lease key
+     *   KEYS[2]=fencing token key
+     *   ARGV[1]=lease owner
+     *   ARGV[2]=pexpire milliseconds
+     * </pre>
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of(
+        "if (redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2])) then \n" +
+        "  return redis.call('incr', KEYS[2]);                             \n" +
+        "end;                                                               \n" +
+        "return nil;                                                        \n" ,
+        Long.class
+    );
+
+    /**
+     * <pre>
+     * Renew lease lua script
+     *   KEYS[1]=lease key
+     *   KEYS[2]=fencing token key
+     *   ARGV[1]=lease owner
+     *   ARGV[2]=pexpire milliseconds
+     *   ARGV[3]=fencing token
+     * </pre>
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = RedisScript.of(
+        "if (    redis.call('get', KEYS[1])==ARGV[1]                   \n" +
+        "    and redis.call('get', KEYS[2])==ARGV[3] ) then            \n" +
+        "  redis.call('pexpire', KEYS[1], ARGV[2]);                    \n" +
+        "  return 1;                                                   \n" +
+        "end;                                                          \n" +
+        "return 0;                                                     \n" ,
+        Long.class
+    );
+
+    /**
+     * <pre>
+     * Release lease lua script
+     *   KEYS[1]=lease key
+     *   KEYS[2]=fencing token key
+     *   ARGV[1]=lease owner
+     *   ARGV[2]=fencing token
+     * </pre>
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+        "if (    redis.call('get', KEYS[1])==ARGV[1]                   \n" +
+        "    and redis.call('get', KEYS[2])==ARGV[2] ) then            \n" +
+        "  return redis.call('del', KEYS[1]);                          \n" +
+        "end;                                                          \n" +
+        "return 0;                                                     \n" ,
+        Long.class
+    );
+
+    /**
+     * <pre>
+     * Verify fencing token lua script
+     *   KEYS[1]=lease key
+     *   KEYS[2]=fencing token key
+     *   ARGV[1]=lease owner
+     *   ARGV[2]=fencing token
+     * </pre>
+     */
+    private static final RedisScript<Long> VERIFY_SCRIPT = RedisScript.of(
+        "if (    redis.call('get', KEYS[1])==ARGV[1]                   \n" +
+        "    and redis.call('get', KEYS[2])==ARGV[2] ) then            \n" +
+        "  return 1;                                                   \n" +
+        "end;                                                          \n" +
+        "return 0;                                                     \n" ,
+        Long.class
+    );
+
+    /**
+     * Spring redis template.
+     */
+    private final RedisTemplate<?, ?> redisTemplate;
+
+    /**
+     * Lease key and fencing token key, use hash tag make them in the same slot.
+     */
+    private final byte[][] keys;
+
+    private final byte[] ownerBytes;
+    private final byte[] leaseMillisBytes;
+
+    public RedisLeaseLockTemplate(RedisTemplate<?, ?> redisTemplate, String lockName, long leaseMillis) {
+        super(lockName, leaseMillis);
+        this.redisTemplate = redisTemplate;
+        this.keys = new byte[][]{
+            ("lease:{" + lockName + "}").getBytes(UTF_8),
+            ("lease:{" + lockName + "}:fencing").getBytes(UTF_8)
+        };
+        this.ownerBytes = owner.getBytes(UTF_8);
+        this.leaseMillisBytes = Long.toString(leaseMillis).getBytes(UTF_8);
+    }
+
+    @Override
+    protected Long tryAcquire0() {
+        return RedisTemplateUtils.evalScript(redisTemplate, ACQUIRE_SCRIPT, keys, ownerBytes, leaseMillisBytes);
+    }
+
+    @Override
+    protected boolean renew0(long token) {
+        byte[] tokenBytes = Long.toString(token).getBytes(UTF_8);
+        Long ret = RedisTemplateUtils.evalScript(redisTemplate, RENEW_SCRIPT, keys, ownerBytes, leaseMillisBytes, tokenBytes);
+        return ret != null && ret == 1;
+    }
+
+    @Override
+    protected void release0(long token) {
+        byte[] tokenBytes = Long.toString(token).getBytes(UTF_8);
+        RedisTemplateUtils.evalScript(redisTemplate, RELEASE_SCRIPT, keys, ownerBytes, tokenBytes);
+    }
+
+    /**
+     * Redis无法与数据库写操作在同一事务内，只能校验在写之前租约仍由当前进程持有
+     */
+    @Override
+    protected boolean verifyFencing0(long token) {
+        byte[] tokenBytes = Long.toString(token).getBytes(UTF_8);
+        Long ret = RedisTemplateUtils.evalScript(redisTemplate, VERIFY_SCRIPT, keys, ownerBytes, tokenBytes);
+        return ret != null && ret == 1;
+    }
+
+}
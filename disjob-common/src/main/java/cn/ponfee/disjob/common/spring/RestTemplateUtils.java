@@ -26,12 +26,15 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
@@ -43,10 +46,13 @@ import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.http.converter.xml.SourceHttpMessageConverter;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpMessageConverterExtractor;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
@@ -60,6 +66,7 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -88,29 +95,49 @@ public class RestTemplateUtils {
     public static final Type RESULT_BOOLEAN = new ParameterizedTypeReference<Result<Boolean>>() {}.getType();
     public static final Type RESULT_VOID = new ParameterizedTypeReference<Result<Void>>() {}.getType();
 
+    public static final int DEFAULT_MAX_CONN_TOTAL = 200;
+    public static final int DEFAULT_MAX_CONN_PER_ROUTE = 50;
+    public static final long DEFAULT_CONN_IDLE_TIMEOUT = 60000;
+
     public static RestTemplate create(int connectTimeout, int readTimeout, ObjectMapper objectMapper) {
         return create(connectTimeout, readTimeout, objectMapper, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Creates rest template with the rpc codec
+     *
+     * @param httpClient     the http client
+     * @param connectTimeout the connect timeout
+     * @param readTimeout    the read timeout
+     * @param objectMapper   the json object mapper
+     * @param rpcCodec       the rpc codec
+     * @return rest template
+     * @see #invoke(RestTemplate, String, HttpMethod, Type, Map, Object...)
+     */
+    public static RestTemplate create(HttpClient httpClient, int connectTimeout, int readTimeout,
+                                      ObjectMapper objectMapper, RpcCodec rpcCodec) {
+        MappingJackson2HttpMessageConverter messageConverter = createMappingJackson2HttpMessageConverter(objectMapper);
+        RestTemplate restTemplate = create(httpClient, connectTimeout, readTimeout, messageConverter, StandardCharsets.UTF_8);
+        if (rpcCodec == RpcCodec.SMILE) {
+            // 放在最后：其它请求仍默认使用json，只有`invoke`方法会显式的使用smile编解码
+            List<HttpMessageConverter<?>> messageConverters = new ArrayList<>(restTemplate.getMessageConverters());
+            messageConverters.add(new MappingJackson2SmileHttpMessageConverter(Jsons.SMILE));
+            restTemplate.setMessageConverters(messageConverters);
+        }
+        return restTemplate;
+    }
+
     public static RestTemplate create(int connectTimeout, int readTimeout, ObjectMapper objectMapper, Charset charset) {
         return create(connectTimeout, readTimeout, createMappingJackson2HttpMessageConverter(objectMapper), charset);
     }
 
     public static RestTemplate create(int connectTimeout, int readTimeout, MappingJackson2HttpMessageConverter messageConverter, Charset charset) {
-        SSLContext sslContext;
-        try {
-            sslContext = SSLContexts.custom().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build();
-
-            //sslContext = SSLContext.getInstance("TLS");
-            //sslContext.init(null, new TrustManager[]{new SkipX509TrustManager()}, new SecureRandom());
-        } catch (Exception e) {
-            throw new SecurityException(e);
-        }
-
-        CloseableHttpClient httpClient = HttpClients.custom()
-            .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE))
-            .build();
+        HttpClient httpClient = createHttpClient(DEFAULT_MAX_CONN_TOTAL, DEFAULT_MAX_CONN_PER_ROUTE, DEFAULT_CONN_IDLE_TIMEOUT);
+        return create(httpClient, connectTimeout, readTimeout, messageConverter, charset);
+    }
 
+    public static RestTemplate create(HttpClient httpClient, int connectTimeout, int readTimeout,
+                                      MappingJackson2HttpMessageConverter messageConverter, Charset charset) {
         //SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
         HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
         requestFactory.setHttpClient(httpClient);
@@ -130,6 +157,36 @@ public class RestTemplateUtils {
         return restTemplate;
     }
 
+    /**
+     * Creates http client with persistent(keep-alive) pooled connections.
+     * <p>默认的`HttpClients.custom().build()`每个route最多只有2个连接，并发调用同一个server时会频繁的创建/关闭连接
+     *
+     * @param maxConnTotal      the max connections total
+     * @param maxConnPerRoute   the max connections per route(server)
+     * @param idleTimeoutMillis the idle connection evict timeout milliseconds
+     * @return http client
+     */
+    public static CloseableHttpClient createHttpClient(int maxConnTotal, int maxConnPerRoute, long idleTimeoutMillis) {
+        SSLContext sslContext;
+        try {
+            sslContext = SSLContexts.custom().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build();
+
+            //sslContext = SSLContext.getInstance("TLS");
+            //sslContext.init(null, new TrustManager[]{new SkipX509TrustManager()}, new SecureRandom());
+        } catch (Exception e) {
+            throw new SecurityException(e);
+        }
+
+        return HttpClients.custom()
+            .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE))
+            .setMaxConnTotal(maxConnTotal)
+            .setMaxConnPerRoute(maxConnPerRoute)
+            .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+            .evictExpiredConnections()
+            .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
     public static MappingJackson2HttpMessageConverter createMappingJackson2HttpMessageConverter(@Nullable ObjectMapper objectMapper) {
         if (objectMapper == null) {
             objectMapper = Jsons.createObjectMapper(JsonInclude.Include.NON_NULL);
@@ -164,6 +221,7 @@ public class RestTemplateUtils {
 
     /**
      * Rpc invoke based http
+     * <p>The request body codec is determined by the rest template message converters, see {@link RpcCodec#of(RestTemplate)}
      *
      * @param restTemplate the restTemplate
      * @param url          the url
@@ -183,21 +241,39 @@ public class RestTemplateUtils {
         }
 
         URI uri;
+        Object body = arguments;
+        RpcCodec rpcCodec = RpcCodec.JSON;
         if (QUERY_PARAM_METHODS.contains(httpMethod)) {
             UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url);
             if (ArrayUtils.isNotEmpty(arguments)) {
                 builder.queryParams(RpcControllerUtils.buildQueryParameters(arguments));
             }
             uri = builder.build().encode().toUri();
-            arguments = null;
+            body = null;
         } else {
             uri = restTemplate.getUriTemplateHandler().expand(url, Collects.EMPTY_OBJECT_ARRAY);
+            rpcCodec = RpcCodec.of(restTemplate);
             if (ArrayUtils.isNotEmpty(arguments)) {
-                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.setContentType(rpcCodec.mediaType());
+                if (rpcCodec == RpcCodec.SMILE) {
+                    // json converter支持`MediaType.ALL`，需先显式编码为smile字节数组
+                    body = toSmileBytes(arguments);
+                }
+            }
+            if (rpcCodec == RpcCodec.SMILE) {
+                // 显式的声明接受smile，如果对端不支持该编码(如frameless worker)，则仍会响应json
+                headers.setAccept(Arrays.asList(rpcCodec.mediaType(), MediaType.APPLICATION_JSON));
             }
         }
 
-        RequestCallback requestCallback = restTemplate.httpEntityCallback(new HttpEntity<>(arguments, headers), returnType);
+        RequestCallback requestCallback = restTemplate.httpEntityCallback(new HttpEntity<>(body, headers), returnType);
+        if (rpcCodec == RpcCodec.SMILE) {
+            // smile converter优先解码响应体，json响应仍由json converter解码
+            List<HttpMessageConverter<?>> converters = new ArrayList<>(restTemplate.getMessageConverters().size());
+            restTemplate.getMessageConverters().stream().filter(MappingJackson2SmileHttpMessageConverter.class::isInstance).forEach(converters::add);
+            restTemplate.getMessageConverters().stream().filter(e -> !(e instanceof MappingJackson2SmileHttpMessageConverter)).forEach(converters::add);
+            return restTemplate.execute(uri, httpMethod, requestCallback, new HttpMessageConverterExtractor<>(returnType, converters));
+        }
         ResponseExtractor<ResponseEntity<T>> responseExtractor = restTemplate.responseEntityExtractor(returnType);
         ResponseEntity<T> responseEntity = restTemplate.execute(uri, httpMethod, requestCallback, responseExtractor);
         return Objects.requireNonNull(responseEntity).getBody();
@@ -223,6 +299,14 @@ public class RestTemplateUtils {
 
     // -----------------------------------------------------------------------private methods or static class
 
+    private static byte[] toSmileBytes(Object[] arguments) {
+        try {
+            return Jsons.SMILE.writeValueAsBytes(arguments);
+        } catch (Exception e) {
+            return ExceptionUtils.rethrow(e);
+        }
+    }
+
     private static List<String> toListString(Object value) {
         if (value == null) {
             return null;
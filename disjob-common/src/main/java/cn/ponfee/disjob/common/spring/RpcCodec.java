@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.spring;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Rpc message body codec, negotiated by the http content type.
+ *
+ * @author Ponfee
+ */
+public enum RpcCodec {
+
+    /**
+     * Json text codec
+     */
+    JSON(MediaType.APPLICATION_JSON),
+
+    /**
+     * Jackson smile binary codec
+     */
+    SMILE(new MediaType("application", "x-jackson-smile")),
+
+    ;
+
+    private final MediaType mediaType;
+
+    RpcCodec(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public boolean matches(String contentType) {
+        return contentType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    /**
+     * Returns the rpc codec of the rest template.
+     *
+     * @param restTemplate the rest template
+     * @return rpc codec
+     * @see RestTemplateUtils#create(org.apache.http.client.HttpClient, int, int, com.fasterxml.jackson.databind.ObjectMapper, RpcCodec)
+     */
+    public static RpcCodec of(RestTemplate restTemplate) {
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter) {
+                return SMILE;
+            }
+        }
+        return JSON;
+    }
+
+}
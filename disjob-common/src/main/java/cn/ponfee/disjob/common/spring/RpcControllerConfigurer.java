@@ -19,10 +19,10 @@ package cn.ponfee.disjob.common.spring;
 import cn.ponfee.disjob.common.collect.Collects;
 import cn.ponfee.disjob.common.util.ClassUtils;
 import cn.ponfee.disjob.common.util.Jsons;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
@@ -32,8 +32,8 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.PushbackInputStream;
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -50,6 +50,18 @@ public class RpcControllerConfigurer implements WebMvcConfigurer {
         resolvers.add(new RpcControllerArgumentResolver());
     }
 
+    /**
+     * Responds smile binary body only if the rpc client explicit accept it.
+     * <p>添加在最后，`Accept: *&#47;*`的请求(如浏览器、curl、actuator)仍默认响应json
+     *
+     * @param converters the message converters
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(Jsons.SMILE));
+    }
+
     /**
      * Configure rpc invocation for spring web {@code org.springframework.stereotype.Controller} methods.
      * <p>Can defined multiple object arguments for {@code org.springframework.web.bind.annotation.RequestMapping} method.
@@ -102,9 +114,14 @@ public class RpcControllerConfigurer implements WebMvcConfigurer {
             }
 
             try (ServletInputStream inputStream = request.getInputStream()) {
-                String body = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-                if (StringUtils.isEmpty(body)) {
+                PushbackInputStream body = new PushbackInputStream(inputStream);
+                int first = body.read();
+                if (first == -1) {
                     return RpcControllerUtils.parseQueryParameters(method, request.getParameterMap());
+                }
+                body.unread(first);
+                if (RpcCodec.SMILE.matches(request.getContentType())) {
+                    return Jsons.parseMethodArgs(body, method, Jsons.SMILE);
                 } else {
                     return Jsons.parseMethodArgs(body, method);
                 }
@@ -27,6 +27,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
@@ -40,6 +41,7 @@ import org.springframework.util.Assert;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -85,6 +87,11 @@ public final class Jsons {
         .enable(JsonReadFeature.ALLOW_TRAILING_COMMA.mappedFeature())                   // 对象或数组：可以有一个尾随逗号
         .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS.mappedFeature());                   // 允许单行和多行注释
 
+    /**
+     * Object mapper of jackson smile binary format
+     */
+    public static final ObjectMapper SMILE = Jsons.createSmileObjectMapper(JsonInclude.Include.NON_NULL);
+
     /**
      * Jackson ObjectMapper(thread safe)
      */
@@ -240,45 +247,36 @@ public final class Jsons {
         return parseArgs(body, method.getGenericParameterTypes());
     }
 
-    public static Object[] parseArgs(String body, Type[] parameterTypes) {
-        if (body == null) {
+    public static Object[] parseMethodArgs(InputStream body, Method method) {
+        return parseMethodArgs(body, method, NORMAL.objectMapper);
+    }
+
+    /**
+     * Parse method arguments from the input stream, without build an intermediate string.
+     *
+     * @param body         the body input stream
+     * @param method       the method
+     * @param objectMapper the object mapper, json or smile
+     * @return method arguments
+     */
+    public static Object[] parseMethodArgs(InputStream body, Method method, ObjectMapper objectMapper) {
+        if (body == null || method.getParameterCount() == 0) {
             return null;
         }
+        try {
+            return parseArgs(objectMapper, objectMapper.readTree(body), method.getGenericParameterTypes());
+        } catch (IOException e) {
+            return ExceptionUtils.rethrow(e);
+        }
+    }
 
-        int argumentCount = parameterTypes.length;
-        if (/*method.getParameterCount()*/argumentCount == 0) {
+    public static Object[] parseArgs(String body, Type[] parameterTypes) {
+        if (body == null || parameterTypes.length == 0) {
             return null;
         }
 
         ObjectMapper objectMapper = NORMAL.objectMapper;
-        JsonNode rootNode = readTree(objectMapper, body);
-        if (rootNode.isArray()) {
-            ArrayNode arrayNode = (ArrayNode) rootNode;
-
-            // 方法只有一个参数，但请求参数长度大于1
-            // ["a", "b"]     -> method(Object[] arg) -> arg=["a", "b"]
-            // [["a"], ["b"]] -> method(Object[] arg) -> arg=[["a"], ["b"]]
-            if (argumentCount == 1 && arrayNode.size() > 1) {
-                return new Object[]{parse(objectMapper, arrayNode, parameterTypes[0])};
-            }
-
-            // 其它情况，在调用方将参数(requestParameters)用数组包一层：new Object[]{ arg-1, arg-2, ..., arg-n }
-            // [["a", "b"]]   -> method(Object[] arg)                 -> arg =["a", "b"]
-            // [["a"], ["b"]] -> method(Object[] arg1, Object[] arg2) -> arg1=["a"], arg2=["b"]
-            // ["a", "b"]     -> method(Object[] arg1, Object[] arg2) -> arg1=["a"], arg2=["b"]  # ACCEPT_SINGLE_VALUE_AS_ARRAY作用：将字符串“a”转为数组arg1[]
-            if (argumentCount != arrayNode.size()) {
-                throw new IllegalArgumentException("Inconsistent method arguments size: " + argumentCount + " != " + arrayNode.size());
-            }
-
-            Object[] methodArguments = new Object[argumentCount];
-            for (int i = 0; i < argumentCount; i++) {
-                methodArguments[i] = parse(objectMapper, arrayNode.get(i), parameterTypes[i]);
-            }
-            return methodArguments;
-        } else {
-            Assert.isTrue(argumentCount == 1, "Single object request parameter not support multiple arguments method.");
-            return new Object[]{parse(objectMapper, rootNode, parameterTypes[0])};
-        }
+        return parseArgs(objectMapper, readTree(objectMapper, body), parameterTypes);
     }
 
     public static <T> T fromJson(String json, JavaType javaType) {
@@ -342,6 +340,15 @@ public final class Jsons {
         return objectMapper;
     }
 
+    public static ObjectMapper createSmileObjectMapper(JsonInclude.Include include) {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        if (include != null) {
+            objectMapper.setSerializationInclusion(include);
+        }
+        configObjectMapper(objectMapper);
+        return objectMapper;
+    }
+
     public static void configObjectMapper(ObjectMapper objectMapper) {
         // Common config
         objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES); // 反序列化时忽略未知属性
@@ -416,6 +423,37 @@ public final class Jsons {
         }
     }
 
+    private static Object[] parseArgs(ObjectMapper objectMapper, JsonNode rootNode, Type[] parameterTypes) {
+        int argumentCount = parameterTypes.length;
+        if (rootNode.isArray()) {
+            ArrayNode arrayNode = (ArrayNode) rootNode;
+
+            // 方法只有一个参数，但请求参数长度大于1
+            // ["a", "b"]     -> method(Object[] arg) -> arg=["a", "b"]
+            // [["a"], ["b"]] -> method(Object[] arg) -> arg=[["a"], ["b"]]
+            if (argumentCount == 1 && arrayNode.size() > 1) {
+                return new Object[]{parse(objectMapper, arrayNode, parameterTypes[0])};
+            }
+
+            // 其它情况，在调用方将参数(requestParameters)用数组包一层：new Object[]{ arg-1, arg-2, ..., arg-n }
+            // [["a", "b"]]   -> method(Object[] arg)                 -> arg =["a", "b"]
+            // [["a"], ["b"]] -> method(Object[] arg1, Object[] arg2) -> arg1=["a"], arg2=["b"]
+            // ["a", "b"]     -> method(Object[] arg1, Object[] arg2) -> arg1=["a"], arg2=["b"]  # ACCEPT_SINGLE_VALUE_AS_ARRAY作用：将字符串“a”转为数组arg1[]
+            if (argumentCount != arrayNode.size()) {
+                throw new IllegalArgumentException("Inconsistent method arguments size: " + argumentCount + " != " + arrayNode.size());
+            }
+
+            Object[] methodArguments = new Object[argumentCount];
+            for (int i = 0; i < argumentCount; i++) {
+                methodArguments[i] = parse(objectMapper, arrayNode.get(i), parameterTypes[i]);
+            }
+            return methodArguments;
+        } else {
+            Assert.isTrue(argumentCount == 1, "Single object request parameter not support multiple arguments method.");
+            return new Object[]{parse(objectMapper, rootNode, parameterTypes[0])};
+        }
+    }
+
     private static Object parse(ObjectMapper objectMapper, JsonNode jsonNode, Type type) {
         try {
             return objectMapper
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.base;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Consistent hash, jump consistent hash and rendezvous hash test
+ *
+ * @author Ponfee
+ */
+public class ConsistentHashTest {
+
+    private static final int NODE_COUNT = 50;
+    private static final int KEY_COUNT = 100_000;
+    private static final int VIRTUAL_COUNT = 17;
+
+    private final List<String> nodes = IntStream.range(0, NODE_COUNT).mapToObj(i -> "worker-" + i).collect(Collectors.toList());
+    private final List<String> keys = IntStream.range(0, KEY_COUNT).mapToObj(Integer::toString).collect(Collectors.toList());
+
+    @Test
+    public void testConsistentHashMembership() {
+        ConsistentHash<String> consistentHash = new ConsistentHash<>(nodes, VIRTUAL_COUNT);
+        Assertions.assertEquals(VIRTUAL_COUNT, consistentHash.getExistingReplicas("worker-0"));
+        Assertions.assertTrue(consistentHash.containsNode("worker-0"));
+
+        consistentHash.removeNode("worker-0");
+        Assertions.assertEquals(0, consistentHash.getExistingReplicas("worker-0"));
+        Assertions.assertFalse(consistentHash.containsNode("worker-0"));
+        keys.stream().limit(1000).forEach(key -> Assertions.assertNotEquals("worker-0", consistentHash.routeNode(key)));
+
+        consistentHash.addNode("worker-0", VIRTUAL_COUNT);
+        consistentHash.addNode("worker-0", 3);
+        Assertions.assertEquals(VIRTUAL_COUNT + 3, consistentHash.getExistingReplicas("worker-0"));
+
+        nodes.forEach(consistentHash::removeNode);
+        Assertions.assertNull(consistentHash.routeNode("test"));
+    }
+
+    @Test
+    public void testKeyMovement() {
+        List<String> removed = new ArrayList<>(nodes);
+        removed.remove(NODE_COUNT - 1);
+
+        // consistent hash ring
+        ConsistentHash<String> ring = new ConsistentHash<>(nodes, VIRTUAL_COUNT);
+        List<String> ringBefore = lookup(ring::routeNode);
+        ring.removeNode(nodes.get(NODE_COUNT - 1));
+        assertMovement(ringBefore, lookup(ring::routeNode));
+
+        // jump consistent hash
+        List<String> jumpBefore = lookup(key -> JumpConsistentHash.routeNode(key, nodes));
+        assertMovement(jumpBefore, lookup(key -> JumpConsistentHash.routeNode(key, removed)));
+
+        // rendezvous hash
+        RendezvousHash<String> rendezvous = new RendezvousHash<>(nodes);
+        List<String> rendezvousBefore = lookup(rendezvous::routeNode);
+        rendezvous.removeNode(nodes.get(NODE_COUNT - 1));
+        assertMovement(rendezvousBefore, lookup(rendezvous::routeNode));
+    }
+
+    @Disabled
+    @Test
+    public void testLookupBenchmark() {
+        ConsistentHash<String> ring = new ConsistentHash<>(nodes, VIRTUAL_COUNT);
+        RendezvousHash<String> rendezvous = new RendezvousHash<>(nodes);
+        benchmark("ConsistentHash", ring::routeNode);
+        benchmark("JumpConsistentHash", key -> JumpConsistentHash.routeNode(key, nodes));
+        benchmark("RendezvousHash", rendezvous::routeNode);
+    }
+
+    private List<String> lookup(Function<String, String> router) {
+        return keys.stream().map(router).collect(Collectors.toList());
+    }
+
+    private void benchmark(String name, Function<String, String> router) {
+        long start = System.nanoTime();
+        lookup(router);
+        System.out.println(name + " lookup cost: " + (System.nanoTime() - start) / KEY_COUNT + "ns/op");
+    }
+
+    /**
+     * 理想的key移动比例为1/NODE_COUNT，且只有被移除节点上的key会移动
+     */
+    private void assertMovement(List<String> before, List<String> after) {
+        String removedNode = nodes.get(NODE_COUNT - 1);
+        int moved = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (!before.get(i).equals(after.get(i))) {
+                moved++;
+                Assertions.assertEquals(removedNode, before.get(i));
+            }
+            Assertions.assertNotEquals(removedNode, after.get(i));
+        }
+        double ratio = (double) moved / KEY_COUNT;
+        Assertions.assertTrue(ratio > 0, () -> "No key moved");
+        Assertions.assertTrue(ratio < 3.0D / NODE_COUNT, () -> "Moved key ratio too large: " + ratio);
+    }
+
+}
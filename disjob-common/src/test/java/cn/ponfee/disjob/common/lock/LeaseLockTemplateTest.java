@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.common.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * LeaseLockTemplate test
+ *
+ * @author Ponfee
+ */
+public class LeaseLockTemplateTest {
+
+    private static final long LEASE_MS = 3000;
+
+    @Test
+    public void testRenewal() throws Exception {
+        LeaseStore store = new LeaseStore();
+        try (MemoryLeaseLockTemplate a = new MemoryLeaseLockTemplate(store); MemoryLeaseLockTemplate b = new MemoryLeaseLockTemplate(store)) {
+            Assertions.assertEquals(Boolean.TRUE, a.execute(() -> true));
+            long token = a.fencingToken();
+
+            // 后台续租，超过租约时长后仍持有租约
+            Thread.sleep(LEASE_MS + 1000);
+            Assertions.assertTrue(a.isLeader());
+            Assertions.assertEquals(token, a.fencingToken());
+            Assertions.assertNull(b.execute(() -> true));
+            Assertions.assertFalse(b.isLeader());
+        }
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        LeaseStore store = new LeaseStore();
+        try (MemoryLeaseLockTemplate a = new MemoryLeaseLockTemplate(store); MemoryLeaseLockTemplate b = new MemoryLeaseLockTemplate(store)) {
+            Assertions.assertEquals(Boolean.TRUE, a.execute(() -> true));
+            long token = a.fencingToken();
+
+            // a与存储之间网络分区，无法续租
+            a.unavailable.set(true);
+            Thread.sleep(LEASE_MS + 500);
+            Assertions.assertFalse(a.isLeader());
+
+            Assertions.assertEquals(Boolean.TRUE, b.execute(() -> true));
+            Assertions.assertTrue(b.isLeader());
+            Assertions.assertEquals(token + 1, b.fencingToken());
+        }
+    }
+
+    @Test
+    public void testFencingRejection() throws Exception {
+        LeaseStore store = new LeaseStore();
+        try (MemoryLeaseLockTemplate a = new MemoryLeaseLockTemplate(store); MemoryLeaseLockTemplate b = new MemoryLeaseLockTemplate(store)) {
+            // 不在租约锁内执行时不校验
+            LeaseLockTemplate.checkFencing();
+
+            LeaseLockTemplate.Fencing[] holder = new LeaseLockTemplate.Fencing[1];
+            a.execute(() -> {
+                LeaseLockTemplate.checkFencing();
+                holder[0] = LeaseLockTemplate.currentFencing();
+                return true;
+            });
+            Assertions.assertNull(LeaseLockTemplate.currentFencing());
+            LeaseLockTemplate.Fencing stale = holder[0];
+            stale.check();
+
+            // 租约在存储中过期并被b抢占后，a持有的token被拒绝
+            store.expireTime = 0;
+            Assertions.assertEquals(Boolean.TRUE, b.execute(() -> true));
+            Assertions.assertThrows(IllegalStateException.class, stale::check);
+            Assertions.assertFalse(a.verifyFencing(stale.token()));
+
+            // fencing传递到其它线程
+            AtomicReference<LeaseLockTemplate.Fencing> propagated = new AtomicReference<>();
+            b.execute(() -> {
+                Consumer<Long> action = LeaseLockTemplate.propagateFencing(e -> {
+                    LeaseLockTemplate.checkFencing();
+                    propagated.set(LeaseLockTemplate.currentFencing());
+                });
+                Thread thread = new Thread(() -> action.accept(1L));
+                thread.start();
+                thread.join();
+                return true;
+            });
+            Assertions.assertEquals(b.fencingToken(), propagated.get().token());
+        }
+    }
+
+    private static class LeaseStore {
+        private String owner = "";
+        private long fencingToken = 0;
+        private volatile long expireTime = 0;
+
+        private static long now() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        }
+    }
+
+    private static class MemoryLeaseLockTemplate extends LeaseLockTemplate {
+        private final LeaseStore store;
+        private final AtomicBoolean unavailable = new AtomicBoolean(false);
+
+        private MemoryLeaseLockTemplate(LeaseStore store) {
+            super("test", LEASE_MS);
+            this.store = store;
+        }
+
+        @Override
+        protected Long tryAcquire0() {
+            synchronized (store) {
+                checkAvailable();
+                if (store.expireTime >= LeaseStore.now() && !store.owner.equals(owner)) {
+                    return null;
+                }
+                store.owner = owner;
+                store.expireTime = LeaseStore.now() + leaseMillis;
+                return ++store.fencingToken;
+            }
+        }
+
+        @Override
+        protected boolean renew0(long token) {
+            synchronized (store) {
+                checkAvailable();
+                if (!store.owner.equals(owner) || store.fencingToken != token) {
+                    return false;
+                }
+                store.expireTime = LeaseStore.now() + leaseMillis;
+                return true;
+            }
+        }
+
+        @Override
+        protected void release0(long token) {
+            synchronized (store) {
+                if (store.owner.equals(owner) && store.fencingToken == token) {
+                    store.expireTime = 0;
+                }
+            }
+        }
+
+        @Override
+        protected boolean verifyFencing0(long token) {
+            synchronized (store) {
+                checkAvailable();
+                return store.owner.equals(owner) && store.fencingToken == token;
+            }
+        }
+
+        private void checkAvailable() {
+            if (unavailable.get()) {
+                throw new IllegalStateException("Lease store unavailable.");
+            }
+        }
+    }
+
+}
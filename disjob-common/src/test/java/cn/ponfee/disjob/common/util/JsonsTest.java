@@ -18,6 +18,10 @@ package cn.ponfee.disjob.common.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,4 +67,20 @@ public class JsonsTest {
             "    ");
     }
 
+    @Test
+    public void testParseMethodArgs() throws Exception {
+        Method method = JsonsTest.class.getDeclaredMethod("rpcMethod", String.class, List.class, long.class);
+        Object[] args = {"abc", Arrays.asList(1L, 2L), 3L};
+
+        Object[] json = Jsons.parseMethodArgs(new ByteArrayInputStream(Jsons.toBytes(args)), method);
+        assertThat(json).containsExactly("abc", Arrays.asList(1L, 2L), 3L);
+
+        byte[] smileBytes = Jsons.SMILE.writeValueAsBytes(args);
+        Object[] smile = Jsons.parseMethodArgs(new ByteArrayInputStream(smileBytes), method, Jsons.SMILE);
+        assertThat(smile).containsExactly("abc", Arrays.asList(1L, 2L), 3L);
+    }
+
+    private static void rpcMethod(String a, List<Long> b, long c) {
+    }
+
 }
@@ -20,6 +20,9 @@ import cn.ponfee.disjob.common.spring.RestTemplateUtils;
 import cn.ponfee.disjob.common.spring.RpcControllerConfigurer;
 import cn.ponfee.disjob.common.spring.SpringContextHolder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.DeferredImportSelector;
@@ -68,11 +71,26 @@ public class BasicDeferredImportSelector implements DeferredImportSelector {
             return new HttpProperties();
         }
 
+        /**
+         * 容器关闭时close，释放连接池及后台的idle connection evictor线程
+         *
+         * @param http the http properties
+         * @return CloseableHttpClient
+         */
+        @ConditionalOnMissingBean(name = JobConstants.SPRING_BEAN_NAME_HTTP_CLIENT)
+        @Bean(name = JobConstants.SPRING_BEAN_NAME_HTTP_CLIENT, destroyMethod = "close")
+        public CloseableHttpClient httpClient(HttpProperties http) {
+            http.check();
+            return RestTemplateUtils.createHttpClient(http.getMaxConnTotal(), http.getMaxConnPerRoute(), http.getConnIdleTimeout());
+        }
+
         @ConditionalOnMissingBean(name = JobConstants.SPRING_BEAN_NAME_REST_TEMPLATE)
         @Bean(JobConstants.SPRING_BEAN_NAME_REST_TEMPLATE)
-        public RestTemplate restTemplate(HttpProperties http, @Nullable ObjectMapper objectMapper) {
+        public RestTemplate restTemplate(HttpProperties http,
+                                         @Qualifier(JobConstants.SPRING_BEAN_NAME_HTTP_CLIENT) HttpClient httpClient,
+                                         @Nullable ObjectMapper objectMapper) {
             http.check();
-            return RestTemplateUtils.create(http.getConnectTimeout(), http.getReadTimeout(), objectMapper);
+            return RestTemplateUtils.create(httpClient, http.getConnectTimeout(), http.getReadTimeout(), objectMapper, http.getRpcCodec());
         }
 
         @ConditionalOnMissingBean
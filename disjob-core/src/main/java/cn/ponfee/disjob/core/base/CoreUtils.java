@@ -28,7 +28,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static cn.ponfee.disjob.core.base.JobConstants.DISJOB_BOUND_SERVER_HOST;
 
@@ -41,6 +49,16 @@ public class CoreUtils {
 
     private static final Logger LOG = LoggerFactory.getLogger(CoreUtils.class);
 
+    /**
+     * Compressed execute snapshot prefix
+     */
+    private static final String COMPRESSED_SNAPSHOT_PREFIX = "gzip+base64:";
+
+    /**
+     * Compress execute snapshot minimum length
+     */
+    private static final int COMPRESS_SNAPSHOT_MINIMUM_LENGTH = 4096;
+
     /**
      * Instance lock pool
      */
@@ -110,6 +128,53 @@ public class CoreUtils {
         }
     }
 
+    /**
+     * Compress the large execute snapshot, format: `gzip+base64:` + base64(gzip(snapshot))
+     *
+     * @param snapshot the execute snapshot
+     * @return compressed snapshot, or origin snapshot if not need compress
+     */
+    public static String compressSnapshot(String snapshot) {
+        if (snapshot == null || snapshot.length() < COMPRESS_SNAPSHOT_MINIMUM_LENGTH) {
+            return snapshot;
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(snapshot.length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+            gzip.write(snapshot.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String compressed = COMPRESSED_SNAPSHOT_PREFIX + Base64.getEncoder().encodeToString(baos.toByteArray());
+        return compressed.length() < snapshot.length() ? compressed : snapshot;
+    }
+
+    /**
+     * Decompress the execute snapshot which compressed by {@link #compressSnapshot(String)}
+     *
+     * @param snapshot the execute snapshot
+     * @return decompressed snapshot
+     */
+    public static String decompressSnapshot(String snapshot) {
+        if (snapshot == null || !snapshot.startsWith(COMPRESSED_SNAPSHOT_PREFIX)) {
+            return snapshot;
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(snapshot.substring(COMPRESSED_SNAPSHOT_PREFIX.length()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length * 4);
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                byte[] buf = new byte[4096];
+                for (int n; (n = gzip.read(buf)) != -1; ) {
+                    baos.write(buf, 0, n);
+                }
+            }
+            return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException | IllegalArgumentException e) {
+            // not a compressed snapshot, just starts with the prefix
+            LOG.warn("Decompress execute snapshot failed: {}", e.getMessage());
+            return snapshot;
+        }
+    }
+
     public static String trimRequired(String text, int maximumLength, String name) {
         if (StringUtils.isBlank(text)) {
             throw new IllegalArgumentException(name + " cannot be blank");
@@ -17,6 +17,8 @@
 package cn.ponfee.disjob.core.base;
 
 import cn.ponfee.disjob.common.base.ToJsonString;
+import cn.ponfee.disjob.common.spring.RestTemplateUtils;
+import cn.ponfee.disjob.common.spring.RpcCodec;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -46,9 +48,35 @@ public class HttpProperties extends ToJsonString implements Serializable {
      */
     private int readTimeout = 5000;
 
+    /**
+     * Rpc request body codec, default json.
+     * <p>SMILE is binary and cheaper to encode/decode, but the remote server must support it(frameless worker only support json).
+     */
+    private RpcCodec rpcCodec = RpcCodec.JSON;
+
+    /**
+     * Http client max pooled connections total, default 200.
+     */
+    private int maxConnTotal = RestTemplateUtils.DEFAULT_MAX_CONN_TOTAL;
+
+    /**
+     * Http client max pooled connections per server, default 50.
+     * <p>连接会保持(keep-alive)并复用，避免每次rpc调用都新建连接
+     */
+    private int maxConnPerRoute = RestTemplateUtils.DEFAULT_MAX_CONN_PER_ROUTE;
+
+    /**
+     * Http client pooled connection idle timeout milliseconds, default 60000.
+     */
+    private long connIdleTimeout = RestTemplateUtils.DEFAULT_CONN_IDLE_TIMEOUT;
+
     public void check() {
         Assert.isTrue(connectTimeout > 0, "Http connect timeout must be greater than 0.");
         Assert.isTrue(readTimeout > 0, "Http read timeout must be greater than 0.");
+        Assert.notNull(rpcCodec, "Http rpc codec cannot be null.");
+        Assert.isTrue(maxConnTotal > 0, "Http max connections total must be greater than 0.");
+        Assert.isTrue(maxConnPerRoute > 0, "Http max connections per route must be greater than 0.");
+        Assert.isTrue(connIdleTimeout > 0, "Http connection idle timeout must be greater than 0.");
     }
 
 }
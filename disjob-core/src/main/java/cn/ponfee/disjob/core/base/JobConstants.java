@@ -75,6 +75,11 @@ public final class JobConstants {
      */
     public static final String SPRING_BEAN_NAME_REST_TEMPLATE = SPRING_BEAN_NAME_PREFIX + ".rest-template";
 
+    /**
+     * Http client spring bean name
+     */
+    public static final String SPRING_BEAN_NAME_HTTP_CLIENT = SPRING_BEAN_NAME_PREFIX + ".http-client";
+
     /**
      * Authenticate header group
      */
@@ -16,6 +16,7 @@
 
 package cn.ponfee.disjob.core.base;
 
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskResult;
 import cn.ponfee.disjob.core.dto.supervisor.StopTaskParam;
@@ -37,15 +38,43 @@ public interface SupervisorRpcService {
     @PostMapping("/worker/event/subscribe")
     void subscribeWorkerEvent(RegistryEventType eventType, Worker worker);
 
+    /**
+     * Set the task worker, skip the tasks which already assigned to other worker
+     *
+     * @param worker  the worker
+     * @param taskIds the task ids
+     * @throws Exception if occur exception
+     */
     @PostMapping("/task/worker/update")
     void updateTaskWorker(String worker, List<Long> taskIds) throws Exception;
 
+    /**
+     * Clear the task worker, skip the tasks which already assigned to other worker
+     *
+     * @param worker  the current worker of tasks
+     * @param taskIds the task ids
+     * @throws Exception if occur exception
+     */
+    @PostMapping("/task/worker/reset")
+    void resetTaskWorker(String worker, List<Long> taskIds) throws Exception;
+
     @PostMapping("/task/start")
     StartTaskResult startTask(StartTaskParam param) throws Exception;
 
     @PostMapping("/task/stop")
     boolean stopTask(StopTaskParam param) throws Exception;
 
+    /**
+     * Steal the waiting tasks of overloaded peer worker
+     *
+     * @param worker the idle worker
+     * @param count  the maximum steal count
+     * @return number of stolen tasks
+     * @throws Exception if occur exception
+     */
+    @PostMapping("/task/steal")
+    int stealTasks(Worker worker, int count) throws Exception;
+
     @PostMapping("/instance/pause")
     boolean pauseInstance(long instanceId) throws Exception;
 
@@ -64,4 +93,14 @@ public interface SupervisorRpcService {
     @PostMapping("/task/savepoint")
     boolean savepoint(long taskId, String worker, String executeSnapshot) throws Exception;
 
+    /**
+     * Batch savepoint the latest task execution snapshot data
+     *
+     * @param params the savepoint params
+     * @return the task ids which are not saved(task not executing or not belongs the worker)
+     * @throws Exception if occur exception
+     */
+    @PostMapping("/task/savepoints")
+    List<Long> savepoints(List<SavepointParam> params) throws Exception;
+
 }
@@ -17,12 +17,21 @@
 package cn.ponfee.disjob.core.base;
 
 import cn.ponfee.disjob.core.enums.TokenType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.codec.digest.HmacAlgorithms;
-import org.apache.commons.codec.digest.HmacUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.util.Assert;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import static cn.ponfee.disjob.common.base.Symbol.Str.DOT;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -30,12 +39,43 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 /**
  * Token utilities
  *
+ * <pre>
+ * 1、同一个(tokenPlain, type, mode, group)在有效期的前半段内复用已创建的token，避免每次调用都做hmac计算
+ * 2、验证成功的token会被缓存直到其过期
+ * 3、每个线程按tokenPlain复用Mac实例，避免每次都做key的初始化
+ * </pre>
+ *
  * @author Ponfee
  */
 public class Tokens {
 
     private static final long EXPIRATION_MILLISECONDS = 60_000L;
 
+    /**
+     * 复用已创建token的时长，保证下发出去的token剩余有效期至少为`EXPIRATION_MILLISECONDS - REUSE_MILLISECONDS`
+     */
+    private static final long REUSE_MILLISECONDS = EXPIRATION_MILLISECONDS / 2;
+
+    private static final int MAX_CACHED_MAC_SIZE = 64;
+
+    private static final Cache<TokenKey, String> CREATED_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMillis(REUSE_MILLISECONDS))
+        .build();
+
+    /**
+     * value is the token expiration time milliseconds
+     */
+    private static final Cache<VerifiedKey, Long> VERIFIED_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(Duration.ofMillis(EXPIRATION_MILLISECONDS))
+        .build();
+
+    /**
+     * Thread local mac instances, map structure: tokenPlain -> Mac
+     */
+    private static final ThreadLocal<Map<String, Mac>> MAC_HOLDER = ThreadLocal.withInitial(HashMap::new);
+
     public static String createAuthentication(String tokenPlain, TokenType type, String group) {
         return create(tokenPlain, type, Mode.authentication, group);
     }
@@ -58,8 +98,14 @@ public class Tokens {
         if (StringUtils.isEmpty(tokenPlain)) {
             return null;
         }
-        String expiration = Long.toString(System.currentTimeMillis() + EXPIRATION_MILLISECONDS);
-        return secret(tokenPlain, type, mode, expiration, group) + DOT + expiration;
+        TokenKey key = new TokenKey(tokenPlain, type, mode, group);
+        String token = CREATED_CACHE.getIfPresent(key);
+        if (token == null) {
+            String expiration = Long.toString(System.currentTimeMillis() + EXPIRATION_MILLISECONDS);
+            token = secret(tokenPlain, type, mode, expiration, group) + DOT + expiration;
+            CREATED_CACHE.put(key, token);
+        }
+        return token;
     }
 
     private static boolean verify(String tokenSecret, String tokenPlain, TokenType type, Mode mode, String group) {
@@ -69,6 +115,13 @@ public class Tokens {
         if (StringUtils.isEmpty(tokenSecret)) {
             return false;
         }
+
+        VerifiedKey key = new VerifiedKey(tokenSecret, new TokenKey(tokenPlain, type, mode, group));
+        Long verifiedExpiration = VERIFIED_CACHE.getIfPresent(key);
+        if (verifiedExpiration != null) {
+            return verifiedExpiration >= System.currentTimeMillis();
+        }
+
         String[] array = tokenSecret.split("\\.");
         if (array.length != 2) {
             return false;
@@ -76,12 +129,18 @@ public class Tokens {
 
         String actual = array[0];
         String expiration = array[1];
-        if (Long.parseLong(expiration) < System.currentTimeMillis()) {
+        long expirationTime = Long.parseLong(expiration);
+        if (expirationTime < System.currentTimeMillis()) {
             return false;
         }
 
         String expect = secret(tokenPlain, type, mode, expiration, group);
-        return actual.equals(expect);
+        // constant-time comparison
+        if (!MessageDigest.isEqual(actual.getBytes(UTF_8), expect.getBytes(UTF_8))) {
+            return false;
+        }
+        VERIFIED_CACHE.put(key, expirationTime);
+        return true;
     }
 
     private static String secret(String tokenPlain, TokenType type, Mode mode, String expiration, String group) {
@@ -90,11 +149,31 @@ public class Tokens {
         Assert.hasText(group, "Group cannot be empty.");
         String payload = type.name() + DOT + mode.name() + DOT + expiration + DOT + group;
 
-        HmacUtils hm = new HmacUtils(HmacAlgorithms.HMAC_SHA_1, tokenPlain.getBytes(UTF_8));
-        byte[] digest = hm.hmac(payload.getBytes(UTF_8));
+        byte[] digest = getMac(tokenPlain).doFinal(payload.getBytes(UTF_8));
         return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
     }
 
+    private static Mac getMac(String tokenPlain) {
+        Map<String, Mac> map = MAC_HOLDER.get();
+        Mac mac = map.get(tokenPlain);
+        if (mac != null) {
+            // doFinal has been reset the mac
+            return mac;
+        }
+        if (map.size() >= MAX_CACHED_MAC_SIZE) {
+            map.clear();
+        }
+        String algorithm = HmacAlgorithms.HMAC_SHA_1.getName();
+        try {
+            mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(tokenPlain.getBytes(UTF_8), algorithm));
+        } catch (Exception e) {
+            return ExceptionUtils.rethrow(e);
+        }
+        map.put(tokenPlain, mac);
+        return mac;
+    }
+
     private enum Mode {
         /**
          * For authentication
@@ -106,4 +185,65 @@ public class Tokens {
         signature,
     }
 
+    private static final class TokenKey {
+        private final String tokenPlain;
+        private final TokenType type;
+        private final Mode mode;
+        private final String group;
+
+        private TokenKey(String tokenPlain, TokenType type, Mode mode, String group) {
+            this.tokenPlain = tokenPlain;
+            this.type = type;
+            this.mode = mode;
+            this.group = group;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenKey)) {
+                return false;
+            }
+            TokenKey other = (TokenKey) o;
+            return type == other.type
+                && mode == other.mode
+                && Objects.equals(tokenPlain, other.tokenPlain)
+                && Objects.equals(group, other.group);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tokenPlain, type, mode, group);
+        }
+    }
+
+    private static final class VerifiedKey {
+        private final String tokenSecret;
+        private final TokenKey tokenKey;
+
+        private VerifiedKey(String tokenSecret, TokenKey tokenKey) {
+            this.tokenSecret = tokenSecret;
+            this.tokenKey = tokenKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VerifiedKey)) {
+                return false;
+            }
+            VerifiedKey other = (VerifiedKey) o;
+            return tokenSecret.equals(other.tokenSecret) && tokenKey.equals(other.tokenKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tokenSecret.hashCode() + tokenKey.hashCode();
+        }
+    }
+
 }
@@ -28,6 +28,8 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.Assert;
@@ -38,6 +40,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import static cn.ponfee.disjob.common.base.Symbol.Str.COLON;
 import static cn.ponfee.disjob.core.base.JobConstants.AUTHENTICATE_HEADER_GROUP;
@@ -55,6 +58,15 @@ import static cn.ponfee.disjob.core.base.JobConstants.AUTHENTICATE_HEADER_TOKEN;
 public class Worker extends Server implements Comparable<Worker> {
     private static final long serialVersionUID = 8981019172872301692L;
 
+    /**
+     * Worker dictionary: Map<serialized text, Worker>
+     * <p>同一个Worker实例(incarnation)的序列化字符串相同，缓存解析结果避免每行task数据都重复解析
+     */
+    private static final Cache<String, Worker> DICTIONARY = CacheBuilder.newBuilder()
+        .maximumSize(8192)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+
     /**
      * Group name
      */
@@ -144,9 +156,14 @@ public class Worker extends Server implements Comparable<Worker> {
      * @return worker object of the text deserialized result
      */
     public static Worker deserialize(String text) {
-        String[] array = text.split(COLON, 4);
-        Assert.isTrue(array.length == 4, () -> "Invalid worker value: " + text);
-        return new Worker(array[0], array[1], array[2], Integer.parseInt(array[3]));
+        Worker worker = DICTIONARY.getIfPresent(text);
+        if (worker == null) {
+            String[] array = text.split(COLON, 4);
+            Assert.isTrue(array.length == 4, () -> "Invalid worker value: " + text);
+            worker = new Worker(array[0], array[1], array[2], Integer.parseInt(array[3]));
+            DICTIONARY.put(worker.serialize(), worker);
+        }
+        return worker;
     }
 
     public static Local local() {
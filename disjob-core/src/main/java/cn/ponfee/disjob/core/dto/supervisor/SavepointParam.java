@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.core.dto.supervisor;
+
+import cn.ponfee.disjob.common.base.ToJsonString;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+
+/**
+ * Savepoint task execution snapshot parameter.
+ *
+ * @author Ponfee
+ */
+@Getter
+@Setter
+public class SavepointParam extends ToJsonString implements Serializable {
+    private static final long serialVersionUID = -5296712883361826305L;
+
+    private long taskId;
+    private String worker;
+    private String executeSnapshot;
+
+    public static SavepointParam of(long taskId, String worker, String executeSnapshot) {
+        SavepointParam param = new SavepointParam();
+        param.setTaskId(taskId);
+        param.setWorker(worker);
+        param.setExecuteSnapshot(executeSnapshot);
+
+        param.check();
+        return param;
+    }
+
+    public void check() {
+        Assert.hasText(worker, "Savepoint worker cannot be blank.");
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.ponfee.disjob.core.enums;
+
+import cn.ponfee.disjob.common.base.IntValueEnum;
+
+/**
+ * The job priority enum definition.
+ * <p>mapped by sched_job.priority
+ *
+ * @author Ponfee
+ */
+public enum JobPriority implements IntValueEnum<JobPriority> {
+
+    /**
+     * 低优先级：适合大批量的离线任务
+     */
+    LOW(1, "低优先级"),
+
+    /**
+     * 普通优先级
+     */
+    NORMAL(2, "普通优先级"),
+
+    /**
+     * 高优先级：适合对时延敏感的任务
+     */
+    HIGH(3, "高优先级"),
+
+    ;
+
+    private final int value;
+    private final String desc;
+
+    JobPriority(int value, String desc) {
+        this.value = value;
+        this.desc = desc;
+    }
+
+    @Override
+    public int value() {
+        return value;
+    }
+
+    @Override
+    public String desc() {
+        return desc;
+    }
+
+    /**
+     * Returns the lane index of worker task queue, the highest priority is 0
+     *
+     * @return lane index
+     */
+    public int lane() {
+        return VALUES.length - 1 - ordinal();
+    }
+
+    /**
+     * Returns the next higher priority, returns itself if it is already the highest.
+     *
+     * @return higher priority
+     */
+    public JobPriority promote() {
+        return this == HIGH ? HIGH : VALUES[ordinal() + 1];
+    }
+
+    public static JobPriority of(int value) {
+        for (JobPriority e : VALUES) {
+            if (e.value() == value) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Invalid job priority value: " + value);
+    }
+
+    public static int lanes() {
+        return VALUES.length;
+    }
+
+    private static final JobPriority[] VALUES = JobPriority.values();
+
+}
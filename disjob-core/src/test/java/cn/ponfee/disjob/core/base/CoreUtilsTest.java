@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.core.base;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CoreUtils test
+ *
+ * @author Ponfee
+ */
+public class CoreUtilsTest {
+
+    @Test
+    public void testCompressSnapshot() {
+        assertThat(CoreUtils.compressSnapshot(null)).isNull();
+        assertThat(CoreUtils.compressSnapshot("abc")).isEqualTo("abc");
+        assertThat(CoreUtils.decompressSnapshot("abc")).isEqualTo("abc");
+
+        String snapshot = StringUtils.repeat("{\"count\":123456,\"next\":789}", 1000);
+        String compressed = CoreUtils.compressSnapshot(snapshot);
+        assertThat(compressed).startsWith("gzip+base64:");
+        assertThat(compressed.length()).isLessThan(snapshot.length() / 10);
+        assertThat(CoreUtils.decompressSnapshot(compressed)).isEqualTo(snapshot);
+
+        // incompressible random text keeps origin
+        String random = RandomStringUtils.randomAlphanumeric(5000);
+        assertThat(CoreUtils.decompressSnapshot(CoreUtils.compressSnapshot(random))).isEqualTo(random);
+
+        // only starts with the prefix
+        assertThat(CoreUtils.decompressSnapshot("gzip+base64:abc")).isEqualTo("gzip+base64:abc");
+    }
+
+}
@@ -56,6 +56,14 @@ public class ServerTest {
         assertThat(list.toString()).isEqualTo("[group-a:workerId1:localhost1:80, group-b:workerId1:localhost1:80, group-b:workerId1:localhost2:80, group-b:workerId1:localhost2:82, group-a:workerId2:localhost1:80]");
     }
 
+    @Test
+    public void testDeserializeWorker() {
+        Worker worker = Worker.deserialize("group-a:workerId1:localhost:80");
+        assertThat(worker).isEqualTo(new Worker("group-a", "workerId1", "localhost", 80));
+        assertThat(Worker.deserialize("group-a:workerId1:localhost:80")).isSameAs(worker);
+        assertThat(Worker.deserialize("group-a:workerId2:localhost:80")).isNotSameAs(worker);
+    }
+
     @Test
     public void testSortSupervisor() {
         List<Supervisor> list = new ArrayList<>();
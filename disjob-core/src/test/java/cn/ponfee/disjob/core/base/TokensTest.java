@@ -38,4 +38,20 @@ public class TokensTest {
         assertThat(state).isTrue();
     }
 
+    @Test
+    public void testCached() {
+        String tokenPlain = "1878f0158782423f9306e7d4c70c999c";
+        String group = "app-test";
+        String tokenSecret = Tokens.createAuthentication(tokenPlain, TokenType.supervisor, group);
+        assertThat(Tokens.createAuthentication(tokenPlain, TokenType.supervisor, group)).isSameAs(tokenSecret);
+        assertThat(Tokens.createSignature(tokenPlain, TokenType.supervisor, group)).isNotEqualTo(tokenSecret);
+
+        assertThat(Tokens.verifyAuthentication(tokenSecret, tokenPlain, TokenType.supervisor, group)).isTrue();
+        assertThat(Tokens.verifyAuthentication(tokenSecret, tokenPlain, TokenType.supervisor, group)).isTrue();
+        assertThat(Tokens.verifyAuthentication(tokenSecret, tokenPlain, TokenType.worker, group)).isFalse();
+        assertThat(Tokens.verifyAuthentication(tokenSecret, tokenPlain + "x", TokenType.supervisor, group)).isFalse();
+        assertThat(Tokens.verifyAuthentication("x" + tokenSecret, tokenPlain, TokenType.supervisor, group)).isFalse();
+        assertThat(Tokens.verifySignature(tokenSecret, tokenPlain, TokenType.supervisor, group)).isFalse();
+    }
+
 }
@@ -29,6 +29,16 @@ class DispatchTaskParam {
     private final String group;
     private int retried = 0;
 
+    /**
+     * 已获得分组配额，重试派发时不再重复获取
+     */
+    private boolean throttleAcquired = false;
+
+    /**
+     * 因超出分组配额而被延迟派发的次数
+     */
+    private int throttled = 0;
+
     public DispatchTaskParam(ExecuteTaskParam task, String group) {
         this.task = task;
         this.group = group;
@@ -50,12 +60,25 @@ class DispatchTaskParam {
         return retried;
     }
 
+    public boolean throttleAcquired() {
+        return throttleAcquired;
+    }
+
+    public void throttleAcquire() {
+        this.throttleAcquired = true;
+    }
+
+    public int throttling() {
+        return ++this.throttled;
+    }
+
     @Override
     public String toString() {
         return new StringJoiner(", ", DispatchTaskParam.class.getSimpleName() + "[", "]")
             .add("task=" + task)
             .add("group=" + (group != null ? "'" + group + "'" : "null"))
             .add("retried=" + retried)
+            .add("throttled=" + throttled)
             .toString();
     }
 
@@ -21,6 +21,7 @@ import cn.ponfee.disjob.common.util.Bytes;
 import cn.ponfee.disjob.common.util.Strings;
 import cn.ponfee.disjob.core.base.Worker;
 import cn.ponfee.disjob.core.dto.worker.AuthenticationParam;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.core.enums.JobType;
 import cn.ponfee.disjob.core.enums.Operation;
 import cn.ponfee.disjob.core.enums.RouteStrategy;
@@ -45,6 +46,11 @@ public class ExecuteTaskParam extends AuthenticationParam implements TimingWheel
     private static final long serialVersionUID = -6493747747321536680L;
     private static final Operation[] OPERATION_VALUES = Operation.values();
 
+    /**
+     * 序列化格式版本：旧格式首字节为operation的ordinal(非负数)，新格式首字节的最高位为1，旧版本反序列化时会直接报错而不会错误解析
+     */
+    private static final byte FORMAT_VERSION_1 = (byte) 0x81;
+
     private Operation operation;
     private long taskId;
     private long instanceId;
@@ -56,6 +62,7 @@ public class ExecuteTaskParam extends AuthenticationParam implements TimingWheel
     private JobType jobType;
     private RouteStrategy routeStrategy;
     private ShutdownStrategy shutdownStrategy;
+    private JobPriority priority = JobPriority.NORMAL;
     private int executeTimeout;
     private String jobExecutor;
     private Worker worker;
@@ -65,6 +72,15 @@ public class ExecuteTaskParam extends AuthenticationParam implements TimingWheel
         return triggerTime;
     }
 
+    /**
+     * 旧版本Supervisor派发的task没有priority，按普通优先级处理
+     *
+     * @param priority the job priority
+     */
+    public void setPriority(JobPriority priority) {
+        this.priority = (priority == null) ? JobPriority.NORMAL : priority;
+    }
+
     /**
      * Serialize to string
      *
@@ -77,9 +93,11 @@ public class ExecuteTaskParam extends AuthenticationParam implements TimingWheel
         byte[] jobExecutorBytes = jobExecutor.getBytes(UTF_8);
 
         int authTokenBytesLength = (authTokenBytes == null) ? -1 : authTokenBytes.length;
-        int length = 64 + Math.max(0, authTokenBytesLength) + workerBytes.length + jobExecutorBytes.length;
+        int length = 66 + Math.max(0, authTokenBytesLength) + workerBytes.length + jobExecutorBytes.length;
 
         ByteBuffer buffer = ByteBuffer.allocate(length)
+            .put(FORMAT_VERSION_1)                // 1: format version
+            .put((byte) getPriority().value())    // 1: priority
             .put((byte) operation.ordinal())      // 1: operation
             .putLong(taskId)                      // 8: taskId
             .putLong(instanceId)                  // 8: instanceId
@@ -113,7 +131,14 @@ public class ExecuteTaskParam extends AuthenticationParam implements TimingWheel
         ByteBuffer buf = ByteBuffer.wrap(bytes);
 
         ExecuteTaskParam param = new ExecuteTaskParam();
-        param.setOperation(OPERATION_VALUES[buf.get()]);                                         //   1: operation
+        byte first = buf.get();
+        if (first == FORMAT_VERSION_1) {
+            param.setPriority(JobPriority.of(buf.get()));                                        //   1: priority
+            first = buf.get();
+        } else if (first < 0) {
+            throw new IllegalArgumentException("Unsupported execute task param format version: " + first);
+        }
+        param.setOperation(OPERATION_VALUES[first]);                                             //   1: operation
         param.setTaskId(buf.getLong());                                                          //   8: taskId
         param.setInstanceId(buf.getLong());                                                      //   8: instanceId
         param.setWnstanceId(zeroNull(buf.getLong()));                                            //   8: wnstanceId
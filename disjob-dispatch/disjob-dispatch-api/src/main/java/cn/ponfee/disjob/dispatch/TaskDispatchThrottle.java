@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.dispatch;
+
+/**
+ * Throttle the trigger tasks dispatching of group.
+ *
+ * @author Ponfee
+ */
+@FunctionalInterface
+public interface TaskDispatchThrottle {
+
+    /**
+     * Acquires the dispatch permits of group.
+     * <p>If returns less than {@code permits}, the remaining tasks will be deferred dispatch.
+     * <p>The acquired permits are held by the tasks, retry dispatch the same tasks will not acquire again.
+     *
+     * @param group   the group
+     * @param permits the number of dispatching tasks
+     * @return number of acquired permits
+     */
+    int tryAcquire(String group, int permits);
+
+}
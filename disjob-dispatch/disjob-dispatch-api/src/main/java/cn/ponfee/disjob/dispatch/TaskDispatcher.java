@@ -22,6 +22,7 @@ import cn.ponfee.disjob.common.concurrent.AsyncDelayedExecutor;
 import cn.ponfee.disjob.common.concurrent.DelayedData;
 import cn.ponfee.disjob.core.base.RetryProperties;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.dispatch.event.TaskDispatchFailedEvent;
 import cn.ponfee.disjob.dispatch.route.ExecutionRouterRegistrar;
 import cn.ponfee.disjob.registry.Discovery;
@@ -33,8 +34,11 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -44,6 +48,8 @@ import java.util.stream.Collectors;
  * @author Ponfee
  */
 public abstract class TaskDispatcher implements Startable {
+    private static final long THROTTLE_DEFER_MS = 1000;
+    private static final int THROTTLE_DEFER_MAX_COUNT = 60;
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     private final ApplicationEventPublisher eventPublisher;
@@ -53,6 +59,7 @@ public abstract class TaskDispatcher implements Startable {
     private final int retryMaxCount;
     private final long retryBackoffPeriod;
     private final AsyncDelayedExecutor<DispatchTaskParam> asyncDelayedExecutor;
+    private volatile TaskDispatchThrottle throttle;
 
     protected TaskDispatcher(ApplicationEventPublisher eventPublisher,
                              Discovery<Worker> discoverWorker,
@@ -108,6 +115,15 @@ public abstract class TaskDispatcher implements Startable {
         return dispatch0(Collects.convert(tasks, e -> new DispatchTaskParam(e, group)));
     }
 
+    /**
+     * Sets the trigger tasks dispatch throttle
+     *
+     * @param throttle the throttle
+     */
+    public final void setThrottle(TaskDispatchThrottle throttle) {
+        this.throttle = throttle;
+    }
+
     /**
      * Dispatch the tasks to remote worker
      *
@@ -136,6 +152,7 @@ public abstract class TaskDispatcher implements Startable {
     // ------------------------------------------------------------private methods
 
     private boolean dispatch0(List<DispatchTaskParam> params) {
+        params = throttle(sortByPriority(params));
         params.stream()
             .filter(e -> e.task().getWorker() == null)
             .collect(Collectors.groupingBy(e -> e.task().getInstanceId()))
@@ -163,6 +180,77 @@ public abstract class TaskDispatcher implements Startable {
         return result;
     }
 
+    /**
+     * 高优先级的任务先派发(稳定排序，同优先级保持原有顺序)，且在分组配额不足时优先获得配额
+     *
+     * @param params the dispatch task params
+     * @return sorted dispatch task params
+     */
+    private static List<DispatchTaskParam> sortByPriority(List<DispatchTaskParam> params) {
+        if (params.size() <= 1) {
+            return params;
+        }
+        List<DispatchTaskParam> result = new ArrayList<>(params);
+        result.sort(Comparator.comparingInt(TaskDispatcher::priority).reversed());
+        return result;
+    }
+
+    private static int priority(DispatchTaskParam param) {
+        JobPriority priority = param.task().getPriority();
+        return (priority == null ? JobPriority.NORMAL : priority).value();
+    }
+
+    private List<DispatchTaskParam> throttle(List<DispatchTaskParam> params) {
+        TaskDispatchThrottle dispatchThrottle = this.throttle;
+        if (dispatchThrottle == null || params.stream().noneMatch(TaskDispatcher::shouldThrottle)) {
+            return params;
+        }
+
+        List<DispatchTaskParam> result = new ArrayList<>(params.size());
+        Map<String, List<DispatchTaskParam>> map = params.stream()
+            .filter(TaskDispatcher::shouldThrottle)
+            .collect(Collectors.groupingBy(DispatchTaskParam::group));
+        // 非分组派发的task，以及已获得过配额的重试派发task，不需要(再)获取配额
+        params.stream().filter(e -> !shouldThrottle(e)).forEach(result::add);
+        map.forEach((group, list) -> {
+            int permits;
+            try {
+                permits = dispatchThrottle.tryAcquire(group, list.size());
+            } catch (Throwable t) {
+                log.error("Dispatch throttle acquire error: " + group, t);
+                permits = list.size();
+            }
+            int n = Math.max(0, Math.min(permits, list.size()));
+            for (DispatchTaskParam param : list.subList(0, n)) {
+                param.throttleAcquire();
+                result.add(param);
+            }
+            for (DispatchTaskParam param : list.subList(n, list.size())) {
+                deferThrottled(group, param);
+            }
+        });
+        return result;
+    }
+
+    private static boolean shouldThrottle(DispatchTaskParam param) {
+        return param.group() != null && !param.throttleAcquired();
+    }
+
+    private void deferThrottled(String group, DispatchTaskParam param) {
+        ExecuteTaskParam task = param.task();
+        if (param.throttling() > THROTTLE_DEFER_MAX_COUNT) {
+            // 超过最大延迟次数则不再在内存中延迟，task仍为WAITING状态，由supervisor的WaitingInstanceScanner扫描后重新派发
+            log.warn("Throttle deferred dispatch task exceed max count: {}, {}", group, task.getTaskId());
+            return;
+        }
+        // 超出分组配额延迟派发，不计入重试次数
+        log.info("Throttle deferred dispatch task: {}, {}", group, task.getTaskId());
+        if (task.getRouteStrategy().isNotBroadcast()) {
+            task.setWorker(null);
+        }
+        asyncDelayedExecutor.put(DelayedData.of(param, THROTTLE_DEFER_MS));
+    }
+
     private void assignWorker(List<DispatchTaskParam> params) {
         DispatchTaskParam first = params.get(0);
         String group = first.group();
@@ -22,7 +22,9 @@ import cn.ponfee.disjob.core.enums.RouteStrategy;
 import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -79,9 +81,12 @@ public class ConsistentHashExecutionRouter extends ExecutionRouter {
             } else if (pair.getLeft() != workers) {
                 ConsistentHash<Worker> router = pair.getRight();
                 List<Worker> oldWorkers = pair.getLeft();
+                // 基于worker列表版本(discovery刷新后为新的list实例)增量计算：先移除下线的，再添加新上线的
+                Set<Worker> oldSet = new HashSet<>(oldWorkers);
+                Set<Worker> newSet = new HashSet<>(workers);
+                oldWorkers.stream().filter(e -> !newSet.contains(e)).forEach(router::removeNode);
+                workers.stream().filter(e -> !oldSet.contains(e)).forEach(e -> router.addNode(e, virtualCount));
                 List<Worker> newWorkers = workers;
-                oldWorkers.stream().filter(e -> !newWorkers.contains(e)).forEach(router::removeNode);
-                newWorkers.stream().filter(e -> !oldWorkers.contains(e)).forEach(e -> router.addNode(e, virtualCount));
                 pair = Pair.of(newWorkers, router);
                 cache.put(group, pair);
             }
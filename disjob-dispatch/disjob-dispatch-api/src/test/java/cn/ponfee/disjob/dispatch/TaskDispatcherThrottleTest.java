@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.dispatch;
+
+import cn.ponfee.disjob.core.base.RetryProperties;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobType;
+import cn.ponfee.disjob.core.enums.Operation;
+import cn.ponfee.disjob.core.enums.RouteStrategy;
+import cn.ponfee.disjob.registry.Discovery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static cn.ponfee.disjob.dispatch.route.ConsistentHashExecutionRouterTest.createExecuteTaskParam;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskDispatcher throttle test
+ *
+ * @author Ponfee
+ */
+public class TaskDispatcherThrottleTest {
+
+    private static final String GROUP = "default";
+
+    @Test
+    public void testRetryNotReacquirePermits() throws InterruptedException {
+        TestTaskDispatcher dispatcher = new TestTaskDispatcher(RetryProperties.of(3, 100));
+        // 每个task的第一次派发失败
+        dispatcher.failedTimes.put(1L, 1);
+        dispatcher.failedTimes.put(2L, 2);
+        AtomicInteger acquiredPermits = new AtomicInteger();
+        dispatcher.setThrottle((group, permits) -> acquiredPermits.addAndGet(permits));
+
+        Assertions.assertFalse(dispatcher.dispatch(GROUP, Arrays.asList(createTask(1L), createTask(2L), createTask(3L))));
+        awaitDispatched(dispatcher, 3);
+
+        // 重试派发不再重复获取配额
+        Assertions.assertEquals(3, acquiredPermits.get());
+        Assertions.assertEquals(6, dispatcher.dispatchedCount.get());
+        dispatcher.stop();
+    }
+
+    @Test
+    public void testThrottleDeferred() throws InterruptedException {
+        TestTaskDispatcher dispatcher = new TestTaskDispatcher(RetryProperties.none());
+        List<Integer> requestedPermits = new CopyOnWriteArrayList<>();
+        dispatcher.setThrottle((group, permits) -> {
+            requestedPermits.add(permits);
+            return 1;
+        });
+
+        Assertions.assertTrue(dispatcher.dispatch(GROUP, Arrays.asList(createTask(1L), createTask(2L), createTask(3L))));
+        Assertions.assertEquals(1, dispatcher.dispatchedTasks.size());
+
+        // 超出配额的task延迟派发
+        awaitDispatched(dispatcher, 3);
+        Assertions.assertEquals(3, requestedPermits.get(0));
+        Assertions.assertEquals(3, requestedPermits.size());
+        dispatcher.stop();
+    }
+
+    private static ExecuteTaskParam createTask(long taskId) {
+        return createExecuteTaskParam(Operation.TRIGGER, taskId, 1L, null, 0, 1L, JobType.GENERAL, RouteStrategy.ROUND_ROBIN, 0, "test");
+    }
+
+    private static void awaitDispatched(TestTaskDispatcher dispatcher, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && dispatcher.dispatchedTasks.size() < count; i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(count, dispatcher.dispatchedTasks.size());
+    }
+
+    private static class TestTaskDispatcher extends TaskDispatcher {
+        private final Map<Long, Integer> failedTimes = new ConcurrentHashMap<>();
+        private final Set<Long> dispatchedTasks = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger dispatchedCount = new AtomicInteger();
+
+        private TestTaskDispatcher(RetryProperties retryProperties) {
+            super(mock(ApplicationEventPublisher.class), mockDiscovery(), retryProperties, null);
+        }
+
+        @Override
+        protected boolean doDispatch(ExecuteTaskParam task) {
+            dispatchedCount.incrementAndGet();
+            Integer times = failedTimes.computeIfPresent(task.getTaskId(), (k, v) -> v - 1);
+            if (times != null && times >= 0) {
+                return false;
+            }
+            dispatchedTasks.add(task.getTaskId());
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Discovery<Worker> mockDiscovery() {
+            Discovery<Worker> discovery = mock(Discovery.class);
+            when(discovery.getDiscoveredServers(anyString())).thenReturn(Collections.singletonList(new Worker(GROUP, "1", "127.0.0.1", 80)));
+            return discovery;
+        }
+    }
+
+}
@@ -18,7 +18,8 @@ package cn.ponfee.disjob.dispatch.redis;
 
 import cn.ponfee.disjob.common.base.SingletonClassConstraint;
 import cn.ponfee.disjob.common.base.TimingWheel;
-import cn.ponfee.disjob.common.concurrent.AbstractHeartbeatThread;
+import cn.ponfee.disjob.common.concurrent.LoggedUncaughtExceptionHandler;
+import cn.ponfee.disjob.common.concurrent.Threads;
 import cn.ponfee.disjob.common.concurrent.TripState;
 import cn.ponfee.disjob.common.spring.RedisKeyRenewal;
 import cn.ponfee.disjob.common.spring.RedisTemplateUtils;
@@ -27,6 +28,7 @@ import cn.ponfee.disjob.core.base.Worker;
 import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
 import cn.ponfee.disjob.dispatch.TaskReceiver;
 import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 
@@ -49,8 +51,12 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  *
  * ltrim  list_queue 3 -1
  * lrange list_queue 0 -1
+ *
+ * blpop  list_queue 1
  * }</pre>
  *
+ * <p>当队列为空时使用`BLPOP`阻塞等待新任务，被唤醒后再批量拉取剩余的任务，避免空轮询redis
+ *
  * @author Ponfee
  */
 public class RedisTaskReceiver extends TaskReceiver {
@@ -79,8 +85,18 @@ public class RedisTaskReceiver extends TaskReceiver {
      */
     private static final byte[] LIST_POP_BATCH_SIZE_BYTES = Integer.toString(JobConstants.PROCESS_BATCH_SIZE).getBytes(UTF_8);
 
+    /**
+     * Blocking pop timeout seconds, must less than redis client read timeout.
+     */
+    private static final int BLOCKING_POP_TIMEOUT_SECONDS = 1;
+
+    /**
+     * Sleep milliseconds when occur error
+     */
+    private static final long ERROR_SLEEP_MILLIS = 1000;
+
     private final TripState state = TripState.create();
-    private final ReceiveHeartbeatThread receiveHeartbeatThread;
+    private final ReceiveThread receiveThread;
 
     public RedisTaskReceiver(Worker.Local localWorker,
                              TimingWheel<ExecuteTaskParam> timingWheel,
@@ -88,7 +104,7 @@ public class RedisTaskReceiver extends TaskReceiver {
         super(localWorker, timingWheel);
 
         SingletonClassConstraint.constrain(this);
-        this.receiveHeartbeatThread = new ReceiveHeartbeatThread(1000, redisTemplate, localWorker, this);
+        this.receiveThread = new ReceiveThread(redisTemplate, localWorker);
     }
 
     @Override
@@ -102,7 +118,7 @@ public class RedisTaskReceiver extends TaskReceiver {
             log.warn("Repeat call start method.");
             return;
         }
-        this.receiveHeartbeatThread.start();
+        this.receiveThread.start();
     }
 
     @Override
@@ -111,45 +127,73 @@ public class RedisTaskReceiver extends TaskReceiver {
             log.warn("Repeat call stop method.");
             return;
         }
-        this.receiveHeartbeatThread.close();
+        Threads.stopThread(receiveThread, 2000 + BLOCKING_POP_TIMEOUT_SECONDS * 1000L);
     }
 
-    private static class ReceiveHeartbeatThread extends AbstractHeartbeatThread {
+    private class ReceiveThread extends Thread {
         private final RedisTemplate<String, String> redisTemplate;
-        private final GroupedWorker gropedWorker;
-        private final RedisTaskReceiver redisTaskReceiver;
-
-        private ReceiveHeartbeatThread(long heartbeatPeriodMs,
-                                       RedisTemplate<String, String> redisTemplate,
-                                       Worker localWorker,
-                                       RedisTaskReceiver redisTaskReceiver) {
-            super(heartbeatPeriodMs);
+        private final GroupedWorker groupedWorker;
+
+        private ReceiveThread(RedisTemplate<String, String> redisTemplate, Worker localWorker) {
             this.redisTemplate = redisTemplate;
-            this.gropedWorker = new GroupedWorker(localWorker, redisTemplate);
-            this.redisTaskReceiver = redisTaskReceiver;
+            this.groupedWorker = new GroupedWorker(localWorker, redisTemplate);
+            super.setDaemon(true);
+            super.setPriority(Thread.MAX_PRIORITY);
+            super.setName("redis_task_receive_thread");
+            super.setUncaughtExceptionHandler(new LoggedUncaughtExceptionHandler(log));
         }
 
         @Override
-        protected boolean heartbeat() {
+        public void run() {
+            while (state.isRunning()) {
+                try {
+                    receive0();
+                } catch (Throwable t) {
+                    log.error("Receive redis dispatched task occur error.", t);
+                    Threads.interruptIfNecessary(t);
+                    if (super.isInterrupted()) {
+                        break;
+                    }
+                    try {
+                        Thread.sleep(ERROR_SLEEP_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            log.info("Redis task receive thread end.");
+        }
+
+        private void receive0() {
             @SuppressWarnings("unchecked")
-            List<byte[]> received = RedisTemplateUtils.evalScript(redisTemplate, BATCH_POP_SCRIPT, 1, gropedWorker.keysAndArgs);
-            gropedWorker.redisKeyRenewal.renewIfNecessary();
-            if (CollectionUtils.isEmpty(received)) {
-                return true;
+            List<byte[]> received = RedisTemplateUtils.evalScript(redisTemplate, BATCH_POP_SCRIPT, 1, groupedWorker.keysAndArgs);
+            groupedWorker.redisKeyRenewal.renewIfNecessary();
+            if (CollectionUtils.isNotEmpty(received)) {
+                for (byte[] bytes : received) {
+                    receive(ExecuteTaskParam.deserialize(bytes));
+                }
+                // 拉取到任务后继续批量拉取，直到队列为空时再进入阻塞等待
+                return;
             }
-            for (byte[] bytes : received) {
-                redisTaskReceiver.receive(ExecuteTaskParam.deserialize(bytes));
+
+            // ret: [key, value] or null if timeout
+            List<byte[]> ret = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) conn -> conn.bLPop(BLOCKING_POP_TIMEOUT_SECONDS, groupedWorker.key)
+            );
+            if (ret != null && ret.size() == 2) {
+                receive(ExecuteTaskParam.deserialize(ret.get(1)));
             }
-            return received.size() < JobConstants.PROCESS_BATCH_SIZE;
         }
     }
 
     private static class GroupedWorker {
+        private final byte[] key;
         private final byte[][] keysAndArgs;
         private final RedisKeyRenewal redisKeyRenewal;
 
         private GroupedWorker(Worker worker, RedisTemplate<String, String> redisTemplate) {
-            byte[] key = RedisTaskDispatchingUtils.buildTaskDispatchKey(worker).getBytes();
+            this.key = RedisTaskDispatchingUtils.buildTaskDispatchKey(worker).getBytes();
             this.keysAndArgs = new byte[][]{key, LIST_POP_BATCH_SIZE_BYTES};
             this.redisKeyRenewal = new RedisKeyRenewal(redisTemplate, key);
         }
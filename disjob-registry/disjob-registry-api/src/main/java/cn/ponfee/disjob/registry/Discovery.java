@@ -21,6 +21,7 @@ import cn.ponfee.disjob.core.enums.RegistryEventType;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * Discovery server.
@@ -70,6 +71,14 @@ public interface Discovery<D extends Server> extends Closeable {
      */
     void subscribeServerEvent(RegistryEventType eventType, D server);
 
+    /**
+     * Adds discovered servers changed listener, the listener must be lightweight and non-blocking.
+     * <p>当发现的服务器有新增或删除时回调：REGISTER-新增的服务器，DEREGISTER-删除的服务器
+     *
+     * @param listener the discovered servers changed listener
+     */
+    void addServersChangedListener(BiConsumer<RegistryEventType, List<D>> listener);
+
     /**
      * Returns discovery server role.
      *
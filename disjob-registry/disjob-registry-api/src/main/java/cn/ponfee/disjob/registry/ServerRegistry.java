@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -129,6 +130,11 @@ public abstract class ServerRegistry<R extends Server, D extends Server> impleme
         serverDiscovery.updateServers(eventType, dServer);
     }
 
+    @Override
+    public final void addServersChangedListener(BiConsumer<RegistryEventType, List<D>> listener) {
+        serverDiscovery.addServersChangedListener(listener);
+    }
+
     /**
      * Refresh discovery servers.
      *
@@ -30,8 +30,12 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Server discovery.
@@ -42,6 +46,8 @@ public abstract class ServerDiscovery<D extends Server, R extends Server> {
 
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final List<BiConsumer<RegistryEventType, List<D>>> serversChangedListeners = new CopyOnWriteArrayList<>();
+
     public abstract void refreshServers(List<D> servers);
 
     public abstract void updateServers(RegistryEventType eventType, D server);
@@ -73,6 +79,10 @@ public abstract class ServerDiscovery<D extends Server, R extends Server> {
         threadPool.shutdown();
     }
 
+    public final void addServersChangedListener(BiConsumer<RegistryEventType, List<D>> listener) {
+        serversChangedListeners.add(listener);
+    }
+
     // ----------------------------------------------------------------default package methods
 
     abstract List<D> getServers();
@@ -92,6 +102,34 @@ public abstract class ServerDiscovery<D extends Server, R extends Server> {
         return servers.stream().sorted().collect(ImmutableList.toImmutableList());
     }
 
+    /**
+     * Fires the servers changed listeners with the difference of old and new servers
+     *
+     * @param oldServers the old servers
+     * @param newServers the new servers
+     */
+    final void fireServersChanged(List<D> oldServers, List<D> newServers) {
+        if (serversChangedListeners.isEmpty()) {
+            return;
+        }
+        Set<D> oldSet = oldServers.stream().collect(Collectors.toSet());
+        Set<D> newSet = newServers.stream().collect(Collectors.toSet());
+        List<D> removed = oldServers.stream().filter(e -> !newSet.contains(e)).collect(Collectors.toList());
+        List<D> added = newServers.stream().filter(e -> !oldSet.contains(e)).collect(Collectors.toList());
+        for (BiConsumer<RegistryEventType, List<D>> listener : serversChangedListeners) {
+            try {
+                if (!removed.isEmpty()) {
+                    listener.accept(RegistryEventType.DEREGISTER, removed);
+                }
+                if (!added.isEmpty()) {
+                    listener.accept(RegistryEventType.REGISTER, added);
+                }
+            } catch (Throwable t) {
+                log.error("Fire servers changed listener error: " + listener, t);
+            }
+        }
+    }
+
     final ImmutableList<D> mergeServers(ImmutableList<D> servers, RegistryEventType eventType, D server) {
         List<D> list;
         if (eventType.isRegister()) {
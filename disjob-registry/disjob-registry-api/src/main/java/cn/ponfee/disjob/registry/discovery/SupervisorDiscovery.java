@@ -67,7 +67,9 @@ public final class SupervisorDiscovery extends ServerDiscovery<Supervisor, Worke
      */
     @Override
     public synchronized void refreshServers(List<Supervisor> discoveredSupervisors) {
+        List<Supervisor> oldSupervisors = supervisors;
         this.supervisors = toSortedImmutableList(discoveredSupervisors);
+        fireServersChanged(oldSupervisors, supervisors);
     }
 
     @Override
@@ -78,7 +80,9 @@ public final class SupervisorDiscovery extends ServerDiscovery<Supervisor, Worke
         if (eventType.isDeregister() && !isAlive(supervisor)) {
             return;
         }
+        List<Supervisor> oldSupervisors = supervisors;
         this.supervisors = mergeServers(supervisors, eventType, supervisor);
+        fireServersChanged(oldSupervisors, supervisors);
     }
 
     @Override
@@ -60,6 +60,7 @@ public final class WorkerDiscovery extends ServerDiscovery<Worker, Supervisor> {
 
     @Override
     public synchronized void refreshServers(List<Worker> discoveredWorkers) {
+        List<Worker> oldWorkers = getServers();
         if (CollectionUtils.isEmpty(discoveredWorkers)) {
             this.groupedWorkers = ImmutableMap.of();
         } else {
@@ -69,6 +70,7 @@ public final class WorkerDiscovery extends ServerDiscovery<Worker, Supervisor> {
                 .stream()
                 .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, e -> toSortedImmutableList(e.getValue())));
         }
+        fireServersChanged(oldWorkers, getServers());
     }
 
     @Override
@@ -80,6 +82,7 @@ public final class WorkerDiscovery extends ServerDiscovery<Worker, Supervisor> {
             return;
         }
 
+        List<Worker> oldWorkers = getServers();
         final ImmutableMap<String, ImmutableList<Worker>> map = groupedWorkers;
         String group = worker.getGroup();
         ImmutableMap.Builder<String, ImmutableList<Worker>> builder = ImmutableMap.builder();
@@ -88,6 +91,7 @@ public final class WorkerDiscovery extends ServerDiscovery<Worker, Supervisor> {
             builder.put(group, ImmutableList.of(worker));
         }
         this.groupedWorkers = builder.build();
+        fireServersChanged(oldWorkers, getServers());
     }
 
     @Override
@@ -94,10 +94,11 @@ final class DiscoveryServerRestTemplate<D extends Server> {
             authenticationHeaders = localWorker.createWorkerAuthenticationHeaders();
         }
 
+        // 共尝试retryMaxCount+1次(与server数量无关)，轮询不同的server进行故障转移，两次尝试之间退避
         Throwable ex = null;
         int serverNumber = servers.size();
         int start = ThreadLocalRandom.current().nextInt(serverNumber);
-        for (int i = 0, n = Math.min(serverNumber, retryMaxCount); i <= n; i++) {
+        for (int i = 0; i <= retryMaxCount; i++) {
             Server server = servers.get((start + i) % serverNumber);
             String url = server.buildHttpUrlPrefix() + Strings.concatPath(serverContextPath, path);
             try {
@@ -108,7 +109,7 @@ final class DiscoveryServerRestTemplate<D extends Server> {
                 if (DestinationServerRestTemplate.isNotRetry(e)) {
                     break;
                 }
-                if (i < n) {
+                if (i < retryMaxCount) {
                     // round-robin retry, 100L * IntMath.pow(i + 1, 2)
                     Thread.sleep((i + 1) * retryBackoffPeriod);
                 }
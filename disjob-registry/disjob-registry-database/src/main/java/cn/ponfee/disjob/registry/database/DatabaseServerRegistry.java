@@ -27,13 +27,10 @@ import cn.ponfee.disjob.registry.database.configuration.DatabaseRegistryProperti
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PreDestroy;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-
-import static cn.ponfee.disjob.common.spring.TransactionUtils.assertOneAffectedRow;
-import static cn.ponfee.disjob.common.spring.TransactionUtils.hasAffectedRow;
+import java.util.stream.Collectors;
 
 /**
  * Registry server based database.
@@ -58,15 +55,30 @@ public abstract class DatabaseServerRegistry<R extends Server, D extends Server>
 
     private static final String REMOVE_DEAD_SQL = "DELETE FROM " + TABLE_NAME + " WHERE namespace=? AND role=? AND heartbeat_time<?";
 
-    private static final String REGISTER_SQL    = "INSERT INTO " + TABLE_NAME + " (namespace, role, server, heartbeat_time) VALUES (?, ?, ?, ?)";
+    private static final String REGISTER_SQL    = "INSERT INTO " + TABLE_NAME + " (namespace, role, server, heartbeat_time) VALUES ";
+
+    private static final String REGISTER_VALUES = "(?, ?, ?, ?)";
 
-    private static final String HEARTBEAT_SQL   = "UPDATE " + TABLE_NAME + " SET heartbeat_time=? WHERE namespace=? AND role=? AND server=?";
+    private static final String REGISTER_UPSERT = " ON DUPLICATE KEY UPDATE heartbeat_time=VALUES(heartbeat_time)";
 
     private static final String DEREGISTER_SQL  = "DELETE FROM " + TABLE_NAME + " WHERE namespace=? AND role=? AND server=?";
 
     private static final String SELECT_SQL      = "SELECT server FROM " + TABLE_NAME + " WHERE namespace=? AND role=? AND heartbeat_time>?";
 
-    private static final String EXISTS_SQL      = "SELECT 1 FROM " + TABLE_NAME + " WHERE namespace=? AND role=? AND server=?";
+    /**
+     * <pre>
+     * 存活server集合的变更版本：
+     *   1）新注册的server会分配新的自增id
+     *   2）注销或过期的server会从存活集合中移除
+     * 以上变更都会导致count/sum(id)/max(id)的值发生变化
+     * </pre>
+     */
+    private static final String VERSION_SQL     = "SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(id), 0), ':', COALESCE(MAX(id), 0)) FROM " + TABLE_NAME + " WHERE namespace=? AND role=? AND heartbeat_time>?";
+
+    /**
+     * 即使存活server集合的版本未变化，也会在连续跳过该次数后强制全量刷新一次
+     */
+    private static final int FORCE_DISCOVER_ROUNDS = 10;
 
     /**
      * Registry namespace
@@ -93,6 +105,16 @@ public abstract class DatabaseServerRegistry<R extends Server, D extends Server>
     private final String discoveryRoleName;
     private final LoopThread discoverHeartbeatThread;
 
+    /**
+     * Last discovered servers version
+     */
+    private String discoveredVersion;
+
+    /**
+     * Count of the skipped discover round since last full discover
+     */
+    private int skippedDiscoverRounds = 0;
+
     protected DatabaseServerRegistry(DatabaseRegistryProperties config, RestTemplate restTemplate, JdbcTemplateWrapper jdbcTemplateWrapper) {
         super(config, restTemplate, ':');
         this.namespace = config.getNamespace().trim();
@@ -135,7 +157,7 @@ public abstract class DatabaseServerRegistry<R extends Server, D extends Server>
     // ------------------------------------------------------------------Registry
 
     /**
-     * Server注册，需要加事务保持原子性
+     * Server注册，使用upsert语句保持原子性
      *
      * @param server the registering server
      */
@@ -165,9 +187,22 @@ public abstract class DatabaseServerRegistry<R extends Server, D extends Server>
 
     // ------------------------------------------------------------------Discovery
 
+    /**
+     * 先查询存活server集合的版本，只有版本发生变化时才全量拉取并刷新
+     *
+     * @throws Throwable if occur error
+     */
     @Override
     public void discoverServers() throws Throwable {
-        RetryTemplate.execute(() -> refreshDiscoveryServers(getServers(discoveryRoleName)), 3, 1000L);
+        RetryTemplate.execute(() -> {
+            String version = getServersVersion(discoveryRoleName);
+            if (version.equals(discoveredVersion) && ++skippedDiscoverRounds < FORCE_DISCOVER_ROUNDS) {
+                return;
+            }
+            refreshDiscoveryServers(getServers(discoveryRoleName));
+            this.discoveredVersion = version;
+            this.skippedDiscoverRounds = 0;
+        }, 3, 1000L);
     }
 
     // ------------------------------------------------------------------Close
@@ -188,51 +223,39 @@ public abstract class DatabaseServerRegistry<R extends Server, D extends Server>
     // ------------------------------------------------------------------private methods
 
     /**
-     * 心跳注册
+     * 心跳注册：多个server合并为一条upsert语句
      */
     private void registerServers() {
-        for (R s : registered) {
-            String server = s.serialize();
-            RetryTemplate.executeQuietly(() -> register(server), 3, 1000L);
+        if (registered.isEmpty()) {
+            return;
         }
+        List<String> servers = registered.stream().map(Server::serialize).collect(Collectors.toList());
+        RetryTemplate.executeQuietly(() -> register(servers), 3, 1000L);
     }
 
     private void register(String server) {
-        jdbcTemplateWrapper.executeInTransaction(psCreator -> {
-            // 1、update server heartbeat_time if registered
-            PreparedStatement update = psCreator.apply(HEARTBEAT_SQL);
-            update.setLong(1, System.currentTimeMillis());
-            update.setString(2, namespace);
-            update.setString(3, registerRoleName);
-            update.setString(4, server);
-            int updateAffectedRows = update.executeUpdate();
-            if (hasAffectedRow(updateAffectedRows)) {
-                assertOneAffectedRow(updateAffectedRows, () -> "Invalid update affected rows: " + updateAffectedRows);
-                log.info("Database register update: {}, {}, {}", namespace, registerRoleName, server);
-                return;
-            }
+        register(Collections.singletonList(server));
+    }
 
-            // 2、if registered and same heartbeat_time
-            PreparedStatement exists = psCreator.apply(EXISTS_SQL);
-            exists.setString(1, namespace);
-            exists.setString(2, registerRoleName);
-            exists.setString(3, server);
-            ResultSet rs = exists.executeQuery();
-            if (rs.next() && rs.getInt(1) == 1) {
-                log.info("Database register exists: {}, {}, {}", namespace, registerRoleName, server);
-                return;
-            }
+    private void register(List<String> servers) {
+        long heartbeatTime = System.currentTimeMillis();
+        String sql = REGISTER_SQL + String.join(",", Collections.nCopies(servers.size(), REGISTER_VALUES)) + REGISTER_UPSERT;
+        Object[] args = new Object[servers.size() * 4];
+        int i = 0;
+        for (String server : servers) {
+            args[i++] = namespace;
+            args[i++] = registerRoleName;
+            args[i++] = server;
+            args[i++] = heartbeatTime;
+        }
+        // affected rows: 1 if inserted, 2 if updated, 0 if same heartbeat_time
+        int affectedRows = jdbcTemplateWrapper.insert(sql, args);
+        log.info("Database register upsert: {}, {}, {}, {}", namespace, registerRoleName, servers, affectedRows);
+    }
 
-            // 3、insert server if unregistered
-            PreparedStatement insert = psCreator.apply(REGISTER_SQL);
-            insert.setString(1, namespace);
-            insert.setString(2, registerRoleName);
-            insert.setString(3, server);
-            insert.setLong(4, System.currentTimeMillis());
-            int insertAffectedRows = insert.executeUpdate();
-            assertOneAffectedRow(insertAffectedRows, () -> "Invalid insert affected rows: " + insertAffectedRows);
-            log.info("Database register insert: {}, {}, {}", namespace, registerRoleName, server);
-        });
+    private String getServersVersion(String roleName) {
+        Object[] args = {namespace, roleName, System.currentTimeMillis() - sessionTimeoutMs};
+        return jdbcTemplateWrapper.get(VERSION_SQL, JdbcTemplateWrapper.STRING_ROW_MAPPER, args);
     }
 
     private List<String> getServers(String roleName) {
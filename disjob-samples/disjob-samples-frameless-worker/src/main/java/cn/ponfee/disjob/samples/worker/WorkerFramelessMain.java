@@ -39,6 +39,7 @@ import cn.ponfee.disjob.worker.WorkerStartup;
 import cn.ponfee.disjob.worker.base.TaskTimingWheel;
 import cn.ponfee.disjob.worker.configuration.WorkerProperties;
 import cn.ponfee.disjob.worker.provider.WorkerRpcProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -77,7 +78,8 @@ public class WorkerFramelessMain {
         LazyLoader<StringRedisTemplate> srtLoader = LazyLoader.of(() -> AbstractRedisTemplateCreator.create(DISJOB_KEY_PREFIX + ".redis", config).getStringRedisTemplate());
         Worker.Local localWorker = createLocalWorker(config, workerProps);
         TimingWheel<ExecuteTaskParam> timingWheel = new TaskTimingWheel(workerProps.getTimingWheelTickMs(), workerProps.getTimingWheelRingSize());
-        RestTemplate restTemplate = RestTemplateUtils.create(httpProps.getConnectTimeout(), httpProps.getReadTimeout(), null);
+        CloseableHttpClient httpClient = RestTemplateUtils.createHttpClient(httpProps.getMaxConnTotal(), httpProps.getMaxConnPerRoute(), httpProps.getConnIdleTimeout());
+        RestTemplate restTemplate = RestTemplateUtils.create(httpClient, httpProps.getConnectTimeout(), httpProps.getReadTimeout(), null, httpProps.getRpcCodec());
 
 
         // --------------------- create registry(select redis or consul) --------------------- //
@@ -122,7 +124,7 @@ public class WorkerFramelessMain {
         RetryProperties retryProperties = config.extract(RetryProperties.class, RetryProperties.KEY_PREFIX);
         WorkerStartup workerStartup = new WorkerStartup(localWorker, workerProps, retryProperties, workerRegistry, actualTaskReceiver, restTemplate, null);
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> close(workerStartup, vertxWebServer)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> close(workerStartup, vertxWebServer, httpClient)));
 
         // do start
         LOG.info("Frameless worker starting...");
@@ -135,9 +137,11 @@ public class WorkerFramelessMain {
 
     // -----------------------------------------------------------------------------------------------private methods
 
-    private static void close(WorkerStartup workerStartup, VertxWebServer vertxWebServer) {
+    private static void close(WorkerStartup workerStartup, VertxWebServer vertxWebServer, CloseableHttpClient httpClient) {
         ThrowingRunnable.doCaught(workerStartup::close);
         ThrowingRunnable.doCaught(vertxWebServer::close);
+        // 关闭连接池及后台的idle connection evictor线程
+        ThrowingRunnable.doCaught(httpClient::close);
     }
 
     private static YamlProperties loadConfig(String[] args) throws IOException {
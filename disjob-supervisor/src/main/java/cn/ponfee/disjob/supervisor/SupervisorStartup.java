@@ -25,6 +25,7 @@ import cn.ponfee.disjob.core.base.JobConstants;
 import cn.ponfee.disjob.core.base.Supervisor;
 import cn.ponfee.disjob.dispatch.TaskDispatcher;
 import cn.ponfee.disjob.registry.SupervisorRegistry;
+import cn.ponfee.disjob.supervisor.component.GroupQuotaManager;
 import cn.ponfee.disjob.supervisor.component.JobManager;
 import cn.ponfee.disjob.supervisor.component.JobQuerier;
 import cn.ponfee.disjob.supervisor.component.WorkerClient;
@@ -32,6 +33,7 @@ import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
 import cn.ponfee.disjob.supervisor.scanner.RunningInstanceScanner;
 import cn.ponfee.disjob.supervisor.scanner.TriggeringJobScanner;
 import cn.ponfee.disjob.supervisor.scanner.WaitingInstanceScanner;
+import cn.ponfee.disjob.supervisor.scanner.WorkerFailoverScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +54,7 @@ public class SupervisorStartup extends SingletonClassConstraint implements Start
     private final TriggeringJobScanner triggeringJobScanner;
     private final WaitingInstanceScanner waitingInstanceScanner;
     private final RunningInstanceScanner runningInstanceScanner;
+    private final WorkerFailoverScanner workerFailoverScanner;
     private final TripState state = TripState.create();
 
     public SupervisorStartup(Supervisor.Local localSupervisor,
@@ -78,9 +81,13 @@ public class SupervisorStartup extends SingletonClassConstraint implements Start
         this.localSupervisor = localSupervisor;
         this.supervisorRegistry = supervisorRegistry;
         this.taskDispatcher = taskDispatcher;
-        this.triggeringJobScanner = new TriggeringJobScanner(supervisorConf, scanTriggeringJobLocker, workerClient, jobManager, jobQuerier);
+        GroupQuotaManager groupQuotaManager = new GroupQuotaManager(jobQuerier);
+        taskDispatcher.setThrottle(groupQuotaManager);
+        this.triggeringJobScanner = new TriggeringJobScanner(supervisorConf, scanTriggeringJobLocker, workerClient, jobManager, jobQuerier, groupQuotaManager);
         this.waitingInstanceScanner = new WaitingInstanceScanner(supervisorConf, scanWaitingInstanceLocker, workerClient, jobManager, jobQuerier);
         this.runningInstanceScanner = new RunningInstanceScanner(supervisorConf, scanRunningInstanceLocker, workerClient, jobManager, jobQuerier);
+        this.workerFailoverScanner = new WorkerFailoverScanner(supervisorConf, scanRunningInstanceLocker, workerClient, jobManager, jobQuerier);
+        jobManager.setCollidedJobReadyListener(triggeringJobScanner::wakeup);
     }
 
     @Override
@@ -94,6 +101,9 @@ public class SupervisorStartup extends SingletonClassConstraint implements Start
         waitingInstanceScanner.start();
         runningInstanceScanner.start();
         triggeringJobScanner.start();
+        workerFailoverScanner.start();
+        supervisorRegistry.addServersChangedListener(workerFailoverScanner::subscribeWorkersChanged);
+        supervisorRegistry.addServersChangedListener(triggeringJobScanner::subscribeWorkersChanged);
         ThrowingRunnable.doCaught(supervisorRegistry::discoverServers);
         supervisorRegistry.register(localSupervisor);
         printBanner();
@@ -112,10 +122,12 @@ public class SupervisorStartup extends SingletonClassConstraint implements Start
         ThrowingRunnable.doCaught(triggeringJobScanner::toStop);
         ThrowingRunnable.doCaught(runningInstanceScanner::toStop);
         ThrowingRunnable.doCaught(waitingInstanceScanner::toStop);
+        ThrowingRunnable.doCaught(workerFailoverScanner::toStop);
         ThrowingRunnable.doCaught(taskDispatcher::close);
         ThrowingRunnable.doCaught(triggeringJobScanner::close);
         ThrowingRunnable.doCaught(runningInstanceScanner::close);
         ThrowingRunnable.doCaught(waitingInstanceScanner::close);
+        ThrowingRunnable.doCaught(workerFailoverScanner::close);
         LOG.info("Supervisor stop end: {}", localSupervisor);
     }
 
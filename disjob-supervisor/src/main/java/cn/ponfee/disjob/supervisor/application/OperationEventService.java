@@ -18,6 +18,7 @@ package cn.ponfee.disjob.supervisor.application;
 
 import cn.ponfee.disjob.common.base.SingletonClassConstraint;
 import cn.ponfee.disjob.supervisor.base.OperationEventType;
+import cn.ponfee.disjob.supervisor.component.JobMetadataCache;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,9 +46,11 @@ public class OperationEventService extends SingletonClassConstraint {
     private static final Map<OperationEventType, MutableObject<String>> MAP = new ConcurrentHashMap<>();
 
     private final SchedGroupService groupService;
+    private final JobMetadataCache jobCache;
 
-    public OperationEventService(SchedGroupService groupService) {
+    public OperationEventService(SchedGroupService groupService, JobMetadataCache jobCache) {
         this.groupService = groupService;
+        this.jobCache = jobCache;
 
         long initialDelay = PERIOD_MS + ThreadLocalRandom.current().nextLong(PERIOD_MS);
         commonScheduledPool().scheduleWithFixedDelay(this::process, initialDelay, PERIOD_MS, TimeUnit.MILLISECONDS);
@@ -55,8 +58,8 @@ public class OperationEventService extends SingletonClassConstraint {
 
     public static void subscribe(OperationEventType eventType, String data) {
         if (eventType != null) {
-            // add or update value
-            MAP.put(eventType, new MutableObject<>(data));
+            // add or merge value
+            MAP.merge(eventType, new MutableObject<>(data), (o, n) -> new MutableObject<>(eventType.merge(o.getValue(), n.getValue())));
         }
     }
 
@@ -81,6 +84,8 @@ public class OperationEventService extends SingletonClassConstraint {
     private void process(OperationEventType eventType, String data) {
         if (eventType == OperationEventType.REFRESH_GROUP) {
             groupService.refresh();
+        } else if (eventType == OperationEventType.INVALIDATE_JOB) {
+            jobCache.invalidate(eventType.<List<Long>>parse(data));
         } else {
             LOG.error("Unsupported subscribe operation event type: {}", eventType);
         }
@@ -29,6 +29,7 @@ import cn.ponfee.disjob.supervisor.application.request.*;
 import cn.ponfee.disjob.supervisor.application.response.SchedInstanceResponse;
 import cn.ponfee.disjob.supervisor.application.response.SchedJobResponse;
 import cn.ponfee.disjob.supervisor.application.response.SchedTaskResponse;
+import cn.ponfee.disjob.supervisor.base.OperationEventType;
 import cn.ponfee.disjob.supervisor.component.JobManager;
 import cn.ponfee.disjob.supervisor.component.JobQuerier;
 import cn.ponfee.disjob.supervisor.model.SchedInstance;
@@ -57,6 +58,7 @@ public class SchedJobService extends SingletonClassConstraint {
 
     private final JobManager jobManager;
     private final JobQuerier jobQuerier;
+    private final ServerInvokeService serverInvokeService;
 
     // ------------------------------------------------------------------job
 
@@ -67,18 +69,22 @@ public class SchedJobService extends SingletonClassConstraint {
 
     public void updateJob(String user, SchedJobUpdateRequest req) throws JobException {
         LOG.info("Updating job by {}: {}", user, req);
-        jobManager.updateJob(req.tosSchedJob(user));
+        SchedJob job = req.tosSchedJob(user);
+        jobManager.updateJob(job);
+        publishInvalidateJob(job.getJobId());
     }
 
     public void deleteJob(String user, long jobId) {
         LOG.info("Deleting job by {}: {}", user, jobId);
         jobManager.deleteJob(user, jobId);
+        publishInvalidateJob(jobId);
     }
 
     public void changeJobState(String user, long jobId, int toJobState) {
         JobState toState = JobState.of(toJobState);
         LOG.info("Changing job state by {}: {}, {}", user, jobId, toState);
         jobManager.changeJobState(user, jobId, toState);
+        publishInvalidateJob(jobId);
     }
 
     public void manualTriggerJob(String user, long jobId) throws JobException {
@@ -96,6 +102,10 @@ public class SchedJobService extends SingletonClassConstraint {
         return jobQuerier.queryJobForPage(pageRequest);
     }
 
+    public List<SchedJobResponse> queryJobForExport(SchedJobPageRequest request) {
+        return jobQuerier.queryJobForExport(request);
+    }
+
     public List<Map<String, Object>> searchJob(SchedJobSearchRequest req) {
         return jobQuerier.searchJob(req);
     }
@@ -155,4 +165,10 @@ public class SchedJobService extends SingletonClassConstraint {
         return jobQuerier.listInstanceChildren(pnstanceId);
     }
 
+    // ------------------------------------------------------------------private methods
+
+    private void publishInvalidateJob(Long jobId) {
+        serverInvokeService.publishOperationEvent(OperationEventType.INVALIDATE_JOB, Long.toString(jobId));
+    }
+
 }
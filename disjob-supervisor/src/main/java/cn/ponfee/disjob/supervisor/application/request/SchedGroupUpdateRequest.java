@@ -42,6 +42,9 @@ public class SchedGroupUpdateRequest extends SchedGroupAddRequest {
     private String alertUsers;
     private String workerContextPath;
     private String webhook;
+    private Integer maxExecutingTasks;
+    private Integer maxDispatchRate;
+    private Integer maxTriggersPerScan;
     private int version;
 
     @Override
@@ -59,6 +62,17 @@ public class SchedGroupUpdateRequest extends SchedGroupAddRequest {
         this.alertUsers = prune(alertUsers);
         this.workerContextPath = Strings.trimPath(workerContextPath);
         this.webhook = StringUtils.trim(webhook);
+        this.maxExecutingTasks = checkQuota(maxExecutingTasks, "Max executing tasks");
+        this.maxDispatchRate = checkQuota(maxDispatchRate, "Max dispatch rate");
+        this.maxTriggersPerScan = checkQuota(maxTriggersPerScan, "Max triggers per scan");
+    }
+
+    private static int checkQuota(Integer quota, String name) {
+        if (quota == null) {
+            return 0;
+        }
+        Assert.isTrue(quota >= 0, () -> name + " cannot be negative: " + quota);
+        return quota;
     }
 
     private static String prune(String users) {
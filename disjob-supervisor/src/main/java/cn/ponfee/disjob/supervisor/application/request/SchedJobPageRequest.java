@@ -38,6 +38,11 @@ public class SchedJobPageRequest extends PageRequest {
     private Integer jobType;
     private Integer jobState;
 
+    /**
+     * Keyset cursor for export, query the job id less than it
+     */
+    private Long cursorJobId;
+
     public void authorizeAndTruncateGroup(String user) {
         this.groups = AuthorizeGroupService.authorizeAndTruncateGroup(user, groups);
     }
@@ -43,6 +43,9 @@ public class SchedGroupResponse extends ToJsonString implements Serializable {
     private String devUsers;
     private String workerContextPath;
     private String webhook;
+    private Integer maxExecutingTasks;
+    private Integer maxDispatchRate;
+    private Integer maxTriggersPerScan;
 
     private Integer version;
     private Date updatedAt;
@@ -25,6 +25,8 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
 
+import static cn.ponfee.disjob.common.util.Numbers.nullZero;
+
 /**
  * Disjob group
  *
@@ -42,17 +44,23 @@ public class DisjobGroup {
     private final ImmutableSet<String> devUsers;
     private final String workerContextPath;
     private final String webhook;
+    private final int maxExecutingTasks;
+    private final int maxDispatchRate;
+    private final int maxTriggersPerScan;
 
     public DisjobGroup(SchedGroup o) {
-        this.group             = o.getGroup();
-        this.supervisorToken   = o.getSupervisorToken();
-        this.workerToken       = o.getWorkerToken();
-        this.userToken         = o.getUserToken();
-        this.ownUser           = o.getOwnUser().trim();
-        this.devUsers          = parse(o.getDevUsers(), ownUser);
-        this.alertUsers        = parse(o.getAlertUsers(), ownUser);
-        this.workerContextPath = Strings.trimPath(o.getWorkerContextPath());
-        this.webhook           = o.getWebhook();
+        this.group              = o.getGroup();
+        this.supervisorToken    = o.getSupervisorToken();
+        this.workerToken        = o.getWorkerToken();
+        this.userToken          = o.getUserToken();
+        this.ownUser            = o.getOwnUser().trim();
+        this.devUsers           = parse(o.getDevUsers(), ownUser);
+        this.alertUsers         = parse(o.getAlertUsers(), ownUser);
+        this.workerContextPath  = Strings.trimPath(o.getWorkerContextPath());
+        this.webhook            = o.getWebhook();
+        this.maxExecutingTasks  = nullZero(o.getMaxExecutingTasks());
+        this.maxDispatchRate    = nullZero(o.getMaxDispatchRate());
+        this.maxTriggersPerScan = nullZero(o.getMaxTriggersPerScan());
     }
 
     // --------------------------------------------------------------private methods
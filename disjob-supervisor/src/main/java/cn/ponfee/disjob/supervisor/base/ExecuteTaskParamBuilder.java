@@ -18,9 +18,11 @@ package cn.ponfee.disjob.supervisor.base;
 
 import cn.ponfee.disjob.core.base.Supervisor;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.core.enums.JobType;
 import cn.ponfee.disjob.core.enums.Operation;
 import cn.ponfee.disjob.core.enums.RouteStrategy;
+import cn.ponfee.disjob.core.enums.RunType;
 import cn.ponfee.disjob.core.enums.ShutdownStrategy;
 import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
 import cn.ponfee.disjob.supervisor.model.SchedInstance;
@@ -60,6 +62,7 @@ public final class ExecuteTaskParamBuilder {
         param.setJobType(JobType.of(job.getJobType()));
         param.setRouteStrategy(RouteStrategy.of(job.getRouteStrategy()));
         param.setShutdownStrategy(ShutdownStrategy.of(job.getShutdownStrategy()));
+        param.setPriority(obtainPriority());
         param.setExecuteTimeout(job.getExecuteTimeout());
         param.setSupervisorAuthenticationToken(Supervisor.local().createSupervisorAuthenticationToken(job.getGroup()));
         param.setWorker(worker);
@@ -67,6 +70,17 @@ public final class ExecuteTaskParamBuilder {
         return param;
     }
 
+    /**
+     * 手动触发及失败重试的实例提升一个优先级，避免排在大批量的调度任务之后
+     *
+     * @return the task priority
+     */
+    private JobPriority obtainPriority() {
+        JobPriority priority = JobPriority.of(job.getPriority());
+        RunType runType = RunType.of(instance.getRunType());
+        return (runType == RunType.MANUAL || runType == RunType.RETRY) ? priority.promote() : priority;
+    }
+
     private String obtainJobExecutor() {
         if (!instance.isWorkflow()) {
             Assert.hasText(job.getJobExecutor(), () -> "General job executor cannot be null: " + job.getJobId());
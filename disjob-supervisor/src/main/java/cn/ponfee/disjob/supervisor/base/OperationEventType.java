@@ -16,6 +16,9 @@
 
 package cn.ponfee.disjob.supervisor.base;
 
+import cn.ponfee.disjob.common.base.Symbol.Str;
+import cn.ponfee.disjob.common.collect.Collects;
+
 /**
  * Operation event type
  *
@@ -33,8 +36,35 @@ public enum OperationEventType {
         }
     },
 
+    /**
+     * Invalidate job metadata cache, data is comma separated job ids
+     */
+    INVALIDATE_JOB {
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> T parse(String data) {
+            return (T) Collects.split(data, Long::parseLong);
+        }
+
+        @Override
+        public String merge(String oldData, String newData) {
+            return oldData + Str.COMMA + newData;
+        }
+    },
+
     ;
 
     public abstract <T> T parse(String data);
 
+    /**
+     * Merge the not yet processed event data
+     *
+     * @param oldData the old data
+     * @param newData the new data
+     * @return merged data
+     */
+    public String merge(String oldData, String newData) {
+        return newData;
+    }
+
 }
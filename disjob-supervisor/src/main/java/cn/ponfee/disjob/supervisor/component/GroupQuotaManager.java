@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.dispatch.TaskDispatchThrottle;
+import cn.ponfee.disjob.supervisor.application.SchedGroupService;
+import cn.ponfee.disjob.supervisor.application.value.DisjobGroup;
+import cn.ponfee.disjob.supervisor.exception.GroupNotFoundException;
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Group quota manager, the quota configured on sched_group(0 means unlimited):
+ * <ul>
+ *   <li>max_executing_tasks: 最大并发执行(已派发未结束)的task数量</li>
+ *   <li>max_dispatch_rate: 当前supervisor每秒最大派发task数量</li>
+ *   <li>max_triggers_per_scan: 当前supervisor每次扫描最大触发job数量</li>
+ * </ul>
+ *
+ * @author Ponfee
+ */
+public class GroupQuotaManager implements TaskDispatchThrottle {
+
+    private static final long INFLIGHT_REFRESH_MS = 1000;
+
+    private final JobQuerier jobQuerier;
+
+    /**
+     * Map<group, RateLimiter>
+     */
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * Map<group, InflightCounter>
+     */
+    private final Map<String, InflightCounter> inflightCounters = new ConcurrentHashMap<>();
+
+    public GroupQuotaManager(JobQuerier jobQuerier) {
+        this.jobQuerier = jobQuerier;
+    }
+
+    public int getMaxTriggersPerScan(String group) {
+        try {
+            return SchedGroupService.getGroup(group).getMaxTriggersPerScan();
+        } catch (GroupNotFoundException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public int tryAcquire(String group, int permits) {
+        DisjobGroup quota = SchedGroupService.getGroup(group);
+        int acquired = permits;
+        InflightCounter counter = null;
+        if (quota.getMaxExecutingTasks() > 0) {
+            counter = inflightCounters.computeIfAbsent(group, InflightCounter::new);
+            acquired = counter.acquire(quota.getMaxExecutingTasks(), acquired);
+        }
+        if (quota.getMaxDispatchRate() > 0 && acquired > 0) {
+            RateLimiter rateLimiter = getRateLimiter(group, quota.getMaxDispatchRate());
+            int n = 0;
+            while (n < acquired && rateLimiter.tryAcquire()) {
+                n++;
+            }
+            if (counter != null) {
+                counter.release(acquired - n);
+            }
+            acquired = n;
+        }
+        return acquired;
+    }
+
+    // ------------------------------------------------------------------private methods
+
+    private RateLimiter getRateLimiter(String group, double permitsPerSecond) {
+        RateLimiter rateLimiter = rateLimiters.computeIfAbsent(group, k -> RateLimiter.create(permitsPerSecond));
+        if (rateLimiter.getRate() != permitsPerSecond) {
+            // 分组配额已修改
+            rateLimiter.setRate(permitsPerSecond);
+        }
+        return rateLimiter;
+    }
+
+    /**
+     * 以数据库中已派发到该组worker的WAITING和EXECUTING状态的task数量为基准，周期刷新，两次刷新之间累加本地派发的数量
+     */
+    private class InflightCounter {
+        private final String group;
+        private long refreshedTime = 0;
+        private int count = 0;
+
+        private InflightCounter(String group) {
+            this.group = group;
+        }
+
+        private synchronized int acquire(int maxExecutingTasks, int permits) {
+            long now = System.currentTimeMillis();
+            if (now - refreshedTime > INFLIGHT_REFRESH_MS) {
+                this.count = jobQuerier.countInflightTasks(group);
+                this.refreshedTime = now;
+            }
+            int n = Math.max(0, Math.min(permits, maxExecutingTasks - count));
+            this.count += n;
+            return n;
+        }
+
+        private synchronized void release(int permits) {
+            this.count -= permits;
+        }
+    }
+
+}
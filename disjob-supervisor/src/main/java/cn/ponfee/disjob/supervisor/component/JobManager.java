@@ -24,6 +24,7 @@ import cn.ponfee.disjob.common.dag.DAGNode;
 import cn.ponfee.disjob.common.date.Dates;
 import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
 import cn.ponfee.disjob.common.exception.Throwables.ThrowingSupplier;
+import cn.ponfee.disjob.common.lock.LeaseLockTemplate;
 import cn.ponfee.disjob.common.model.BaseEntity;
 import cn.ponfee.disjob.common.tuple.Tuple2;
 import cn.ponfee.disjob.common.tuple.Tuple3;
@@ -32,6 +33,7 @@ import cn.ponfee.disjob.core.base.CoreUtils;
 import cn.ponfee.disjob.core.base.JobConstants;
 import cn.ponfee.disjob.core.base.Worker;
 import cn.ponfee.disjob.core.dag.PredecessorInstance;
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskResult;
 import cn.ponfee.disjob.core.dto.supervisor.StopTaskParam;
@@ -68,6 +70,7 @@ import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.LongFunction;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static cn.ponfee.disjob.common.spring.TransactionUtils.*;
@@ -94,7 +97,6 @@ public class JobManager {
     private static final List<Integer> RS_WAITING    = of(RunState.WAITING.value());
     private static final List<Integer> RS_RUNNING    = of(RunState.RUNNING.value());
     private static final List<Integer> RS_PAUSED     = of(RunState.PAUSED.value());
-    private static final List<Integer> ES_EXECUTABLE = of(ExecuteState.WAITING.value(), ExecuteState.PAUSED.value());
     private static final List<Integer> ES_PAUSABLE   = of(ExecuteState.WAITING.value(), ExecuteState.EXECUTING.value());
     private static final List<Integer> ES_WAITING    = of(ExecuteState.WAITING.value());
     private static final List<Integer> ES_EXECUTING  = of(ExecuteState.EXECUTING.value());
@@ -104,16 +106,19 @@ public class JobManager {
     private final SupervisorProperties conf;
     private final IdGenerator idGenerator;
     private final SchedJobMapper jobMapper;
+    private final JobMetadataCache jobCache;
     private final SchedDependMapper dependMapper;
     private final SchedInstanceMapper instanceMapper;
     private final SchedWorkflowMapper workflowMapper;
     private final SchedTaskMapper taskMapper;
     private final WorkerClient workerClient;
     private final TransactionTemplate transactionTemplate;
+    private volatile Runnable collidedJobReadyListener = () -> { };
 
     public JobManager(SupervisorProperties conf,
                       IdGenerator idGenerator,
                       SchedJobMapper jobMapper,
+                      JobMetadataCache jobCache,
                       SchedDependMapper dependMapper,
                       SchedInstanceMapper instanceMapper,
                       SchedWorkflowMapper workflowMapper,
@@ -124,6 +129,7 @@ public class JobManager {
         this.conf = conf;
         this.idGenerator = idGenerator;
         this.jobMapper = jobMapper;
+        this.jobCache = jobCache;
         this.dependMapper = dependMapper;
         this.instanceMapper = instanceMapper;
         this.workflowMapper = workflowMapper;
@@ -153,20 +159,34 @@ public class JobManager {
     // ------------------------------------------------------------------database single operation without spring transactional
 
     public void disableJob(SchedJob job) {
-        jobMapper.disable(job);
+        doInFencing(() -> jobMapper.disable(job));
+        jobCache.invalidate(job.getJobId());
     }
 
     public boolean updateJobNextTriggerTime(SchedJob job) {
-        return isOneAffectedRow(jobMapper.updateNextTriggerTime(job));
+        return isOneAffectedRow(doInFencing(() -> jobMapper.updateNextTriggerTime(job)));
     }
 
     public void updateJobNextScanTime(SchedJob job) {
-        jobMapper.updateNextScanTime(job);
+        doInFencing(() -> jobMapper.updateNextScanTime(job));
+    }
+
+    public int resetParkedJobNextScanTime(List<Long> jobIds) {
+        return Lists.partition(jobIds, PROCESS_BATCH_SIZE).stream().mapToInt(jobMapper::resetParkedNextScanTime).sum();
+    }
+
+    /**
+     * Sets the listener which will be notified after a blocked collided(SEQUENTIAL or OVERRIDE) job became ready.
+     *
+     * @param listener the listener, such as wakeup the triggering job scanner
+     */
+    public void setCollidedJobReadyListener(Runnable listener) {
+        this.collidedJobReadyListener = Objects.requireNonNull(listener);
     }
 
     public boolean updateInstanceNextScanTime(SchedInstance inst, Date nextScanTime) {
         Assert.notNull(nextScanTime, "Instance next scan time cannot be null.");
-        return isOneAffectedRow(instanceMapper.updateNextScanTime(inst.getInstanceId(), nextScanTime, inst.getVersion()));
+        return isOneAffectedRow(doInFencing(() -> instanceMapper.updateNextScanTime(inst.getInstanceId(), nextScanTime, inst.getVersion())));
     }
 
     public boolean savepoint(long taskId, String worker, String executeSnapshot) {
@@ -174,17 +194,41 @@ public class JobManager {
         return isOneAffectedRow(taskMapper.savepoint(taskId, worker, executeSnapshot));
     }
 
+    public List<Long> savepoints(List<SavepointParam> params) {
+        if (CollectionUtils.isEmpty(params)) {
+            return Collections.emptyList();
+        }
+        params.forEach(e -> CoreUtils.checkClobMaximumLength(e.getExecuteSnapshot(), "Execute snapshot"));
+        // Sort for prevent sql deadlock
+        Map<String, List<SavepointParam>> map = params.stream()
+            .sorted(Comparator.comparingLong(SavepointParam::getTaskId))
+            .collect(Collectors.groupingBy(SavepointParam::getWorker));
+        List<Long> unsavedTaskIds = new ArrayList<>();
+        map.forEach((worker, list) -> Lists.partition(list, PROCESS_BATCH_SIZE).forEach(sub -> {
+            if (taskMapper.batchSavepoint(worker, sub) < sub.size()) {
+                // 批量更新无法区分具体哪些task未更新，逐个更新以找出未保存的task(重复更新相同的快照是幂等的)
+                sub.stream()
+                    .filter(e -> !isOneAffectedRow(taskMapper.savepoint(e.getTaskId(), worker, e.getExecuteSnapshot())))
+                    .forEach(e -> unsavedTaskIds.add(e.getTaskId()));
+            }
+        }));
+        return unsavedTaskIds;
+    }
+
     // ------------------------------------------------------------------must in transaction active(propagation Mandatory)
 
     public void saveLeadInstanceAndWorkflows(SchedInstance instance, List<SchedWorkflow> workflows) {
         Assert.isTrue(instance.isWorkflowLead(), () -> "Must be workflow lead instance: " + instance);
         assertWithinTransaction();
+        // workflow lead instance has not task
+        instance.setTaskCount(0);
         instanceMapper.insert(instance.fillUniqueFlag());
         Collects.batchProcess(workflows, workflowMapper::batchInsert, PROCESS_BATCH_SIZE);
     }
 
     public void saveInstanceAndTasks(SchedInstance instance, List<SchedTask> tasks) {
         assertWithinTransaction();
+        instance.setTaskCount(tasks.size());
         instanceMapper.insert(instance.fillUniqueFlag());
         Collects.batchProcess(tasks, taskMapper::batchInsert, PROCESS_BATCH_SIZE);
     }
@@ -225,6 +269,7 @@ public class JobManager {
         }
 
         assertOneAffectedRow(jobMapper.update(job), "Update sched job fail or conflict.");
+        invalidateJobCache(job.getJobId());
     }
 
     @Transactional(transactionManager = SPRING_BEAN_NAME_TX_MANAGER, rollbackFor = Exception.class)
@@ -235,6 +280,7 @@ public class JobManager {
         assertOneAffectedRow(jobMapper.softDelete(jobId, user), "Delete sched job fail or conflict.");
         dependMapper.deleteByParentJobId(jobId);
         dependMapper.deleteByChildJobId(jobId);
+        invalidateJobCache(jobId);
     }
 
     @Transactional(transactionManager = SPRING_BEAN_NAME_TX_MANAGER, rollbackFor = Exception.class)
@@ -242,6 +288,7 @@ public class JobManager {
         if (isNotAffectedRow(jobMapper.updateState(jobId, user, toState.value(), 1 ^ toState.value()))) {
             throw new IllegalStateException("Change job state failed: " + jobId);
         }
+        invalidateJobCache(jobId);
         if (toState == JobState.ENABLED) {
             updateNextTriggerTime(jobMapper.get(jobId));
         }
@@ -254,6 +301,7 @@ public class JobManager {
 
     @Transactional(transactionManager = SPRING_BEAN_NAME_TX_MANAGER, rollbackFor = Exception.class)
     public void scheduleTriggerJob(SchedJob job, long triggerTime) throws JobException {
+        LeaseLockTemplate.checkFencing();
         if (isOneAffectedRow(jobMapper.updateNextTriggerTime(job))) {
             triggerJob(job, RunType.SCHEDULE, triggerTime);
         } else {
@@ -262,7 +310,51 @@ public class JobManager {
     }
 
     /**
-     * Set or clear task worker
+     * Backfill the misfire triggers of FIRE_ALL_LOST job.
+     * <p>先在事务外拆分(splitJob为RPC调用)，再在一个短事务中更新job的下次触发时间并保存所有的instance和task，
+     * 避免在持有数据库连接与扫描锁期间执行大量的远程调用
+     *
+     * @param job          the job
+     * @param triggerTimes the misfire trigger times
+     * @param dispatcher   the dispatcher of dispatch actions, it will be called after transaction committed
+     * @throws JobException if split job occur JobException
+     */
+    public void scheduleBackfillJob(SchedJob job, List<Long> triggerTimes,
+                                    Consumer<List<Runnable>> dispatcher) throws JobException {
+        Assert.isTrue(JobType.of(job.getJobType()).isGeneral(), () -> "Backfill job must be general type: " + job);
+        LeaseLockTemplate.checkFencing();
+        List<SchedInstance> instances = new ArrayList<>(triggerTimes.size());
+        List<SchedTask> tasks = new ArrayList<>(triggerTimes.size());
+        List<Runnable> dispatchActions = new ArrayList<>(triggerTimes.size());
+        for (Long triggerTime : triggerTimes) {
+            long instanceId = generateId();
+            SchedInstance instance = SchedInstance.of(null, null, instanceId, job.getJobId(), RunType.SCHEDULE, triggerTime, 0);
+            List<SchedTask> instanceTasks = splitJob(job.getGroup(), instanceId, ModelConverter.toSplitJobParam(job, instance));
+            instance.setTaskCount(instanceTasks.size());
+            instances.add(instance.fillUniqueFlag());
+            tasks.addAll(instanceTasks);
+            dispatchActions.add(() -> dispatch(job, instance, instanceTasks));
+        }
+
+        Boolean saved = transactionTemplate.execute(status -> {
+            LeaseLockTemplate.checkFencing();
+            if (!isOneAffectedRow(jobMapper.updateNextTriggerTime(job))) {
+                return false;
+            }
+            Collects.batchProcess(instances, instanceMapper::batchInsert, PROCESS_BATCH_SIZE);
+            Collects.batchProcess(tasks, taskMapper::batchInsert, PROCESS_BATCH_SIZE);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(saved)) {
+            LOG.warn("Schedule backfill job unsuccessful: {}", job.getJobId());
+            return;
+        }
+        LOG.info("Schedule backfill job: {}, {}, {}", job.getJobId(), triggerTimes.get(0), triggerTimes.size());
+        dispatcher.accept(dispatchActions);
+    }
+
+    /**
+     * Set the task worker, only if the task is not assigned to other worker(not stolen by other worker)
      *
      * @param worker  the worker
      * @param taskIds the task id list
@@ -272,8 +364,99 @@ public class JobManager {
         if (CollectionUtils.isNotEmpty(taskIds)) {
             // Sort for prevent sql deadlock: Deadlock found when trying to get lock; try restarting transaction
             taskIds = taskIds.stream().distinct().sorted().collect(Collectors.toList());
-            Lists.partition(taskIds, PROCESS_BATCH_SIZE).forEach(ids -> taskMapper.batchUpdateWorker(worker, ids));
+            // CAS：task的worker为空或为当前worker时才更新，避免覆盖已被其它worker窃取的task
+            for (List<Long> ids : Lists.partition(taskIds, PROCESS_BATCH_SIZE)) {
+                if (taskMapper.batchUpdateWorker(worker, worker, ids) < ids.size()) {
+                    takeOverDeadWorkerTasks(worker, ids);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear the task worker, only if the task is still assigned to the worker
+     *
+     * @param worker  the worker
+     * @param taskIds the task id list
+     */
+    @Transactional(transactionManager = SPRING_BEAN_NAME_TX_MANAGER, rollbackFor = Exception.class)
+    public void resetTaskWorker(String worker, List<Long> taskIds) {
+        Assert.hasText(worker, "Reset task worker cannot be blank.");
+        if (CollectionUtils.isNotEmpty(taskIds)) {
+            taskIds = taskIds.stream().distinct().sorted().collect(Collectors.toList());
+            Lists.partition(taskIds, PROCESS_BATCH_SIZE).forEach(ids -> taskMapper.batchUpdateWorker(null, worker, ids));
+        }
+    }
+
+    /**
+     * 空闲的worker窃取同组内积压最多的worker的WAITING状态task，窃取后派发给空闲的worker
+     *
+     * @param worker the idle worker
+     * @param count  the maximum steal count
+     * @return number of stolen tasks
+     */
+    @Transactional(transactionManager = SPRING_BEAN_NAME_TX_MANAGER, rollbackFor = Exception.class)
+    public int stealTasks(Worker worker, int count) {
+        if (count <= 0 || !workerClient.isAliveWorker(worker)) {
+            return 0;
         }
+        List<String> peers = workerClient.getDiscoveredWorkers(worker.getGroup())
+            .stream()
+            .filter(e -> !e.equals(worker))
+            .map(Worker::serialize)
+            .collect(Collectors.toList());
+        if (peers.isEmpty()) {
+            return 0;
+        }
+
+        // 一次有界查询所有peer的最新WAITING task，按worker分组后选择积压最多的worker
+        int stealLimit = Math.min(count, PROCESS_BATCH_SIZE);
+        List<SchedTask> waitingTasks = taskMapper.findWaitingByWorkers(peers, stealLimit * 2 * Math.min(peers.size(), 4));
+        List<SchedTask> victimTasks = waitingTasks.stream()
+            .collect(Collectors.groupingBy(SchedTask::getWorker))
+            .values()
+            .stream()
+            .max(Comparator.comparingInt(List::size))
+            .orElse(Collections.emptyList());
+        // 最多只窃取一半的积压task，避免被窃取的worker反而变为空闲；结果按id倒序，即优先窃取队尾的task
+        int stealCount = Math.min(stealLimit, victimTasks.size() / 2);
+        if (stealCount == 0) {
+            return 0;
+        }
+
+        String victim = victimTasks.get(0).getWorker();
+        String thief = worker.serialize();
+        int stolenCount = 0;
+        Map<Long, List<SchedTask>> map = victimTasks.subList(0, stealCount).stream().collect(Collectors.groupingBy(SchedTask::getInstanceId));
+        for (Map.Entry<Long, List<SchedTask>> entry : map.entrySet()) {
+            SchedInstance instance = instanceMapper.get(entry.getKey());
+            if (instance == null || instance.isTerminal()) {
+                continue;
+            }
+            SchedJob job = jobCache.get(instance.getJobId());
+            if (job == null || RouteStrategy.of(job.getRouteStrategy()).isBroadcast()) {
+                // job已被删除，或广播任务的task绑定了worker，不可被窃取
+                continue;
+            }
+            // Sort for prevent sql deadlock
+            List<Long> taskIds = entry.getValue().stream().map(SchedTask::getTaskId).sorted().collect(Collectors.toList());
+            int row = taskMapper.batchUpdateWorker(thief, victim, taskIds);
+            if (row == 0) {
+                continue;
+            }
+            if (row < taskIds.size()) {
+                // 部分task已被原worker启动，只派发成功转移了worker的task
+                taskIds = taskIds.stream().filter(e -> thief.equals(taskMapper.get(e).getWorker())).collect(Collectors.toList());
+            }
+            ExecuteTaskParamBuilder builder = new ExecuteTaskParamBuilder(job, instance);
+            List<ExecuteTaskParam> list = Collects.convert(taskIds, e -> builder.build(Operation.TRIGGER, e, instance.getTriggerTime(), worker));
+            doAfterTransactionCommit(() -> workerClient.dispatch(job.getGroup(), list));
+            stolenCount += list.size();
+        }
+        if (stolenCount > 0) {
+            LOG.info("Stolen tasks from {} to {}: {}", victim, thief, stolenCount);
+        }
+        return stolenCount;
     }
 
     // ------------------------------------------------------------------database operation within spring TransactionTemplate
@@ -288,10 +471,11 @@ public class JobManager {
     public void processTaskDispatchFailedEvent(TaskDispatchFailedEvent event) {
         transactionTemplate.executeWithoutResult(status -> {
             long taskId = event.getTaskId();
-            if (!shouldTerminateDispatchFailedTask(taskId)) {
+            SchedTask task = taskMapper.get(taskId);
+            if (!shouldTerminateDispatchFailedTask(task)) {
                 return;
             }
-            if (!taskMapper.terminate(taskId, null, ExecuteState.DISPATCH_FAILED, ExecuteState.WAITING, null, null)) {
+            if (!terminateTask(task.getInstanceId(), taskId, null, ExecuteState.DISPATCH_FAILED, ExecuteState.WAITING, null, null)) {
                 LOG.warn("Terminate dispatch failed task unsuccessful: {}", taskId);
             }
         });
@@ -335,15 +519,16 @@ public class JobManager {
         param.check();
         Operation ops = param.getOperation();
         LOG.info("Task trace [{}] stopping: {}, {}, {}", param.getTaskId(), ops, param.getToState(), param.getWorker());
+        if (param.getToState().isTerminal()) {
+            return stopTerminalTask(param);
+        }
         return doInSynchronizedTransaction(param.getInstanceId(), param.getWnstanceId(), instance -> {
             Assert.isTrue(!instance.isWorkflowLead(), () -> "Stop task instance cannot be workflow lead: " + instance);
             if (instance.isTerminal()) {
                 return false;
             }
             ExecuteState toState = param.getToState();
-            Date executeEndTime = toState.isTerminal() ? new Date() : null;
-            String errMsg = param.getErrorMsg();
-            if (!taskMapper.terminate(param.getTaskId(), param.getWorker(), toState, ExecuteState.EXECUTING, executeEndTime, errMsg)) {
+            if (!terminateTask(param.getInstanceId(), param.getTaskId(), param.getWorker(), toState, ExecuteState.EXECUTING, null, param.getErrorMsg())) {
                 // usual is worker invoke http timeout, then retry
                 LOG.warn("Conflict stop executing task: {}, {}", param.getTaskId(), toState);
                 return false;
@@ -362,34 +547,7 @@ public class JobManager {
                 return true;
             }
 
-            Tuple2<RunState, Date> tuple = obtainRunState(tasks);
-            if (tuple == null) {
-                // If the instance has (WAITING or EXECUTING) task
-                return true;
-            }
-
-            if (!tuple.a.isTerminal()) {
-                Assert.isTrue(tuple.a == RunState.PAUSED, () -> "Run state must be PAUSED, but actual: " + tuple.a);
-                pauseInstance(instance.isWorkflow() ? instanceMapper.get(instance.getWnstanceId()) : instance);
-                return true;
-            }
-
-            boolean updated = instanceMapper.terminate(param.getInstanceId(), tuple.a, RS_TERMINABLE, tuple.b);
-            Assert.state(updated, () -> "Stop task instance failed: " + param.getInstanceId() + ", " + tuple.a);
-            // the last executing task of this sched instance
-            instance.markTerminated(tuple.a, tuple.b);
-            if (ops.isTrigger()) {
-                // trigger operation
-                afterTerminateTask(instance);
-            } else if (instance.isWorkflowNode()) {
-                Assert.isTrue(tuple.a == RunState.CANCELED, () -> "Invalid workflow non-trigger stop state: " + tuple.a);
-                updateWorkflowNodeState(instance, tuple.a, RS_TERMINABLE);
-                updateWorkflowLeadState(instanceMapper.get(instance.getWnstanceId()), tuple.a, RS_RUNNABLE);
-            } else {
-                Assert.isTrue(tuple.a == RunState.CANCELED, () -> "Invalid general non-trigger stop state: " + tuple.a);
-                renewFixedNextTriggerTime(instance);
-            }
-
+            resolveStoppedInstance(instance, tasks, ops);
             return true;
         });
     }
@@ -412,6 +570,7 @@ public class JobManager {
             boolean updated = instanceMapper.updateState(instanceId, toRunState, fromRunState);
             Assert.state(updated, () -> "Force change state failed: " + instanceId);
             int changedTaskRows = taskMapper.forceChangeState(instanceId, toExecuteState.value());
+            instanceMapper.reconcileTaskCounter(instanceId);
             if (toExecuteState == ExecuteState.WAITING) {
                 Tuple3<SchedJob, SchedInstance, List<SchedTask>> tuple = buildDispatchParam(instanceId, changedTaskRows);
                 doAfterTransactionCommit(() -> dispatch(tuple.a, tuple.b, tuple.c));
@@ -479,7 +638,7 @@ public class JobManager {
             tasks.stream().filter(SchedTask::isPausable).forEach(e -> {
                 String worker = e.isExecuting() ? Strings.requireNonBlank(e.getWorker()) : null;
                 ExecuteState fromState = ExecuteState.of(e.getExecuteState());
-                taskMapper.terminate(e.getTaskId(), worker, ExecuteState.EXECUTE_ABORTED, fromState, new Date(), null);
+                terminateTask(instanceId, e.getTaskId(), worker, ExecuteState.EXECUTE_ABORTED, fromState, new Date(), null);
             });
 
             instance.markTerminated(tuple.a, tuple.b);
@@ -489,6 +648,87 @@ public class JobManager {
         });
     }
 
+    /**
+     * Failover the dead worker's WAITING or EXECUTING tasks of the instance
+     *
+     * @param instanceId the instance id
+     * @param deadWorker the dead worker
+     * @return {@code true} if failover successfully
+     */
+    public boolean failoverInstance(long instanceId, Worker deadWorker) {
+        String worker = deadWorker.serialize();
+        // 在事务外探测原worker：worker可能只是与注册中心发生了网络分区，仍在执行的task不能转移，否则会重复执行
+        Set<Long> aliveTaskIds = taskMapper.findBaseByInstanceIdAndStates(instanceId, ES_PAUSABLE)
+            .stream()
+            .filter(e -> worker.equals(e.getWorker()))
+            .map(SchedTask::getTaskId)
+            .filter(taskId -> workerClient.existsTask(deadWorker, taskId))
+            .collect(Collectors.toSet());
+        if (!aliveTaskIds.isEmpty()) {
+            LOG.warn("Failover instance dead worker still has tasks: {}, {}, {}", instanceId, deadWorker, aliveTaskIds);
+        }
+        return doInSynchronizedTransaction(instanceId, instanceMapper.getWnstanceId(instanceId), instance -> {
+            Assert.isTrue(!instance.isWorkflowLead(), () -> "Failover instance cannot be workflow lead: " + instance);
+            // instance run state must in (10, 20)
+            if (!instance.isPausable()) {
+                return false;
+            }
+            List<SchedTask> deadTasks = taskMapper.findBaseByInstanceIdAndStates(instanceId, ES_PAUSABLE)
+                .stream()
+                .filter(e -> worker.equals(e.getWorker()) && !aliveTaskIds.contains(e.getTaskId()))
+                .collect(Collectors.toList());
+            if (deadTasks.isEmpty()) {
+                return false;
+            }
+
+            SchedJob job = getCachedJob(instance.getJobId());
+            if (job.isBroadcast()) {
+                // 广播任务只能由指定的worker执行，worker已死亡则直接终止
+                Date now = new Date();
+                for (SchedTask task : deadTasks) {
+                    ExecuteState toState = task.isWaiting() ? ExecuteState.BROADCAST_ABORTED : ExecuteState.EXECUTE_ABORTED;
+                    terminateTask(instanceId, task.getTaskId(), worker, toState, ExecuteState.of(task.getExecuteState()), now, null);
+                }
+                Tuple2<RunState, Date> tuple = obtainRunState(taskMapper.findBaseByInstanceId(instanceId));
+                if (tuple == null) {
+                    return true;
+                }
+                if (!tuple.a.isTerminal()) {
+                    pauseInstance(instance.isWorkflow() ? instanceMapper.get(instance.getWnstanceId()) : instance);
+                    return true;
+                }
+                boolean updated = instanceMapper.terminate(instanceId, tuple.a, RS_TERMINABLE, tuple.b);
+                Assert.state(updated, () -> "Failover terminate instance failed: " + instanceId + ", " + tuple.a);
+                instance.markTerminated(tuple.a, tuple.b);
+                afterTerminateTask(instance);
+                LOG.warn("Failover broadcast instance {} to state {}", instanceId, tuple.a);
+                return true;
+            }
+
+            // update task state: (EXECUTING) -> (WAITING)，以原worker做CAS条件，忽略已被其它worker变更的task
+            List<Long> taskIds = deadTasks.stream()
+                .filter(e -> !e.isExecuting() || taskMapper.terminate(e.getTaskId(), worker, ExecuteState.WAITING, ExecuteState.EXECUTING, null, null))
+                .map(SchedTask::getTaskId)
+                .sorted()
+                .collect(Collectors.toList());
+            if (taskIds.isEmpty()) {
+                return false;
+            }
+            // clear the dead worker
+            Lists.partition(taskIds, PROCESS_BATCH_SIZE).forEach(ids -> taskMapper.batchUpdateWorker(null, worker, ids));
+            if (taskMapper.findBaseByInstanceId(instanceId).stream().allMatch(SchedTask::isWaiting)) {
+                instanceMapper.updateState(instanceId, RunState.WAITING, RunState.RUNNING);
+            }
+
+            Set<Long> deadTaskIds = new HashSet<>(taskIds);
+            List<SchedTask> redispatchTasks = taskMapper.findLargeByInstanceIdAndStates(instanceId, ES_WAITING)
+                .stream().filter(e -> e.getWorker() == null && deadTaskIds.contains(e.getTaskId())).collect(Collectors.toList());
+            doAfterTransactionCommit(() -> redispatch(job, instance, redispatchTasks));
+            LOG.warn("Failover instance {} dead worker tasks: {}", instanceId, redispatchTasks.size());
+            return true;
+        });
+    }
+
     /**
      * Pause instance
      *
@@ -533,7 +773,25 @@ public class JobManager {
     // ------------------------------------------------------------------private methods
 
     private SchedJob getRequiredJob(long jobId) {
-        return Objects.requireNonNull(jobMapper.get(jobId), () -> "Job not found: " + jobId);
+        SchedJob job = Objects.requireNonNull(jobMapper.get(jobId), () -> "Job not found: " + jobId);
+        jobCache.put(job);
+        return job;
+    }
+
+    /**
+     * 只读取job的配置信息(如路由策略、执行器、超时时间等)时使用缓存，避免每次都查询数据库
+     *
+     * @param jobId the job id
+     * @return sched job
+     */
+    private SchedJob getCachedJob(long jobId) {
+        return Objects.requireNonNull(jobCache.get(jobId), () -> "Job not found: " + jobId);
+    }
+
+    private void invalidateJobCache(long jobId) {
+        jobCache.invalidate(jobId);
+        // 事务提交后再次失效，防止事务提交前被其它线程加载了旧数据
+        doAfterTransactionCommit(() -> jobCache.invalidate(jobId));
     }
 
     private void triggerJob(SchedJob job, RunType runType, long triggerTime) throws JobException {
@@ -542,8 +800,8 @@ public class JobManager {
         doAfterTransactionCommit(triggerInstance::dispatch);
     }
 
-    private boolean shouldTerminateDispatchFailedTask(long taskId) {
-        SchedTask task = taskMapper.get(taskId);
+    private boolean shouldTerminateDispatchFailedTask(SchedTask task) {
+        long taskId = task.getTaskId();
         if (!task.isWaiting()) {
             return false;
         }
@@ -613,13 +871,17 @@ public class JobManager {
         RouteStrategy routeStrategy = RouteStrategy.of(job.getRouteStrategy());
         List<ExecuteTaskParam> list = new ArrayList<>(tasks.size());
         List<Tuple2<Worker, Long>> workload;
+        if (routeStrategy.isNotBroadcast()) {
+            // 清除非广播task残留的worker(如重新派发、恢复执行、重试失败task)，由被派发的worker在触发时CAS设置
+            clearStaleTaskWorker(tasks);
+        }
 
         if (routeStrategy.isBroadcast()) {
             for (SchedTask task : tasks) {
                 Worker worker = task.worker();
                 if (!workerClient.isAliveWorker(worker)) {
                     // 上游调用方有些处于事务中，有些不在事务中。因为此处的update操作非必须要求原子性，所以未加Spring事务。
-                    taskMapper.terminate(task.getTaskId(), null, ExecuteState.BROADCAST_ABORTED, ExecuteState.WAITING, null, null);
+                    terminateTask(instance.getInstanceId(), task.getTaskId(), null, ExecuteState.BROADCAST_ABORTED, ExecuteState.WAITING, null, null);
                 } else {
                     list.add(builder.build(Operation.TRIGGER, task.getTaskId(), instance.getTriggerTime(), worker));
                 }
@@ -641,6 +903,35 @@ public class JobManager {
         return workerClient.dispatch(job.getGroup(), list);
     }
 
+    /**
+     * 原worker已下线时才允许接管task，如worker重启后(worker id已变化)回放账本中的task
+     *
+     * @param worker  the new worker
+     * @param taskIds the task id list
+     */
+    private void takeOverDeadWorkerTasks(String worker, List<Long> taskIds) {
+        taskMapper.findBaseByTaskIds(taskIds)
+            .stream()
+            .filter(e -> e.isWaiting() && e.getWorker() != null && !e.getWorker().equals(worker))
+            .filter(e -> !workerClient.isAliveWorker(e.worker()))
+            .collect(Collectors.groupingBy(SchedTask::getWorker, Collectors.mapping(SchedTask::getTaskId, Collectors.toList())))
+            .forEach((deadWorker, ids) -> {
+                ids.sort(Comparator.naturalOrder());
+                int row = taskMapper.batchUpdateWorker(worker, deadWorker, ids);
+                LOG.info("Take over dead worker tasks: {}, {}, {}", deadWorker, worker, row);
+            });
+    }
+
+    private void clearStaleTaskWorker(List<SchedTask> tasks) {
+        tasks.stream()
+            .filter(e -> e.getWorker() != null)
+            .collect(Collectors.groupingBy(SchedTask::getWorker, Collectors.mapping(SchedTask::getTaskId, Collectors.toList())))
+            .forEach((worker, taskIds) -> {
+                taskIds.sort(Comparator.naturalOrder());
+                Lists.partition(taskIds, PROCESS_BATCH_SIZE).forEach(ids -> taskMapper.batchUpdateWorker(null, worker, ids));
+            });
+    }
+
     private List<Tuple2<Worker, Long>> calculateWorkload(SchedJob job, SchedInstance instance) {
         List<Worker> workers = workerClient.getDiscoveredWorkers(job.getGroup());
         if (CollectionUtils.isEmpty(workers)) {
@@ -662,6 +953,104 @@ public class JobManager {
         return wnstanceId;
     }
 
+    /**
+     * 终止状态的task无需加实例锁：先基于task状态(EXECUTING)做CAS更新，只有最后一个结束的task才加锁汇总实例状态，
+     * 避免大量task同时结束时都排队等待同一个实例的行锁
+     *
+     * @param param the stop task param
+     * @return {@code true} if stopped task successful
+     */
+    private boolean stopTerminalTask(StopTaskParam param) {
+        ExecuteState toState = param.getToState();
+        if (!terminateTask(param.getInstanceId(), param.getTaskId(), param.getWorker(), toState, ExecuteState.EXECUTING, new Date(), param.getErrorMsg())) {
+            // usual is worker invoke http timeout, then retry
+            LOG.warn("Conflict stop executing task: {}, {}", param.getTaskId(), toState);
+            return false;
+        }
+        if (hasPausableTask(param.getInstanceId())) {
+            return true;
+        }
+        // 若汇总失败，则由RunningInstanceScanner扫描到后再处理
+        doInSynchronizedTransaction(param.getInstanceId(), param.getWnstanceId(), instance -> {
+            Assert.isTrue(!instance.isWorkflowLead(), () -> "Stop task instance cannot be workflow lead: " + instance);
+            if (!instance.isTerminal()) {
+                resolveStoppedInstance(instance, taskMapper.findBaseByInstanceId(param.getInstanceId()), param.getOperation());
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 基于实例上的task计数器判断是否还有WAITING或EXECUTING状态的task，无需每次都加载实例下的全部task
+     *
+     * @param instanceId the instance id
+     * @return {@code true} if has WAITING or EXECUTING task
+     */
+    private boolean hasPausableTask(long instanceId) {
+        // 计数器与task状态在同一事务中更新，最后一次提交的task必然能看到其它所有task的计数
+        SchedInstance counter = instanceMapper.get(instanceId);
+        int taskCount = counter.getTaskCount() == null ? 0 : counter.getTaskCount();
+        if (taskCount == 0) {
+            // 未统计task数量的历史数据
+            return taskMapper.countByInstanceIdAndStates(instanceId, ES_PAUSABLE) > 0;
+        }
+        return taskCount - counter.getTerminatedTaskCount() - counter.getPausedTaskCount() > 0;
+    }
+
+    /**
+     * 更新task状态并在同一事务中维护实例上的task计数器
+     */
+    private boolean terminateTask(long instanceId, long taskId, String worker, ExecuteState toState,
+                                  ExecuteState fromState, Date executeEndTime, String errorMsg) {
+        Boolean result = transactionTemplate.execute(status -> {
+            if (!taskMapper.terminate(taskId, worker, toState, fromState, executeEndTime, errorMsg)) {
+                return false;
+            }
+            int terminatedDelta = (toState.isTerminal() ? 1 : 0) - (fromState.isTerminal() ? 1 : 0);
+            int pausedDelta = (toState == ExecuteState.PAUSED ? 1 : 0) - (fromState == ExecuteState.PAUSED ? 1 : 0);
+            incrementTaskCounter(instanceId, terminatedDelta, pausedDelta);
+            return true;
+        });
+        return Boolean.TRUE.equals(result);
+    }
+
+    private void incrementTaskCounter(long instanceId, int terminatedDelta, int pausedDelta) {
+        if (terminatedDelta != 0 || pausedDelta != 0) {
+            instanceMapper.incrementTaskCounter(instanceId, terminatedDelta, pausedDelta);
+        }
+    }
+
+    private void resolveStoppedInstance(SchedInstance instance, List<SchedTask> tasks, Operation ops) {
+        long instanceId = instance.getInstanceId();
+        Tuple2<RunState, Date> tuple = obtainRunState(tasks);
+        if (tuple == null) {
+            // If the instance has (WAITING or EXECUTING) task
+            return;
+        }
+
+        if (!tuple.a.isTerminal()) {
+            Assert.isTrue(tuple.a == RunState.PAUSED, () -> "Run state must be PAUSED, but actual: " + tuple.a);
+            pauseInstance(instance.isWorkflow() ? instanceMapper.get(instance.getWnstanceId()) : instance);
+            return;
+        }
+
+        boolean updated = instanceMapper.terminate(instanceId, tuple.a, RS_TERMINABLE, tuple.b);
+        Assert.state(updated, () -> "Stop task instance failed: " + instanceId + ", " + tuple.a);
+        // the last executing task of this sched instance
+        instance.markTerminated(tuple.a, tuple.b);
+        if (ops.isTrigger()) {
+            // trigger operation
+            afterTerminateTask(instance);
+        } else if (instance.isWorkflowNode()) {
+            Assert.isTrue(tuple.a == RunState.CANCELED, () -> "Invalid workflow non-trigger stop state: " + tuple.a);
+            updateWorkflowNodeState(instance, tuple.a, RS_TERMINABLE);
+            updateWorkflowLeadState(instanceMapper.get(instance.getWnstanceId()), tuple.a, RS_RUNNABLE);
+        } else {
+            Assert.isTrue(tuple.a == RunState.CANCELED, () -> "Invalid general non-trigger stop state: " + tuple.a);
+            renewNextTrigger(instance);
+        }
+    }
+
     private void doInSynchronizedTransaction(long instanceId, Long wnstanceId, Consumer<SchedInstance> action) {
         doInSynchronizedTransaction(instanceId, wnstanceId, convert(action, true));
     }
@@ -690,8 +1079,28 @@ public class JobManager {
     private <T> T doInSynchronizedTransaction0(long instanceId, Long wnstanceId, LongFunction<T> action) {
         Long lockInstanceId = wnstanceId != null ? wnstanceId : (Long) instanceId;
         synchronized (CoreUtils.INSTANCE_LOCK_POOL.intern(lockInstanceId)) {
-            return transactionTemplate.execute(status -> action.apply(lockInstanceId));
+            return transactionTemplate.execute(status -> {
+                LeaseLockTemplate.checkFencing();
+                return action.apply(lockInstanceId);
+            });
+        }
+    }
+
+    /**
+     * 在扫描的租约锁内执行时，在同一事务内校验fencing token后再执行写操作，防止已失去租约的扫描线程写入数据
+     *
+     * @param action the write action
+     * @param <T>    the result type
+     * @return action result
+     */
+    private <T> T doInFencing(Supplier<T> action) {
+        if (LeaseLockTemplate.currentFencing() == null) {
+            return action.get();
         }
+        return transactionTemplate.execute(status -> {
+            LeaseLockTemplate.checkFencing();
+            return action.get();
+        });
     }
 
     private Tuple2<RunState, Date> obtainRunState(List<SchedTask> tasks) {
@@ -725,7 +1134,8 @@ public class JobManager {
         Operation ops = Operation.PAUSE;
 
         // update task state: (WAITING) -> (PAUSE)
-        taskMapper.updateStateByInstanceId(instanceId, ops.toState().value(), ES_WAITING, null);
+        int row = taskMapper.updateStateByInstanceId(instanceId, ops.toState().value(), ES_WAITING, null);
+        incrementTaskCounter(instanceId, 0, row);
 
         // load the alive executing tasks
         List<ExecuteTaskParam> executingTasks = loadExecutingTasks(instance, ops);
@@ -740,7 +1150,7 @@ public class JobManager {
                 updateWorkflowNodeState(instance, tuple.a, RS_PAUSABLE);
             } else if (tuple.a.isTerminal()) {
                 instance.markTerminated(tuple.a, tuple.b);
-                renewFixedNextTriggerTime(instance);
+                renewNextTrigger(instance);
             }
         } else {
             // has alive executing tasks: dispatch and pause executing tasks
@@ -761,8 +1171,13 @@ public class JobManager {
 
     private void cancelInstance0(SchedInstance instance, Operation ops) {
         long instanceId = instance.getInstanceId();
-        // update: (WAITING or PAUSED) -> (CANCELED)
-        taskMapper.updateStateByInstanceId(instanceId, ops.toState().value(), ES_EXECUTABLE, new Date());
+        // update: (WAITING or PAUSED) -> (CANCELED)，分开更新以便维护暂停的task计数
+        Date now = new Date();
+        int pausedRow = taskMapper.updateStateByInstanceId(instanceId, ops.toState().value(), ES_PAUSED, now);
+        int waitingRow = taskMapper.updateStateByInstanceId(instanceId, ops.toState().value(), ES_WAITING, now);
+        if (ops.toState().isTerminal()) {
+            incrementTaskCounter(instanceId, pausedRow + waitingRow, -pausedRow);
+        }
 
         // load the alive executing tasks
         List<ExecuteTaskParam> executingTasks = loadExecutingTasks(instance, ops);
@@ -781,7 +1196,7 @@ public class JobManager {
             if (instance.isWorkflowNode()) {
                 updateWorkflowNodeState(instance, tuple.a, RS_TERMINABLE);
             } else {
-                renewFixedNextTriggerTime(instance);
+                renewNextTrigger(instance);
             }
         } else {
             // dispatch and cancel executing tasks
@@ -822,6 +1237,7 @@ public class JobManager {
 
         int row = taskMapper.updateStateByInstanceId(instanceId, ExecuteState.WAITING.value(), ES_PAUSED, null);
         assertHasAffectedRow(row, "Resume sched task failed.");
+        incrementTaskCounter(instanceId, 0, -row);
 
         // dispatch task
         Tuple3<SchedJob, SchedInstance, List<SchedTask>> param = buildDispatchParam(instanceId, row);
@@ -836,7 +1252,7 @@ public class JobManager {
             retryJob(instance);
         } else if (runState == RunState.COMPLETED) {
             if (!instance.isWorkflowNode()) {
-                renewFixedNextTriggerTime(instance);
+                renewNextTrigger(instance);
             }
             processWorkflowInstance(instance);
             dependJob(instance);
@@ -856,7 +1272,7 @@ public class JobManager {
             updateWorkflowNodeState(failed, RunState.CANCELED, RS_TERMINABLE);
             updateWorkflowLeadState(instanceMapper.get(failed.getWnstanceId()), RunState.CANCELED, RS_RUNNABLE);
         } else {
-            renewFixedNextTriggerTime(failed);
+            renewNextTrigger(failed);
         }
     }
 
@@ -955,7 +1371,7 @@ public class JobManager {
             Worker worker = task.worker();
             if (workerClient.isAliveWorker(worker)) {
                 if (builder == null) {
-                    builder = new ExecuteTaskParamBuilder(getRequiredJob(instance.getJobId()), instance);
+                    builder = new ExecuteTaskParamBuilder(getCachedJob(instance.getJobId()), instance);
                 }
                 executingTasks.add(builder.build(ops, task.getTaskId(), triggerTime, worker));
             } else {
@@ -963,7 +1379,7 @@ public class JobManager {
                 Date executeEndTime = ops.toState().isTerminal() ? new Date() : null;
                 ExecuteState toState = ops.toState().isTerminal() ? ExecuteState.EXECUTE_ABORTED : ops.toState();
                 ExecuteState fromState = ExecuteState.EXECUTING;
-                if (taskMapper.terminate(task.getTaskId(), task.getWorker(), toState, fromState, executeEndTime, null)) {
+                if (terminateTask(instance.getInstanceId(), task.getTaskId(), task.getWorker(), toState, fromState, executeEndTime, null)) {
                     LOG.info("Terminate dead worker executing task success: {}", task);
                 } else {
                     LOG.error("Terminate dead worker executing task failed: {}", task);
@@ -975,7 +1391,7 @@ public class JobManager {
 
     private Tuple3<SchedJob, SchedInstance, List<SchedTask>> buildDispatchParam(long instanceId, int expectTaskSize) {
         SchedInstance instance = instanceMapper.get(instanceId);
-        SchedJob job = getRequiredJob(instance.getJobId());
+        SchedJob job = getCachedJob(instance.getJobId());
         List<SchedTask> waitingTasks = taskMapper.findLargeByInstanceIdAndStates(instanceId, ES_WAITING);
         int size = waitingTasks.size();
         Assert.state(size == expectTaskSize, () -> "Invalid dispatch tasks size: " + size + ", " + expectTaskSize);
@@ -998,9 +1414,9 @@ public class JobManager {
         }
     }
 
-    private void renewFixedNextTriggerTime(SchedInstance instance) {
-        Assert.isTrue(instance.isTerminal(), () -> "Renew fixed instance must be terminal state: " + instance);
-        Assert.isTrue(!instance.isWorkflowNode(), () -> "Renew fixed instance cannot be workflow node: " + instance);
+    private void renewNextTrigger(SchedInstance instance) {
+        Assert.isTrue(instance.isTerminal(), () -> "Renew next trigger instance must be terminal state: " + instance);
+        Assert.isTrue(!instance.isWorkflowNode(), () -> "Renew next trigger instance cannot be workflow node: " + instance);
         if (instance.isRunRetry()) {
             stopRetrying(instance, RunState.of(instance.getRunState()));
         }
@@ -1011,8 +1427,12 @@ public class JobManager {
             return;
         }
         SchedJob job = jobMapper.get(original.getJobId());
-        TriggerType triggerType;
-        if (job == null || job.isDisabled() || !(triggerType = TriggerType.of(job.getTriggerType())).isFixedTriggerType()) {
+        if (job == null || job.isDisabled()) {
+            return;
+        }
+        TriggerType triggerType = TriggerType.of(job.getTriggerType());
+        if (!triggerType.isFixedTriggerType()) {
+            readyCollidedJob(job);
             return;
         }
         long lastTriggerTime = original.getTriggerTime(), nextTriggerTime;
@@ -1027,6 +1447,18 @@ public class JobManager {
         LOG.info("Renew fixed next trigger time: {}, {}, {}, {}", job.getJobId(), lastTriggerTime, nextTriggerTime, updated);
     }
 
+    private void readyCollidedJob(SchedJob job) {
+        CollidedStrategy strategy = CollidedStrategy.of(job.getCollidedStrategy());
+        if (strategy != CollidedStrategy.SEQUENTIAL && strategy != CollidedStrategy.OVERRIDE) {
+            return;
+        }
+        // 被阻塞的job在上一次实例结束后立即可被扫描触发，而不必等待阻塞时设置的next_scan_time
+        if (isOneAffectedRow(jobMapper.resetCollidedNextScanTime(job.getJobId()))) {
+            LOG.info("Ready collided job: {}, {}", job.getJobId(), strategy);
+            doAfterTransactionCommit(collidedJobReadyListener);
+        }
+    }
+
     // ------------------------------------------------------------------private workflow methods
 
     private void updateWorkflowNodeState(SchedInstance node, RunState toState, List<Integer> fromStates) {
@@ -1079,7 +1511,7 @@ public class JobManager {
         Assert.isTrue(lead.isWorkflowLead(), () -> "Process workflow node must be lead: " + lead);
         List<Runnable> dispatchActions = new ArrayList<>();
         if (!map.isEmpty()) {
-            SchedJob job = getRequiredJob(lead.getJobId());
+            SchedJob job = getCachedJob(lead.getJobId());
             Set<DAGNode> duplicates = new HashSet<>();
             for (Map.Entry<DAGEdge, SchedWorkflow> edge : map.entrySet()) {
                 processWorkflowGraph(dispatchActions, job, lead, graph, duplicates, edge);
@@ -1146,7 +1578,7 @@ public class JobManager {
             Assert.state(updated, () -> "Stop workflow instance failed: " + wnstanceId + ", " + state);
             SchedInstance lead = instanceMapper.get(wnstanceId);
             dependJob(lead);
-            renewFixedNextTriggerTime(lead);
+            renewNextTrigger(lead);
             return true;
         }
         if (graph.allMatch(e -> e.getValue().isTerminal() || e.getValue().isPaused())) {
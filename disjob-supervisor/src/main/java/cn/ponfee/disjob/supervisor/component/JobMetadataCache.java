@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.supervisor.dao.mapper.SchedJobMapper;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.collections4.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sched job metadata cache, used for the scanner and dispatch paths which only need the job config.
+ * <p>本地写操作提交事务后失效，其它Supervisor通过OperationEvent失效，并以过期时间兜底
+ * <p>SchedJob是可变对象(调用方会修改next_trigger_time等)，所以缓存中存放及返回的都是副本
+ *
+ * @author Ponfee
+ */
+@Component
+public class JobMetadataCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobMetadataCache.class);
+
+    private final SchedJobMapper jobMapper;
+
+    private final Cache<Long, SchedJob> cache = CacheBuilder.newBuilder()
+        .initialCapacity(256)
+        .maximumSize(10000)
+        .expireAfterWrite(60, TimeUnit.SECONDS)
+        .build();
+
+    public JobMetadataCache(SchedJobMapper jobMapper) {
+        this.jobMapper = jobMapper;
+    }
+
+    /**
+     * Returns the copy of cached job, load from database if absent.
+     *
+     * @param jobId the job id
+     * @return sched job, null if not found
+     */
+    public SchedJob get(long jobId) {
+        SchedJob job = cache.getIfPresent(jobId);
+        if (job != null) {
+            return copy(job);
+        }
+        if ((job = jobMapper.get(jobId)) != null) {
+            put(job);
+        }
+        return job;
+    }
+
+    /**
+     * Batch load the absent jobs into cache by one query.
+     *
+     * @param jobIds the job id collection
+     */
+    public void prefetch(Collection<Long> jobIds) {
+        if (CollectionUtils.isEmpty(jobIds)) {
+            return;
+        }
+        List<Long> absentJobIds = jobIds.stream().distinct().filter(e -> cache.getIfPresent(e) == null).collect(Collectors.toList());
+        if (absentJobIds.isEmpty()) {
+            return;
+        }
+        List<SchedJob> jobs = jobMapper.findByJobIds(absentJobIds);
+        if (jobs != null) {
+            jobs.forEach(this::put);
+        }
+    }
+
+    /**
+     * Put the copy of job to cache if it is newer than the cached.
+     *
+     * @param job the sched job
+     */
+    public void put(SchedJob job) {
+        if (job == null || job.getJobId() == null || job.getVersion() == null) {
+            return;
+        }
+        // 以version列防止较旧的数据覆盖较新的数据
+        cache.asMap().merge(job.getJobId(), copy(job), (o, n) -> n.getVersion() >= o.getVersion() ? n : o);
+    }
+
+    public void invalidate(long jobId) {
+        cache.invalidate(jobId);
+        LOG.info("Invalidated job metadata cache: {}", jobId);
+    }
+
+    public void invalidate(Collection<Long> jobIds) {
+        if (CollectionUtils.isNotEmpty(jobIds)) {
+            cache.invalidateAll(jobIds);
+            LOG.info("Invalidated job metadata cache: {}", jobIds);
+        }
+    }
+
+    private static SchedJob copy(SchedJob job) {
+        SchedJob copy = new SchedJob();
+        BeanUtils.copyProperties(job, copy);
+        return copy;
+    }
+
+}
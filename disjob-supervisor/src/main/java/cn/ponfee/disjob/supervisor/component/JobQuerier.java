@@ -16,6 +16,7 @@
 
 package cn.ponfee.disjob.supervisor.component;
 
+import cn.ponfee.disjob.common.collect.Collects;
 import cn.ponfee.disjob.common.date.Dates;
 import cn.ponfee.disjob.common.model.PageResponse;
 import cn.ponfee.disjob.common.util.Numbers;
@@ -33,17 +34,22 @@ import cn.ponfee.disjob.supervisor.dao.mapper.SchedTaskMapper;
 import cn.ponfee.disjob.supervisor.model.SchedInstance;
 import cn.ponfee.disjob.supervisor.model.SchedJob;
 import cn.ponfee.disjob.supervisor.model.SchedTask;
+import com.google.common.collect.Lists;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static cn.ponfee.disjob.core.base.JobConstants.PROCESS_BATCH_SIZE;
+
 /**
  * Job querier
  *
@@ -54,6 +60,7 @@ import java.util.stream.Collectors;
 public class JobQuerier {
 
     private final SchedJobMapper jobMapper;
+    private final JobMetadataCache jobCache;
     private final SchedInstanceMapper instanceMapper;
     private final SchedTaskMapper taskMapper;
 
@@ -61,10 +68,22 @@ public class JobQuerier {
         return jobMapper.get(jobId);
     }
 
+    public SchedJob getCachedJob(long jobId) {
+        return jobCache.get(jobId);
+    }
+
+    public void prefetchJobs(Collection<Long> jobIds) {
+        jobCache.prefetch(jobIds);
+    }
+
     public String getJobGroup(long jobId) {
         return jobMapper.getGroup(jobId);
     }
 
+    public int countInflightTasks(String group) {
+        return taskMapper.countInflightByGroup(group);
+    }
+
     public SchedInstance getInstance(long instanceId) {
         return instanceMapper.get(instanceId);
     }
@@ -105,10 +124,45 @@ public class JobQuerier {
         return taskMapper.findBaseByInstanceId(instanceId);
     }
 
+    /**
+     * Bulk find the instances base tasks
+     *
+     * @param instanceIds the instance id list
+     * @return Map<instanceId, List<SchedTask>>
+     */
+    public Map<Long, List<SchedTask>> findBaseInstanceTasks(List<Long> instanceIds) {
+        if (CollectionUtils.isEmpty(instanceIds)) {
+            return Collections.emptyMap();
+        }
+        return Lists.partition(instanceIds, PROCESS_BATCH_SIZE)
+            .stream()
+            .flatMap(e -> taskMapper.findBaseByInstanceIds(e).stream())
+            .collect(Collectors.groupingBy(SchedTask::getInstanceId));
+    }
+
     public List<SchedTask> findLargeInstanceTasks(long instanceId) {
         return taskMapper.findLargeByInstanceId(instanceId);
     }
 
+    public List<Long> findWorkerInstanceIds(String worker, int size) {
+        return taskMapper.findInstanceIdsByWorker(worker, size);
+    }
+
+    /**
+     * Query the next page job for export, and move the keyset cursor to the last job id.
+     *
+     * @param request the request
+     * @return next page jobs
+     */
+    public List<SchedJobResponse> queryJobForExport(SchedJobPageRequest request) {
+        Assert.isTrue(request.getPageSize() > 0, "Export page size must be greater than 0.");
+        List<SchedJob> jobs = jobMapper.queryExportRecords(request);
+        if (!jobs.isEmpty()) {
+            request.setCursorJobId(jobs.get(jobs.size() - 1).getJobId());
+        }
+        return Collects.convert(jobs, SchedJobConverter.INSTANCE::convert);
+    }
+
     public PageResponse<SchedJobResponse> queryJobForPage(SchedJobPageRequest pageRequest) {
         return pageRequest.query(
             jobMapper::queryPageCount,
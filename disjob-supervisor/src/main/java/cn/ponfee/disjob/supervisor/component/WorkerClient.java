@@ -35,6 +35,7 @@ import cn.ponfee.disjob.registry.rpc.DestinationServerRestProxy.DestinationServe
 import cn.ponfee.disjob.registry.rpc.DiscoveryServerRestProxy;
 import cn.ponfee.disjob.registry.rpc.DiscoveryServerRestProxy.GroupedServerClient;
 import cn.ponfee.disjob.supervisor.base.ModelConverter;
+import cn.ponfee.disjob.supervisor.dao.WorkerDictionary;
 import cn.ponfee.disjob.supervisor.model.SchedJob;
 import cn.ponfee.disjob.supervisor.model.SchedTask;
 import org.apache.commons.collections4.CollectionUtils;
@@ -48,6 +49,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
@@ -66,11 +68,13 @@ public class WorkerClient {
 
     private final Discovery<Worker> discoverWorker;
     private final TaskDispatcher taskDispatcher;
+    private final WorkerDictionary workerDictionary;
     private final GroupedServerClient<WorkerRpcService> groupedClient;
     private final DestinationServerClient<WorkerRpcService, Worker> destinationClient;
 
     public WorkerClient(Discovery<Worker> discoverWorker,
                         TaskDispatcher taskDispatcher,
+                        WorkerDictionary workerDictionary,
                         Supervisor.Local localSupervisor,
                         RetryProperties retry,
                         @Qualifier(SPRING_BEAN_NAME_REST_TEMPLATE) RestTemplate restTemplate,
@@ -78,6 +82,9 @@ public class WorkerClient {
                         @Nullable Worker.Local localWorker) {
         this.discoverWorker = discoverWorker;
         this.taskDispatcher = taskDispatcher;
+        this.workerDictionary = workerDictionary;
+        // 注册发现的worker(sched_worker)，sched_task只引用已注册worker的id
+        discoverWorker.addServersChangedListener(workerDictionary::subscribeWorkersChanged);
 
         retry.check();
         Predicate<String> serverGroupMatcher = localWorker != null ? localWorker::equalsGroup : group -> false;
@@ -134,6 +141,24 @@ public class WorkerClient {
         }
     }
 
+    /**
+     * 探测task是否仍在worker中(等待)执行，如worker只是与注册中心发生了网络分区，但仍在执行task
+     *
+     * @param worker the worker
+     * @param taskId the task id
+     * @return {@code true} if the worker still has the task, {@code false} if not or the worker unreachable
+     */
+    public boolean existsTask(Worker worker, long taskId) {
+        String authToken = Supervisor.local().createSupervisorAuthenticationToken(worker.getGroup());
+        ExistsTaskParam param = ExistsTaskParam.of(authToken, taskId);
+        try {
+            return destinationClient.call(worker, service -> service.existsTask(param));
+        } catch (Throwable e) {
+            LOG.warn("Probe worker exists task error: {}, {}, {}", worker, taskId, e.getMessage());
+            return false;
+        }
+    }
+
     public void verifyJob(SchedJob job) throws JobException {
         Assert.hasText(job.getJobExecutor(), "Job executor cannot be blank.");
         CoreUtils.checkClobMaximumLength(job.getJobExecutor(), "Job executor");
@@ -167,6 +192,10 @@ public class WorkerClient {
         List<SchedTask> tasks = new ArrayList<>(tCount);
         for (int i = 0; i < tCount; i++) {
             String worker = isBroadcast ? workers.get(i).serialize() : null;
+            if (worker != null) {
+                // 发现worker时已注册，此处通常命中缓存
+                workerDictionary.register(worker);
+            }
             tasks.add(SchedTask.of(taskParams.get(i), idGenerator.getAsLong(), instanceId, i + 1, tCount, worker));
         }
         return tasks;
@@ -182,12 +211,24 @@ public class WorkerClient {
 
     public boolean dispatch(List<ExecuteTaskParam> tasks) {
         TransactionUtils.assertWithoutTransaction();
+        registerWorkers(tasks);
         return taskDispatcher.dispatch(tasks);
     }
 
     public boolean dispatch(String group, List<ExecuteTaskParam> tasks) {
         TransactionUtils.assertWithoutTransaction();
+        registerWorkers(tasks);
         return taskDispatcher.dispatch(group, tasks);
     }
 
+    // ------------------------------------------------------------------private methods
+
+    private void registerWorkers(List<ExecuteTaskParam> tasks) {
+        tasks.stream()
+            .map(ExecuteTaskParam::getWorker)
+            .filter(Objects::nonNull)
+            .distinct()
+            .forEach(e -> workerDictionary.register(e.serialize()));
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package cn.ponfee.disjob.supervisor.configuration;
 
+import cn.ponfee.disjob.common.lock.DatabaseLeaseLockTemplate;
 import cn.ponfee.disjob.common.lock.DatabaseLockTemplate;
 import cn.ponfee.disjob.common.lock.LockTemplate;
 import cn.ponfee.disjob.supervisor.base.SupervisorConstants;
@@ -45,20 +46,32 @@ class SupervisorDeferredImportSelector implements DeferredImportSelector {
 
         @ConditionalOnMissingBean(name = SupervisorConstants.SPRING_BEAN_NAME_SCAN_TRIGGERING_JOB_LOCKER)
         @Bean(SupervisorConstants.SPRING_BEAN_NAME_SCAN_TRIGGERING_JOB_LOCKER)
-        public LockTemplate scanTriggeringJobLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate) {
-            return new DatabaseLockTemplate(jdbcTemplate, SupervisorConstants.LOCK_SCAN_TRIGGERING_JOB);
+        public LockTemplate scanTriggeringJobLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                                    SupervisorProperties conf) {
+            return createScanLocker(jdbcTemplate, conf, SupervisorConstants.LOCK_SCAN_TRIGGERING_JOB);
         }
 
         @ConditionalOnMissingBean(name = SupervisorConstants.SPRING_BEAN_NAME_SCAN_WAITING_INSTANCE_LOCKER)
         @Bean(SupervisorConstants.SPRING_BEAN_NAME_SCAN_WAITING_INSTANCE_LOCKER)
-        public LockTemplate scanWaitingInstanceLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate) {
-            return new DatabaseLockTemplate(jdbcTemplate, SupervisorConstants.LOCK_SCAN_WAITING_INSTANCE);
+        public LockTemplate scanWaitingInstanceLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                                      SupervisorProperties conf) {
+            return createScanLocker(jdbcTemplate, conf, SupervisorConstants.LOCK_SCAN_WAITING_INSTANCE);
         }
 
         @ConditionalOnMissingBean(name = SupervisorConstants.SPRING_BEAN_NAME_SCAN_RUNNING_INSTANCE_LOCKER)
         @Bean(SupervisorConstants.SPRING_BEAN_NAME_SCAN_RUNNING_INSTANCE_LOCKER)
-        public LockTemplate scanRunningInstanceLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate) {
-            return new DatabaseLockTemplate(jdbcTemplate, SupervisorConstants.LOCK_SCAN_RUNNING_INSTANCE);
+        public LockTemplate scanRunningInstanceLocker(@Qualifier(SPRING_BEAN_NAME_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                                      SupervisorProperties conf) {
+            return createScanLocker(jdbcTemplate, conf, SupervisorConstants.LOCK_SCAN_RUNNING_INSTANCE);
+        }
+
+        /**
+         * Creates the scan locker, can replace it with a custom LockTemplate bean of the same name,
+         * such as {@link cn.ponfee.disjob.common.lock.RedisLeaseLockTemplate}.
+         */
+        private static LockTemplate createScanLocker(JdbcTemplate jdbcTemplate, SupervisorProperties conf, String lockName) {
+            long leaseMs = conf.getScanLockLeaseMs();
+            return leaseMs > 0 ? new DatabaseLeaseLockTemplate(jdbcTemplate, lockName, leaseMs) : new DatabaseLockTemplate(jdbcTemplate, lockName);
         }
     }
 
@@ -72,6 +72,11 @@ public class SupervisorProperties extends ToJsonString implements Serializable {
      */
     private long scanRunningInstancePeriodMs = 30000;
 
+    /**
+     * Dead worker task failover delay milliseconds, for ride out registry flaps
+     */
+    private long workerFailoverDelayMs = 5000;
+
     /**
      * Shutdown task delay resume milliseconds
      */
@@ -82,6 +87,11 @@ public class SupervisorProperties extends ToJsonString implements Serializable {
      */
     private int maximumProcessJobPoolSize = 10;
 
+    /**
+     * Maximum process scanned instance thread pool size, default 10
+     */
+    private int maximumProcessInstancePoolSize = 10;
+
     /**
      * Group data refresh period seconds.
      */
@@ -97,6 +107,22 @@ public class SupervisorProperties extends ToJsonString implements Serializable {
      */
     private int taskDispatchFailedCountThreshold = 3;
 
+    /**
+     * Scan lock lease milliseconds, default 15000
+     * <p>大于0：扫描线程获取租约后跨多次扫描持有(后台续租)，扫描的写操作会校验fencing token；等于0：每次扫描都通过sched_lock行锁加锁
+     */
+    private long scanLockLeaseMs = 15000;
+
+    /**
+     * Maximum backfill misfire trigger count of FIRE_ALL_LOST job in a scan, default 500
+     */
+    private int maximumBackfillTriggerCount = 500;
+
+    /**
+     * Backfill instance dispatch rate(permits per second) of a job, default 10
+     */
+    private int backfillDispatchRate = 10;
+
     public void check() {
         Assert.isTrue(20 <= scanBatchSize && scanBatchSize <= 2000, "Scan batch size must be range [20, 2000].");
         Assert.isTrue(maximumSplitTaskSize > 0, "Maximum split task size must be greater than 0.");
@@ -105,11 +131,16 @@ public class SupervisorProperties extends ToJsonString implements Serializable {
         Assert.isTrue(scanTriggeringJobPeriodMs >= 1000, "Scan triggering job period ms cannot less than 1000.");
         Assert.isTrue(scanWaitingInstancePeriodMs >= 15000, "Scan waiting instance period ms cannot less than 15000.");
         Assert.isTrue(scanRunningInstancePeriodMs >= 30000, "Scan running instance period ms cannot less than 30000.");
+        Assert.isTrue(workerFailoverDelayMs >= 1000, "Worker failover delay ms cannot less than 1000.");
         Assert.isTrue(shutdownTaskDelayResumeMs >= 60000, "Shutdown task delay resume ms cannot less than 60000.");
         Assert.isTrue(maximumProcessJobPoolSize > 0, "Maximum process job pool size must be greater than 0.");
+        Assert.isTrue(maximumProcessInstancePoolSize > 0, "Maximum process instance pool size must be greater than 0.");
         Assert.isTrue(groupRefreshPeriodSeconds >= 30, "group refresh period seconds cannot less than 30s.");
         Assert.isTrue(jobScanFailedCountThreshold >= 0, "Job scan failed count threshold cannot less than 0.");
         Assert.isTrue(taskDispatchFailedCountThreshold >= 0, "Task dispatch failed count threshold cannot less than 0.");
+        Assert.isTrue(scanLockLeaseMs == 0 || scanLockLeaseMs >= 3000, "Scan lock lease ms must be 0 or cannot less than 3000.");
+        Assert.isTrue(maximumBackfillTriggerCount > 0, "Maximum backfill trigger count must be greater than 0.");
+        Assert.isTrue(backfillDispatchRate > 0, "Backfill dispatch rate must be greater than 0.");
     }
 
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.dao;
+
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.RegistryEventType;
+import cn.ponfee.disjob.supervisor.dao.mapper.SchedWorkerMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static cn.ponfee.disjob.supervisor.dao.SupervisorDataSourceConfig.SPRING_BEAN_NAME_TX_MANAGER;
+
+/**
+ * Worker dictionary of `sched_worker` table, every worker incarnation(serialized worker) has a compact numeric id.
+ * <p>`sched_task.worker_id`引用`sched_worker.id`，映射关系只增不改，所以可以在内存中缓存
+ * <p>只在worker注册及派发task时显式注册(写入)，查询时未注册的worker映射为{@link #UNKNOWN_WORKER_ID}(不会匹配到任何数据)
+ *
+ * @author Ponfee
+ */
+@Component
+public class WorkerDictionary {
+
+    /**
+     * The id of unregistered worker, which not matches any `sched_task.worker_id`
+     */
+    static final long UNKNOWN_WORKER_ID = -1L;
+
+    private static volatile WorkerDictionary instance;
+
+    private final Cache<String, Long> workerToId = CacheBuilder.newBuilder()
+        .maximumSize(8192)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+
+    private final Cache<Long, String> idToWorker = CacheBuilder.newBuilder()
+        .maximumSize(8192)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+
+    private final SchedWorkerMapper workerMapper;
+
+    /**
+     * 在独立的事务中注册worker，即使被误在事务中调用，也不会因调用方的事务回滚而导致字典数据丢失
+     */
+    private final TransactionTemplate requiresNewTxTemplate;
+
+    public WorkerDictionary(SchedWorkerMapper workerMapper,
+                            @Qualifier(SPRING_BEAN_NAME_TX_MANAGER) PlatformTransactionManager txManager) {
+        this.workerMapper = workerMapper;
+        this.requiresNewTxTemplate = new TransactionTemplate(txManager);
+        this.requiresNewTxTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        instance = this;
+    }
+
+    /**
+     * Registers the worker if absent, must be called without spring transaction.
+     *
+     * @param worker the serialized worker
+     * @return worker id
+     */
+    public long register(String worker) {
+        try {
+            return workerToId.get(worker, () -> loadOrRegisterId(worker));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Register worker failed: " + worker, e.getCause());
+        }
+    }
+
+    /**
+     * Subscribe the worker changed event, registers the discovered workers.
+     *
+     * @param eventType the registry event type
+     * @param workers   the changed workers
+     */
+    public void subscribeWorkersChanged(RegistryEventType eventType, List<Worker> workers) {
+        if (eventType.isRegister()) {
+            workers.forEach(e -> ThrowingRunnable.doCaught(() -> register(e.serialize()), () -> "Register worker error: " + e));
+        }
+    }
+
+    /**
+     * Returns the worker id, it is read only.
+     *
+     * @param worker the serialized worker
+     * @return worker id, {@link #UNKNOWN_WORKER_ID} if the worker not registered
+     */
+    public long findId(String worker) {
+        Long id = workerToId.getIfPresent(worker);
+        if (id != null) {
+            return id;
+        }
+        id = workerMapper.getId(worker);
+        if (id == null) {
+            return UNKNOWN_WORKER_ID;
+        }
+        cache(worker, id);
+        return id;
+    }
+
+    /**
+     * Returns the serialized worker of the id.
+     *
+     * @param id the worker id
+     * @return serialized worker
+     */
+    public String getWorker(long id) {
+        try {
+            return idToWorker.get(id, () -> {
+                String worker = workerMapper.getWorker(id);
+                Assert.state(worker != null, () -> "Not found worker of id: " + id);
+                workerToId.put(worker, id);
+                return worker;
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed: " + id, e.getCause());
+        }
+    }
+
+    static WorkerDictionary get() {
+        WorkerDictionary dictionary = instance;
+        Assert.state(dictionary != null, "Worker dictionary not initialized.");
+        return dictionary;
+    }
+
+    // ------------------------------------------------------------------------private methods
+
+    private Long loadOrRegisterId(String worker) {
+        Long id = workerMapper.getId(worker);
+        if (id == null) {
+            String group = Worker.deserialize(worker).getGroup();
+            id = requiresNewTxTemplate.execute(status -> {
+                workerMapper.insertIgnore(group, worker);
+                return workerMapper.getId(worker);
+            });
+        }
+        Assert.state(id != null, () -> "Register worker failed: " + worker);
+        idToWorker.put(id, worker);
+        return id;
+    }
+
+    private void cache(String worker, long id) {
+        workerToId.put(worker, id);
+        idToWorker.put(id, worker);
+    }
+
+}
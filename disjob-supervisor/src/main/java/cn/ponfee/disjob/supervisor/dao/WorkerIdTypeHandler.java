@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.dao;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mybatis type handler: maps the serialized worker(java String) to `sched_task.worker_id`(jdbc BIGINT)
+ *
+ * <pre>
+ *  参数：#{worker,jdbcType=BIGINT,typeHandler=cn.ponfee.disjob.supervisor.dao.WorkerIdTypeHandler}
+ *  结果：&lt;result column="worker_id" property="worker" typeHandler="cn.ponfee.disjob.supervisor.dao.WorkerIdTypeHandler" /&gt;
+ * </pre>
+ * <p>Mybatis通过反射创建TypeHandler实例，所以通过静态方法获取WorkerDictionary；参数转换是只读的，worker由注册及派发流程显式注册
+ *
+ * @author Ponfee
+ */
+@MappedTypes(String.class)
+@MappedJdbcTypes(JdbcType.BIGINT)
+public class WorkerIdTypeHandler extends BaseTypeHandler<String> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String worker, JdbcType jdbcType) throws SQLException {
+        // 只读：未注册的worker映射为不存在的id，不会在语句执行过程中写入字典
+        ps.setLong(i, WorkerDictionary.get().findId(worker));
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        long id = rs.getLong(columnName);
+        return rs.wasNull() ? null : WorkerDictionary.get().getWorker(id);
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        long id = rs.getLong(columnIndex);
+        return rs.wasNull() ? null : WorkerDictionary.get().getWorker(id);
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        long id = cs.getLong(columnIndex);
+        return cs.wasNull() ? null : WorkerDictionary.get().getWorker(id);
+    }
+
+}
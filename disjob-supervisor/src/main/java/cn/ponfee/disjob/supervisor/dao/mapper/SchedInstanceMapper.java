@@ -36,6 +36,8 @@ public interface SchedInstanceMapper {
 
     int insert(SchedInstance instance);
 
+    int batchInsert(List<SchedInstance> records);
+
     /**
      * Gets sched instance by instance_id
      *
@@ -84,6 +86,26 @@ public interface SchedInstanceMapper {
                            @Param("nextScanTime") Date nextScanTime,
                            @Param("version") int version);
 
+    /**
+     * Increments the terminated and paused task count, not change the version(avoid conflict with the scanner).
+     *
+     * @param instanceId      the instance id
+     * @param terminatedDelta the terminated task count delta
+     * @param pausedDelta     the paused task count delta
+     * @return update sql affected rows
+     */
+    int incrementTaskCounter(@Param("instanceId") long instanceId,
+                             @Param("terminatedDelta") int terminatedDelta,
+                             @Param("pausedDelta") int pausedDelta);
+
+    /**
+     * Reconcile the terminated and paused task count by the sched_task execute state.
+     *
+     * @param instanceId the instance id
+     * @return update sql affected rows
+     */
+    int reconcileTaskCounter(long instanceId);
+
     SchedInstance lock(long instanceId);
 
     /**
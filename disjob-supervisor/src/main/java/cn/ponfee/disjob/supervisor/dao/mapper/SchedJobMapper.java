@@ -73,6 +73,24 @@ public interface SchedJobMapper {
 
     int updateNextScanTime(SchedJob job);
 
+    /**
+     * Resets the blocked collided(SEQUENTIAL or OVERRIDE) job next scan time to now,
+     * then the next scan can trigger it immediately.
+     * <p>Always increment the version, make the concurrent blocking update(based on the old version) failure.
+     *
+     * @param jobId the job id
+     * @return update sql affected rows
+     */
+    int resetCollidedNextScanTime(long jobId);
+
+    /**
+     * Resets the parked(not discovered worker) jobs next scan time to now.
+     *
+     * @param jobIds the job id list
+     * @return update sql affected rows
+     */
+    int resetParkedNextScanTime(@Param("jobIds") List<Long> jobIds);
+
     /**
      * Disable the job.
      *
@@ -134,4 +152,6 @@ public interface SchedJobMapper {
     long queryPageCount(SchedJobPageRequest request);
 
     List<SchedJob> queryPageRecords(SchedJobPageRequest request);
+
+    List<SchedJob> queryExportRecords(SchedJobPageRequest request);
 }
@@ -16,6 +16,7 @@
 
 package cn.ponfee.disjob.supervisor.dao.mapper;
 
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
 import cn.ponfee.disjob.core.enums.ExecuteState;
 import cn.ponfee.disjob.supervisor.model.SchedTask;
 import org.apache.ibatis.annotations.Param;
@@ -38,8 +39,40 @@ public interface SchedTaskMapper {
 
     List<SchedTask> findBaseByInstanceIdAndStates(@Param("instanceId") long instanceId, @Param("states") List<Integer> states);
 
+    List<SchedTask> findBaseByInstanceIds(List<Long> instanceIds);
+
+    List<SchedTask> findBaseByTaskIds(List<Long> taskIds);
+
+    int countByInstanceIdAndStates(@Param("instanceId") long instanceId, @Param("states") List<Integer> states);
+
+    /**
+     * Finds the latest WAITING state tasks which assigned to the workers
+     *
+     * @param workers the workers
+     * @param limit   the limit
+     * @return list of waiting tasks
+     */
+    List<SchedTask> findWaitingByWorkers(@Param("workers") List<String> workers, @Param("limit") int limit);
+
+    /**
+     * Counts the WAITING and EXECUTING state tasks which assigned to the group workers
+     *
+     * @param group the group
+     * @return number of inflight tasks
+     */
+    int countInflightByGroup(String group);
+
     List<SchedTask> findLargeByInstanceIdAndStates(@Param("instanceId") long instanceId, @Param("states") List<Integer> states);
 
+    /**
+     * Finds the instance ids which has WAITING or EXECUTING task of the worker
+     *
+     * @param worker the worker
+     * @param size   the size
+     * @return instance id list
+     */
+    List<Long> findInstanceIdsByWorker(@Param("worker") String worker, @Param("size") int size);
+
     int incrementDispatchFailedCount(@Param("taskId") long taskId, @Param("currentDispatchFailedCount") int currentDispatchFailedCount);
 
     int start(@Param("taskId") long taskId,
@@ -67,6 +100,8 @@ public interface SchedTaskMapper {
 
     int savepoint(@Param("taskId") long taskId, @Param("worker") String worker, @Param("executeSnapshot") String executeSnapshot);
 
+    int batchSavepoint(@Param("worker") String worker, @Param("params") List<SavepointParam> params);
+
     /**
      * Delete the sched task.
      *
@@ -78,11 +113,14 @@ public interface SchedTaskMapper {
     /**
      * Update or clear the task worker
      *
-     * @param worker  the worker
-     * @param taskIds the task id list
+     * @param worker       the worker
+     * @param expectWorker the expect current worker(or current worker is null), if null then not check
+     * @param taskIds      the task id list
      * @return update sql affected rows
      */
-    int batchUpdateWorker(@Param("worker") String worker, @Param("taskIds") List<Long> taskIds);
+    int batchUpdateWorker(@Param("worker") String worker,
+                          @Param("expectWorker") String expectWorker,
+                          @Param("taskIds") List<Long> taskIds);
 
     // -------------------------------------------------default methods
 
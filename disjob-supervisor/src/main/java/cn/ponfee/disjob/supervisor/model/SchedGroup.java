@@ -77,6 +77,21 @@ public class SchedGroup extends BaseEntity {
      */
     private String webhook;
 
+    /**
+     * 最大并发执行(已派发未结束)的task数量，0表示不限制
+     */
+    private Integer maxExecutingTasks;
+
+    /**
+     * 每秒最大派发task数量，0表示不限制
+     */
+    private Integer maxDispatchRate;
+
+    /**
+     * 每次扫描最大触发job数量，0表示不限制
+     */
+    private Integer maxTriggersPerScan;
+
     /**
      * 行记录版本号
      */
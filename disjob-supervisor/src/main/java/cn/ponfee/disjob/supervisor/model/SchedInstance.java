@@ -121,6 +121,21 @@ public class SchedInstance extends BaseEntity {
      */
     private Date nextScanTime;
 
+    /**
+     * task总数量(0表示未统计，如workflow lead实例)
+     */
+    private Integer taskCount;
+
+    /**
+     * 已结束(终止状态)的task数量
+     */
+    private Integer terminatedTaskCount;
+
+    /**
+     * 已暂停(PAUSED状态)的task数量
+     */
+    private Integer pausedTaskCount;
+
     /**
      * 行记录版本号
      */
@@ -160,6 +175,9 @@ public class SchedInstance extends BaseEntity {
         instance.setTriggerTime(triggerTime);
         instance.setRetriedCount(retriedCount);
         instance.setRunState(RunState.WAITING.value());
+        instance.setTaskCount(0);
+        instance.setTerminatedTaskCount(0);
+        instance.setPausedTaskCount(0);
         return instance;
     }
 
@@ -152,6 +152,13 @@ public class SchedJob extends BaseEntity {
      */
     private Integer shutdownStrategy;
 
+    /**
+     * 任务优先级(Worker按优先级分道执行)：1-低优先级；2-普通优先级；3-高优先级；
+     *
+     * @see JobPriority
+     */
+    private Integer priority;
+
     /**
      * 最近一次的触发时间(毫秒时间戳)
      */
@@ -295,6 +302,7 @@ public class SchedJob extends BaseEntity {
         this.collidedStrategy = defaultIfNull(collidedStrategy, CollidedStrategy.CONCURRENT.value());
         this.misfireStrategy = defaultIfNull(misfireStrategy, MisfireStrategy.FIRE_ONCE_NOW.value());
         this.shutdownStrategy = defaultIfNull(shutdownStrategy, ShutdownStrategy.RESUME.value());
+        this.priority = defaultIfNull(priority, JobPriority.NORMAL.value());
         this.triggerValue = StringUtils.trim(triggerValue);
 
         // verify
@@ -303,6 +311,7 @@ public class SchedJob extends BaseEntity {
         CollidedStrategy.of(collidedStrategy);
         MisfireStrategy.of(misfireStrategy);
         ShutdownStrategy.of(shutdownStrategy);
+        JobPriority.of(priority);
         if (RetryType.of(retryType) == RetryType.NONE) {
             this.retryCount = defaultIfNull(retryCount, 0);
             this.retryInterval = defaultIfNull(retryInterval, 0);
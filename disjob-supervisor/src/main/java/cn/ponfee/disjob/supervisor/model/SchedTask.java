@@ -17,6 +17,7 @@
 package cn.ponfee.disjob.supervisor.model;
 
 import cn.ponfee.disjob.common.model.BaseEntity;
+import cn.ponfee.disjob.core.base.CoreUtils;
 import cn.ponfee.disjob.core.base.Worker;
 import cn.ponfee.disjob.core.enums.ExecuteState;
 import lombok.Getter;
@@ -127,6 +128,15 @@ public class SchedTask extends BaseEntity {
         return task;
     }
 
+    /**
+     * The saved execute snapshot maybe compressed by worker
+     *
+     * @param executeSnapshot the execute snapshot
+     */
+    public void setExecuteSnapshot(String executeSnapshot) {
+        this.executeSnapshot = CoreUtils.decompressSnapshot(executeSnapshot);
+    }
+
     public Worker worker() {
         return StringUtils.isBlank(worker) ? null : Worker.deserialize(worker);
     }
@@ -21,6 +21,7 @@ import cn.ponfee.disjob.common.spring.RpcController;
 import cn.ponfee.disjob.core.base.JobConstants;
 import cn.ponfee.disjob.core.base.Supervisor;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskResult;
 import cn.ponfee.disjob.core.dto.supervisor.StopTaskParam;
@@ -34,6 +35,7 @@ import cn.ponfee.disjob.supervisor.base.ExtendedSupervisorRpcService;
 import cn.ponfee.disjob.supervisor.base.OperationEventType;
 import cn.ponfee.disjob.supervisor.base.SupervisorMetrics;
 import cn.ponfee.disjob.supervisor.component.JobManager;
+import cn.ponfee.disjob.supervisor.dao.WorkerDictionary;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
@@ -50,22 +52,34 @@ public class SupervisorRpcProvider implements ExtendedSupervisorRpcService {
 
     private final SupervisorRegistry supervisorRegistry;
     private final JobManager jobManager;
+    private final WorkerDictionary workerDictionary;
     private final Supervisor.Local localSupervisor;
 
     // -------------------------------------------------------for worker invoke method
 
     @Override
     public void subscribeWorkerEvent(RegistryEventType eventType, Worker worker) {
+        if (eventType.isRegister()) {
+            workerDictionary.register(worker.serialize());
+        }
         supervisorRegistry.subscribeServerEvent(eventType, worker);
     }
 
     @Override
     public void updateTaskWorker(String worker, List<Long> taskIds) {
+        // 在事务外注册worker，后续在事务内只读取worker id
+        workerDictionary.register(worker);
         jobManager.updateTaskWorker(worker, taskIds);
     }
 
+    @Override
+    public void resetTaskWorker(String worker, List<Long> taskIds) {
+        jobManager.resetTaskWorker(worker, taskIds);
+    }
+
     @Override
     public StartTaskResult startTask(StartTaskParam param) {
+        workerDictionary.register(param.getWorker());
         return jobManager.startTask(param);
     }
 
@@ -74,6 +88,12 @@ public class SupervisorRpcProvider implements ExtendedSupervisorRpcService {
         return jobManager.stopTask(param);
     }
 
+    @Override
+    public int stealTasks(Worker worker, int count) {
+        workerDictionary.register(worker.serialize());
+        return jobManager.stealTasks(worker, count);
+    }
+
     @Override
     public boolean pauseInstance(long instanceId) {
         return jobManager.pauseInstance(instanceId);
@@ -89,6 +109,11 @@ public class SupervisorRpcProvider implements ExtendedSupervisorRpcService {
         return jobManager.savepoint(taskId, worker, executeSnapshot);
     }
 
+    @Override
+    public List<Long> savepoints(List<SavepointParam> params) {
+        return jobManager.savepoints(params);
+    }
+
     // -------------------------------------------------------for other supervisor invoke method
 
     @SupervisorAuthentication(Subject.ANON)
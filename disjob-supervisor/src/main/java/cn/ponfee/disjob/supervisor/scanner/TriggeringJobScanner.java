@@ -17,27 +17,34 @@
 package cn.ponfee.disjob.supervisor.scanner;
 
 import cn.ponfee.disjob.common.base.SingletonClassConstraint;
+import cn.ponfee.disjob.common.collect.Collects;
 import cn.ponfee.disjob.common.concurrent.*;
 import cn.ponfee.disjob.common.date.Dates;
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
+import cn.ponfee.disjob.common.lock.LeaseLockTemplate;
 import cn.ponfee.disjob.common.lock.LockTemplate;
+import cn.ponfee.disjob.core.base.Worker;
 import cn.ponfee.disjob.core.enums.*;
 import cn.ponfee.disjob.supervisor.base.TriggerTimes;
+import cn.ponfee.disjob.supervisor.component.GroupQuotaManager;
 import cn.ponfee.disjob.supervisor.component.JobManager;
 import cn.ponfee.disjob.supervisor.component.JobQuerier;
 import cn.ponfee.disjob.supervisor.component.WorkerClient;
 import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
 import cn.ponfee.disjob.supervisor.model.SchedInstance;
 import cn.ponfee.disjob.supervisor.model.SchedJob;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.dao.DuplicateKeyException;
 
 import javax.annotation.PreDestroy;
-import java.util.Date;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 /**
  * The schedule job heartbeat thread, <br/>
@@ -52,28 +59,47 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
 
     private final int scanBatchSize;
     private final int jobScanFailedCountThreshold;
+    private final int maximumBackfillTriggerCount;
+    private final int backfillDispatchRate;
     private final LockTemplate lockTemplate;
     private final WorkerClient workerClient;
     private final JobManager jobManager;
     private final JobQuerier jobQuerier;
+    private final GroupQuotaManager groupQuotaManager;
     private final long afterMilliseconds;
     private final ExecutorService processJobExecutor;
+    private final ThreadPoolExecutor backfillDispatchExecutor;
+    /**
+     * 回填实例分派的限速器，按job共享：Map<jobId, RateLimiter>
+     */
+    private final Cache<Long, RateLimiter> backfillRateLimiters = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+    /**
+     * Parked jobs because of not discovered worker: Map<group, Set<jobId>>
+     */
+    private final Map<String, Set<Long>> parkedJobs = new ConcurrentHashMap<>();
     private final PeriodExecutor logPrinter = new PeriodExecutor(30000, () -> log.warn("Not discovered any worker."));
 
     public TriggeringJobScanner(SupervisorProperties conf,
                                 LockTemplate lockTemplate,
                                 WorkerClient workerClient,
                                 JobManager jobManager,
-                                JobQuerier jobQuerier) {
+                                JobQuerier jobQuerier,
+                                GroupQuotaManager groupQuotaManager) {
         super(conf.getScanTriggeringJobPeriodMs());
         SingletonClassConstraint.constrain(this);
 
         this.scanBatchSize = conf.getScanBatchSize();
         this.jobScanFailedCountThreshold = conf.getJobScanFailedCountThreshold();
+        this.maximumBackfillTriggerCount = conf.getMaximumBackfillTriggerCount();
+        this.backfillDispatchRate = conf.getBackfillDispatchRate();
         this.lockTemplate = lockTemplate;
         this.workerClient = workerClient;
         this.jobManager = jobManager;
         this.jobQuerier = jobQuerier;
+        this.groupQuotaManager = groupQuotaManager;
         // heartbeat period duration: 2s * 3 = 6s
         this.afterMilliseconds = (heartbeatPeriodMs * 3);
         this.processJobExecutor = ThreadPoolExecutors.builder()
@@ -84,6 +110,16 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
             .rejectedHandler(ThreadPoolExecutors.CALLER_RUNS)
             .threadFactory(NamedThreadFactory.builder().prefix("triggering_job_scanner").priority(Thread.MAX_PRIORITY).uncaughtExceptionHandler(log).build())
             .build();
+        int backfillPoolSize = Math.max(1, conf.getMaximumProcessJobPoolSize());
+        this.backfillDispatchExecutor = ThreadPoolExecutors.builder()
+            .corePoolSize(backfillPoolSize)
+            .maximumPoolSize(backfillPoolSize)
+            .workQueue(new ArrayBlockingQueue<>(backfillPoolSize * 2))
+            .keepAliveTimeSeconds(300)
+            .allowCoreThreadTimeOut(true)
+            .rejectedHandler(ThreadPoolExecutors.ABORT)
+            .threadFactory(NamedThreadFactory.builder().prefix("backfill_dispatch").uncaughtExceptionHandler(log).build())
+            .build();
     }
 
     @Override
@@ -100,18 +136,79 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
             if (CollectionUtils.isEmpty(jobs)) {
                 return true;
             }
-            MultithreadExecutors.run(jobs, job -> processJob(job, now, maxNextTriggerTime), processJobExecutor);
+            List<SchedJob> admittedJobs = deferExceededQuotaJobs(jobs, now);
+            // 将当前扫描线程的租约fencing传递到处理job的线程，在写操作时校验
+            Consumer<SchedJob> action = LeaseLockTemplate.propagateFencing(job -> processJob(job, now, maxNextTriggerTime));
+            MultithreadExecutors.run(admittedJobs, action, processJobExecutor);
             return jobs.size() < scanBatchSize;
         });
 
         return result != null && result;
     }
 
+    /**
+     * 超出分组每次扫描触发配额的job延后到下一次扫描，不增加scan_failed_count
+     *
+     * @param jobs the scanned jobs
+     * @param now  the current date
+     * @return admitted jobs
+     */
+    private List<SchedJob> deferExceededQuotaJobs(List<SchedJob> jobs, Date now) {
+        Map<String, Integer> triggeredCounts = new HashMap<>();
+        List<SchedJob> admittedJobs = new ArrayList<>(jobs.size());
+        for (SchedJob job : jobs) {
+            int maxTriggersPerScan = groupQuotaManager.getMaxTriggersPerScan(job.getGroup());
+            if (maxTriggersPerScan <= 0 || triggeredCounts.merge(job.getGroup(), 1, Integer::sum) <= maxTriggersPerScan) {
+                admittedJobs.add(job);
+            } else {
+                job.setNextScanTime(new Date(now.getTime() + heartbeatPeriodMs));
+                ThrowingRunnable.doCaught(() -> jobManager.updateJobNextScanTime(job), () -> "Defer exceeded quota job error: " + job);
+            }
+        }
+        if (admittedJobs.size() < jobs.size()) {
+            log.info("Deferred exceeded group quota jobs: {}", jobs.size() - admittedJobs.size());
+        }
+        return admittedJobs;
+    }
+
+    /**
+     * Subscribe the worker changed event, reset the parked jobs next scan time when group worker registered.
+     *
+     * @param eventType the registry event type
+     * @param workers   the changed workers
+     */
+    public void subscribeWorkersChanged(RegistryEventType eventType, List<Worker> workers) {
+        if (!eventType.isRegister()) {
+            return;
+        }
+        List<Long> jobIds = new ArrayList<>();
+        workers.stream().map(Worker::getGroup).distinct().forEach(group -> {
+            Set<Long> set = parkedJobs.remove(group);
+            if (set != null) {
+                jobIds.addAll(set);
+            }
+        });
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        try {
+            int rows = jobManager.resetParkedJobNextScanTime(jobIds);
+            log.info("Reset parked job next scan time: {}, {}", jobIds, rows);
+            if (rows > 0) {
+                super.wakeup();
+            }
+        } catch (Throwable t) {
+            log.error("Reset parked job next scan time error: " + jobIds, t);
+        }
+    }
+
     @PreDestroy
     @Override
     public void close() {
         super.close();
         ThreadPoolExecutors.shutdown(processJobExecutor, 1);
+        // 未分派的回填实例会由WaitingInstanceScanner重新分派
+        backfillDispatchExecutor.shutdownNow();
     }
 
     private void processJob(SchedJob job, Date now, long maxNextTriggerTime) {
@@ -119,9 +216,14 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
             // check has available workers
             if (workerClient.hasNotDiscoveredWorkers(job.getGroup())) {
                 updateNextScanTime(job, now, 60000L);
+                parkedJobs.computeIfAbsent(job.getGroup(), k -> ConcurrentHashMap.newKeySet()).add(job.getJobId());
                 log.warn("Scan job not discovered worker: {}, {}", job.getJobId(), job.getGroup());
                 return;
             }
+            Set<Long> groupParkedJobs = parkedJobs.get(job.getGroup());
+            if (groupParkedJobs != null) {
+                groupParkedJobs.remove(job.getJobId());
+            }
             // 重新再计算一次nextTriggerTime
             job.setNextTriggerTime(reComputeNextTriggerTime(job, now));
             if (job.getNextTriggerTime() == null) {
@@ -143,6 +245,20 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
                 return;
             }
 
+            List<Long> backfillTriggerTimes = computeBackfillTriggerTimes(job, triggerTime, now);
+            if (backfillTriggerTimes != null) {
+                if (backfillDispatchExecutor.getQueue().remainingCapacity() == 0) {
+                    // 回填分派队列已满，不创建实例，等待下次扫描时再回填
+                    updateNextScanTime(job, now, heartbeatPeriodMs);
+                    log.info("Backfill dispatch queue full, retry next scan: {}", job.getJobId());
+                    return;
+                }
+                refreshNextTriggerTime(job, Collects.getLast(backfillTriggerTimes), now);
+                long jobId = job.getJobId();
+                jobManager.scheduleBackfillJob(job, backfillTriggerTimes, actions -> backfillDispatch(jobId, actions));
+                return;
+            }
+
             refreshNextTriggerTime(job, triggerTime, now);
             jobManager.scheduleTriggerJob(job, triggerTime);
         } catch (DuplicateKeyException e) {
@@ -263,19 +379,82 @@ public class TriggeringJobScanner extends AbstractHeartbeatThread {
                 updateNextScanTime(job, now, job.getNextTriggerTime() - now.getTime());
             }
         } else if (strategy == CollidedStrategy.SEQUENTIAL) {
-            // 串行执行：更新下一次的扫描时间
+            // 串行执行：更新下一次的扫描时间(兜底)，上一次实例结束时会重置next_scan_time并唤醒扫描
             updateNextScanTime(job, now, 30000L);
         } else if (strategy == CollidedStrategy.OVERRIDE) {
             // 覆盖执行：先取消上一次的执行（或取消上一次的重试实例）
             if (instance != null) {
                 jobManager.cancelInstance(instance.getInstanceId(), Operation.COLLIDED_CANCEL);
             }
+            // 被取消的实例结束时会重置next_scan_time并唤醒扫描，此处为兜底
             updateNextScanTime(job, now, 3000L);
         } else {
             throw new UnsupportedOperationException("Unsupported collided strategy: " + strategy);
         }
     }
 
+    /**
+     * Computes all the misfire trigger times of FIRE_ALL_LOST job in one pass, limit by maximumBackfillTriggerCount.
+     *
+     * @param job         the job
+     * @param triggerTime the current trigger time
+     * @param now         the current date
+     * @return misfire trigger times, {@code null} if not need backfill
+     */
+    private List<Long> computeBackfillTriggerTimes(SchedJob job, long triggerTime, Date now) {
+        if (MisfireStrategy.FIRE_ALL_LOST != MisfireStrategy.of(job.getMisfireStrategy())
+            || CollidedStrategy.CONCURRENT != CollidedStrategy.of(job.getCollidedStrategy())
+            || !JobType.of(job.getJobType()).isGeneral()
+            || triggerTime + afterMilliseconds >= now.getTime()) {
+            return null;
+        }
+        TriggerType triggerType = TriggerType.of(job.getTriggerType());
+        if (triggerType == TriggerType.ONCE || triggerType.isFixedTriggerType() || maximumBackfillTriggerCount < 2) {
+            return null;
+        }
+
+        Date endTime = job.getEndTime();
+        List<Long> triggerTimes = new ArrayList<>();
+        triggerTimes.add(triggerTime);
+        // 触发时间表达式只解析一次，批量计算出后续错过的触发时间
+        String triggerValue = job.getTriggerValue();
+        for (Date next : triggerType.computeNextTriggerTimes(triggerValue, new Date(triggerTime), maximumBackfillTriggerCount - 1)) {
+            if (!next.before(now) || (endTime != null && next.after(endTime))) {
+                break;
+            }
+            triggerTimes.add(next.getTime());
+        }
+        return triggerTimes.size() > 1 ? triggerTimes : null;
+    }
+
+    private void backfillDispatch(long jobId, List<Runnable> dispatchActions) {
+        try {
+            backfillDispatchExecutor.execute(() -> {
+                // 限制单个job回填实例的分派速率(同一job的多批回填共享限速器)，避免大量实例同时压到worker
+                RateLimiter rateLimiter = getBackfillRateLimiter(jobId);
+                for (Runnable action : dispatchActions) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    rateLimiter.acquire();
+                    ThrowingRunnable.doCaught(action::run);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 实例已创建，未分派的回填实例会由WaitingInstanceScanner重新分派
+            log.warn("Backfill dispatch rejected: {}, {}", jobId, dispatchActions.size());
+        }
+    }
+
+    private RateLimiter getBackfillRateLimiter(long jobId) {
+        try {
+            return backfillRateLimiters.get(jobId, () -> RateLimiter.create(backfillDispatchRate));
+        } catch (ExecutionException e) {
+            // cannot happen
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void updateNextScanTime(SchedJob job, Date now, long delayMillis) {
         job.setNextScanTime(Dates.plusMillis(now, delayMillis));
         jobManager.updateJobNextScanTime(job);
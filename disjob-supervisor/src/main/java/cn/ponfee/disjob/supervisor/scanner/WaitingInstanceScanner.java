@@ -18,8 +18,7 @@ package cn.ponfee.disjob.supervisor.scanner;
 
 import cn.ponfee.disjob.common.base.SingletonClassConstraint;
 import cn.ponfee.disjob.common.collect.Collects;
-import cn.ponfee.disjob.common.concurrent.AbstractHeartbeatThread;
-import cn.ponfee.disjob.common.concurrent.PeriodExecutor;
+import cn.ponfee.disjob.common.concurrent.*;
 import cn.ponfee.disjob.common.lock.LockTemplate;
 import cn.ponfee.disjob.supervisor.component.JobManager;
 import cn.ponfee.disjob.supervisor.component.JobQuerier;
@@ -29,9 +28,15 @@ import cn.ponfee.disjob.supervisor.model.SchedInstance;
 import cn.ponfee.disjob.supervisor.model.SchedJob;
 import cn.ponfee.disjob.supervisor.model.SchedTask;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
+import javax.annotation.PreDestroy;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
 
 /**
  * Scan expired trigger time, but still is waiting state sched_instance record.
@@ -46,6 +51,7 @@ public class WaitingInstanceScanner extends AbstractHeartbeatThread {
     private final JobManager jobManager;
     private final JobQuerier jobQuerier;
     private final long beforeMilliseconds;
+    private final ExecutorService processInstanceExecutor;
     private final PeriodExecutor logPrinter = new PeriodExecutor(30000, () -> log.warn("Not discovered any worker."));
 
     public WaitingInstanceScanner(SupervisorProperties conf,
@@ -63,6 +69,14 @@ public class WaitingInstanceScanner extends AbstractHeartbeatThread {
         this.jobQuerier = jobQuerier;
         // heartbeat period duration: 10s * 12 = 120s
         this.beforeMilliseconds = (heartbeatPeriodMs * 12);
+        this.processInstanceExecutor = ThreadPoolExecutors.builder()
+            .corePoolSize(1)
+            .maximumPoolSize(Math.max(1, conf.getMaximumProcessInstancePoolSize()))
+            .workQueue(new SynchronousQueue<>())
+            .keepAliveTimeSeconds(300)
+            .rejectedHandler(ThreadPoolExecutors.CALLER_RUNS)
+            .threadFactory(NamedThreadFactory.builder().prefix("waiting_instance_scanner").uncaughtExceptionHandler(log).build())
+            .build();
     }
 
     @Override
@@ -72,31 +86,60 @@ public class WaitingInstanceScanner extends AbstractHeartbeatThread {
             return true;
         }
 
-        Boolean result = lockTemplate.execute(this::process);
-        return result != null && result;
+        // 加锁只用于扫描并抢占(更新next_scan_time)实例，抢占成功后释放锁再并行处理(涉及RPC等耗时操作)
+        Pair<List<SchedInstance>, Boolean> result = lockTemplate.execute(this::claim);
+        if (result == null) {
+            return false;
+        }
+        process(result.getLeft());
+        return result.getRight();
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        super.close();
+        ThreadPoolExecutors.shutdown(processInstanceExecutor, 1);
     }
 
     // -------------------------------------------------------------process expire waiting sched instance
 
-    private boolean process() {
-        Date expireTime = new Date(System.currentTimeMillis() - beforeMilliseconds);
+    private Pair<List<SchedInstance>, Boolean> claim() {
+        Date now = new Date();
+        Date expireTime = new Date(now.getTime() - beforeMilliseconds);
         List<SchedInstance> instances = jobQuerier.findExpireWaitingInstance(expireTime, scanBatchSize);
         if (CollectionUtils.isEmpty(instances)) {
-            return true;
+            return Pair.of(Collections.emptyList(), true);
         }
+        List<SchedInstance> claimed = Collects.filter(instances, e -> jobManager.updateInstanceNextScanTime(e, now));
+        return Pair.of(claimed, instances.size() < scanBatchSize);
+    }
 
-        for (SchedInstance instance : instances) {
-            processEach(instance);
+    private void process(List<SchedInstance> instances) {
+        if (instances.isEmpty()) {
+            return;
         }
-        return instances.size() < scanBatchSize;
+        // 批量预加载job到缓存，并一次性查询出所有实例的task
+        jobQuerier.prefetchJobs(Collects.convert(instances, SchedInstance::getJobId));
+        List<Long> instanceIds = Collects.convert(instances, SchedInstance::getInstanceId);
+        Map<Long, List<SchedTask>> tasksMap = jobQuerier.findBaseInstanceTasks(instanceIds);
+        MultithreadExecutors.run(
+            instances,
+            e -> processEach(e, tasksMap.getOrDefault(e.getInstanceId(), Collections.emptyList())),
+            processInstanceExecutor
+        );
     }
 
-    private void processEach(SchedInstance instance) {
-        if (!jobManager.updateInstanceNextScanTime(instance, new Date())) {
-            return;
+    private void processEach(SchedInstance instance, List<SchedTask> tasks) {
+        try {
+            processEach0(instance, tasks);
+        } catch (Throwable t) {
+            log.error("Process scanned waiting instance error: " + instance.getInstanceId(), t);
+            Threads.interruptIfNecessary(t);
         }
+    }
 
-        List<SchedTask> tasks = jobQuerier.findBaseInstanceTasks(instance.getInstanceId());
+    private void processEach0(SchedInstance instance, List<SchedTask> tasks) {
         List<SchedTask> waitingTasks = Collects.filter(tasks, SchedTask::isWaiting);
         if (CollectionUtils.isNotEmpty(waitingTasks)) {
             processHasWaitingTask(instance, waitingTasks);
@@ -111,7 +154,7 @@ public class WaitingInstanceScanner extends AbstractHeartbeatThread {
         if (CollectionUtils.isEmpty(redispatchingTasks)) {
             return;
         }
-        SchedJob job = jobQuerier.getJob(instance.getJobId());
+        SchedJob job = jobQuerier.getCachedJob(instance.getJobId());
         if (job == null) {
             log.error("Scanned waiting state instance not found job: {}", instance.getJobId());
             return;
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.scanner;
+
+import cn.ponfee.disjob.common.base.SingletonClassConstraint;
+import cn.ponfee.disjob.common.concurrent.AbstractHeartbeatThread;
+import cn.ponfee.disjob.common.concurrent.PeriodExecutor;
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingSupplier;
+import cn.ponfee.disjob.common.lock.LockTemplate;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.RegistryEventType;
+import cn.ponfee.disjob.supervisor.component.JobManager;
+import cn.ponfee.disjob.supervisor.component.JobQuerier;
+import cn.ponfee.disjob.supervisor.component.WorkerClient;
+import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Failover the WAITING or EXECUTING tasks which assigned to dead worker.
+ * <p>订阅Worker的删除事件，在延迟窗口期(防止注册中心抖动)过后Worker仍未恢复，则批量重新派发该Worker的任务
+ *
+ * @author Ponfee
+ */
+public class WorkerFailoverScanner extends AbstractHeartbeatThread {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerFailoverScanner.class);
+    private static final long HEARTBEAT_PERIOD_MS = 1500;
+    private static final int FAILOVER_MAX_RETRIES = 10;
+
+    private final int scanBatchSize;
+    private final long failoverDelayMs;
+    private final LockTemplate lockTemplate;
+    private final WorkerClient workerClient;
+    private final JobManager jobManager;
+    private final JobQuerier jobQuerier;
+    private final PeriodExecutor logPrinter = new PeriodExecutor(30000, () -> log.warn("Not discovered any worker."));
+
+    /**
+     * Map<Worker, DeadWorker>
+     */
+    private final Map<Worker, DeadWorker> deadWorkers = new ConcurrentHashMap<>();
+
+    public WorkerFailoverScanner(SupervisorProperties conf,
+                                 LockTemplate lockTemplate,
+                                 WorkerClient workerClient,
+                                 JobManager jobManager,
+                                 JobQuerier jobQuerier) {
+        super(HEARTBEAT_PERIOD_MS);
+        SingletonClassConstraint.constrain(this);
+
+        this.scanBatchSize = conf.getScanBatchSize();
+        this.failoverDelayMs = conf.getWorkerFailoverDelayMs();
+        this.lockTemplate = lockTemplate;
+        this.workerClient = workerClient;
+        this.jobManager = jobManager;
+        this.jobQuerier = jobQuerier;
+    }
+
+    /**
+     * Subscribe the discovered workers changed event.
+     *
+     * @param eventType the event type
+     * @param workers   the changed workers
+     */
+    public void subscribeWorkersChanged(RegistryEventType eventType, List<Worker> workers) {
+        if (eventType.isDeregister()) {
+            long failoverTime = System.currentTimeMillis() + failoverDelayMs;
+            workers.forEach(e -> deadWorkers.putIfAbsent(e, new DeadWorker(failoverTime)));
+            log.info("Dead worker will be failover: {}", workers);
+        } else {
+            workers.forEach(deadWorkers::remove);
+        }
+    }
+
+    @Override
+    protected boolean heartbeat() {
+        if (deadWorkers.isEmpty()) {
+            return true;
+        }
+        // 可能是与注册中心断开了连接，等待恢复
+        if (workerClient.hasNotDiscoveredWorkers()) {
+            logPrinter.execute();
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Worker, DeadWorker> entry : deadWorkers.entrySet()) {
+            Worker worker = entry.getKey();
+            DeadWorker deadWorker = entry.getValue();
+            if (deadWorker.failoverTime > now) {
+                continue;
+            }
+            if (workerClient.isAliveWorker(worker)) {
+                deadWorkers.remove(worker, deadWorker);
+                continue;
+            }
+            if (workerClient.hasNotDiscoveredWorkers(worker.getGroup())) {
+                // 该分组下没有存活的worker，等待由RunningInstanceScanner处理
+                deadWorkers.remove(worker, deadWorker);
+                log.warn("Dead worker failover not discovered group worker: {}", worker);
+                continue;
+            }
+            FailoverResult result = lockTemplate.execute(() -> failover(worker));
+            if (result == null || result == FailoverResult.CONTINUE) {
+                // 获取锁失败，或本批次已全部转移(还有下一批次)，在下次心跳时继续处理
+                continue;
+            }
+            if (result == FailoverResult.FINISHED) {
+                deadWorkers.remove(worker, deadWorker);
+            } else if (++deadWorker.retries > FAILOVER_MAX_RETRIES) {
+                // 多次重试仍未能转移(如实例暂停中、task仍在原worker中执行)，交由RunningInstanceScanner兜底处理
+                deadWorkers.remove(worker, deadWorker);
+                log.warn("Dead worker failover retried max count: {}", worker);
+            } else {
+                deadWorker.failoverTime = now + failoverDelayMs;
+            }
+        }
+        return true;
+    }
+
+    private FailoverResult failover(Worker worker) {
+        List<Long> instanceIds = jobQuerier.findWorkerInstanceIds(worker.serialize(), scanBatchSize);
+        return failover(worker, instanceIds, scanBatchSize, instanceId -> jobManager.failoverInstance(instanceId, worker));
+    }
+
+    static FailoverResult failover(Worker worker, List<Long> instanceIds, int scanBatchSize, LongPredicate action) {
+        if (instanceIds.isEmpty()) {
+            return FailoverResult.FINISHED;
+        }
+        int count = 0;
+        for (Long instanceId : instanceIds) {
+            Boolean result = ThrowingSupplier.doCaught(
+                () -> action.test(instanceId), false, () -> "Failover instance error: " + instanceId
+            );
+            if (result != null && result) {
+                count++;
+            }
+        }
+        LOG.info("Dead worker failover instances: {}, {}, {}", worker, instanceIds.size(), count);
+        if (count < instanceIds.size()) {
+            // 存在未转移的实例，延迟后重试
+            return FailoverResult.RETRY;
+        }
+        return instanceIds.size() < scanBatchSize ? FailoverResult.FINISHED : FailoverResult.CONTINUE;
+    }
+
+    enum FailoverResult {
+        /**
+         * 已全部转移
+         */
+        FINISHED,
+        /**
+         * 本批次已全部转移，继续转移下一批次
+         */
+        CONTINUE,
+        /**
+         * 存在未转移的实例，延迟后重试
+         */
+        RETRY,
+    }
+
+    private static class DeadWorker {
+        private volatile long failoverTime;
+        private int retries = 0;
+
+        private DeadWorker(long failoverTime) {
+            this.failoverTime = failoverTime;
+        }
+    }
+
+}
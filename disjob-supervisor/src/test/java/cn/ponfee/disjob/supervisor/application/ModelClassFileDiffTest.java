@@ -55,7 +55,7 @@ public class ModelClassFileDiffTest {
         assertSame(ClassUtils.fieldDiff(SchedJob.class, SchedJobResponse.class), "id", "nextScanTime", "scanFailedCount");
 
         // SchedInstance ⇋ SchedInstanceResponse
-        assertSame(ClassUtils.fieldDiff(SchedInstance.class, SchedInstanceResponse.class), "version", "uniqueFlag", "createdAt", "runDuration", "id", "updatedAt", "isTreeLeaf", "tasks", "nextScanTime");
+        assertSame(ClassUtils.fieldDiff(SchedInstance.class, SchedInstanceResponse.class), "version", "uniqueFlag", "createdAt", "runDuration", "id", "updatedAt", "isTreeLeaf", "tasks", "nextScanTime", "taskCount", "terminatedTaskCount", "pausedTaskCount");
 
         // SchedTask ⇋ SchedTaskResponse
         assertSame(ClassUtils.fieldDiff(SchedTask.class, SchedTaskResponse.class), "createdAt", "id", "executeDuration", "updatedAt", "dispatchFailedCount");
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.supervisor.application.SchedGroupService;
+import cn.ponfee.disjob.supervisor.application.value.DisjobGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * GroupQuotaManager test
+ *
+ * @author Ponfee
+ */
+public class GroupQuotaManagerTest {
+
+    private static final String GROUP = "g";
+
+    private JobQuerier jobQuerier;
+    private DisjobGroup quota;
+    private MockedStatic<SchedGroupService> mockedStatic;
+    private GroupQuotaManager groupQuotaManager;
+
+    @BeforeEach
+    public void setup() {
+        jobQuerier = mock(JobQuerier.class);
+        quota = mock(DisjobGroup.class);
+        mockedStatic = mockStatic(SchedGroupService.class);
+        mockedStatic.when(() -> SchedGroupService.getGroup(GROUP)).thenReturn(quota);
+        groupQuotaManager = new GroupQuotaManager(jobQuerier);
+    }
+
+    @AfterEach
+    public void teardown() {
+        mockedStatic.close();
+    }
+
+    @Test
+    public void testUnlimited() {
+        Assertions.assertEquals(100, groupQuotaManager.tryAcquire(GROUP, 100));
+        verify(jobQuerier, never()).countInflightTasks(GROUP);
+    }
+
+    @Test
+    public void testMaxExecutingTasks() {
+        when(quota.getMaxExecutingTasks()).thenReturn(5);
+        when(jobQuerier.countInflightTasks(GROUP)).thenReturn(2);
+
+        Assertions.assertEquals(3, groupQuotaManager.tryAcquire(GROUP, 10));
+        // 两次刷新之间累加本地已获得的数量
+        Assertions.assertEquals(0, groupQuotaManager.tryAcquire(GROUP, 1));
+        verify(jobQuerier, times(1)).countInflightTasks(GROUP);
+    }
+
+    @Test
+    public void testReleaseRateLimited() {
+        when(quota.getMaxExecutingTasks()).thenReturn(10);
+        when(quota.getMaxDispatchRate()).thenReturn(1);
+        when(jobQuerier.countInflightTasks(GROUP)).thenReturn(2);
+
+        // 速率限制只获得1个，其余的并发配额需要释放
+        Assertions.assertEquals(1, groupQuotaManager.tryAcquire(GROUP, 5));
+        Assertions.assertEquals(0, groupQuotaManager.tryAcquire(GROUP, 5));
+
+        when(quota.getMaxDispatchRate()).thenReturn(0);
+        Assertions.assertEquals(7, groupQuotaManager.tryAcquire(GROUP, 10));
+        verify(jobQuerier, times(1)).countInflightTasks(GROUP);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.common.base.IdGenerator;
+import cn.ponfee.disjob.core.base.Supervisor;
+import cn.ponfee.disjob.core.enums.JobType;
+import cn.ponfee.disjob.core.enums.RouteStrategy;
+import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
+import cn.ponfee.disjob.supervisor.dao.mapper.*;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import cn.ponfee.disjob.supervisor.model.SchedTask;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JobManager backfill job test
+ *
+ * @author Ponfee
+ */
+public class JobManagerBackfillTest {
+
+    private final SchedJobMapper jobMapper = mock(SchedJobMapper.class);
+    private final SchedInstanceMapper instanceMapper = mock(SchedInstanceMapper.class);
+    private final SchedTaskMapper taskMapper = mock(SchedTaskMapper.class);
+    private final WorkerClient workerClient = mock(WorkerClient.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final AtomicInteger splitCount = new AtomicInteger();
+    private final JobManager jobManager = new JobManager(
+        new SupervisorProperties(), mock(IdGenerator.class), jobMapper, mock(JobMetadataCache.class),
+        mock(SchedDependMapper.class), instanceMapper, mock(SchedWorkflowMapper.class),
+        taskMapper, workerClient, transactionTemplate
+    );
+
+    @Test
+    public void testSplitOutsideTransaction() throws Exception {
+        List<Long> triggerTimes = Arrays.asList(1000L, 2000L, 3000L);
+        when(jobMapper.updateNextTriggerTime(any())).thenReturn(1);
+        when(transactionTemplate.execute(any())).thenAnswer(e -> {
+            // 进入事务前已全部拆分完成，事务内不再有RPC调用
+            Assertions.assertEquals(triggerTimes.size(), splitCount.get());
+            return e.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+
+        List<List<Runnable>> dispatched = backfill(triggerTimes);
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(workerClient, times(triggerTimes.size())).splitJob(anyString(), anyLong(), any(), any(), anyInt());
+        verify(instanceMapper, times(1)).batchInsert(argThat(list -> list.size() == triggerTimes.size()));
+        verify(taskMapper, times(1)).batchInsert(argThat(list -> list.size() == triggerTimes.size()));
+        Assertions.assertEquals(1, dispatched.size());
+        Assertions.assertEquals(triggerTimes.size(), dispatched.get(0).size());
+    }
+
+    @Test
+    public void testUpdateNextTriggerTimeFailed() throws Exception {
+        when(jobMapper.updateNextTriggerTime(any())).thenReturn(0);
+        when(transactionTemplate.execute(any())).thenAnswer(e -> e.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        List<List<Runnable>> dispatched = backfill(Arrays.asList(1000L, 2000L));
+        verify(instanceMapper, never()).batchInsert(any());
+        verify(taskMapper, never()).batchInsert(any());
+        Assertions.assertTrue(dispatched.isEmpty());
+    }
+
+    private List<List<Runnable>> backfill(List<Long> triggerTimes) throws Exception {
+        when(workerClient.splitJob(anyString(), anyLong(), any(), any(), anyInt())).thenAnswer(e -> {
+            splitCount.incrementAndGet();
+            return Collections.singletonList(new SchedTask());
+        });
+        SchedJob job = new SchedJob();
+        job.setJobId(1L);
+        job.setGroup("g");
+        job.setJobType(JobType.GENERAL.value());
+        job.setRouteStrategy(RouteStrategy.ROUND_ROBIN.value());
+        job.setRetryCount(0);
+        job.setJobExecutor("test");
+
+        List<List<Runnable>> dispatched = new ArrayList<>();
+        Supervisor.Local local = mock(Supervisor.Local.class);
+        try (MockedStatic<Supervisor> mockedStatic = mockStatic(Supervisor.class)) {
+            mockedStatic.when(Supervisor::local).thenReturn(local);
+            jobManager.scheduleBackfillJob(job, triggerTimes, dispatched::add);
+        }
+        return dispatched;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.common.base.IdGenerator;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.*;
+import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
+import cn.ponfee.disjob.supervisor.dao.mapper.*;
+import cn.ponfee.disjob.supervisor.model.SchedInstance;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import cn.ponfee.disjob.supervisor.model.SchedTask;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JobManager failover dead worker test
+ *
+ * @author Ponfee
+ */
+public class JobManagerFailoverTest {
+
+    private static final long JOB_ID = 1L;
+    private static final long INSTANCE_ID = 2L;
+
+    private final Worker deadWorker = new Worker("g", "dead", "127.0.0.1", 80);
+
+    private SchedTaskMapper taskMapper;
+    private WorkerClient workerClient;
+    private JobManager jobManager;
+
+    @BeforeEach
+    public void setup() {
+        JobMetadataCache jobCache = mock(JobMetadataCache.class);
+        SchedInstanceMapper instanceMapper = mock(SchedInstanceMapper.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        taskMapper = mock(SchedTaskMapper.class);
+        workerClient = mock(WorkerClient.class);
+        jobManager = new JobManager(
+            new SupervisorProperties(), mock(IdGenerator.class), mock(SchedJobMapper.class), jobCache,
+            mock(SchedDependMapper.class), instanceMapper, mock(SchedWorkflowMapper.class), taskMapper,
+            workerClient, transactionTemplate
+        );
+
+        when(transactionTemplate.execute(any())).thenAnswer(e -> e.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(instanceMapper.getWnstanceId(INSTANCE_ID)).thenReturn(null);
+        when(instanceMapper.lock(INSTANCE_ID)).thenReturn(createInstance());
+        when(jobCache.get(JOB_ID)).thenReturn(createJob());
+        when(taskMapper.findLargeByInstanceIdAndStates(eq(INSTANCE_ID), anyList())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testNotFailoverStillRunningTasks() {
+        List<SchedTask> tasks = Arrays.asList(createTask(1, ExecuteState.EXECUTING), createTask(2, ExecuteState.EXECUTING), createTask(3, ExecuteState.WAITING));
+        when(taskMapper.findBaseByInstanceIdAndStates(eq(INSTANCE_ID), any())).thenReturn(tasks);
+        // worker只是与注册中心网络分区，task-1仍在执行
+        when(workerClient.existsTask(deadWorker, 1L)).thenReturn(true);
+        when(taskMapper.terminate(2L, deadWorker.serialize(), ExecuteState.WAITING, ExecuteState.EXECUTING, null, null)).thenReturn(true);
+
+        Assertions.assertTrue(jobManager.failoverInstance(INSTANCE_ID, deadWorker));
+
+        verify(taskMapper, never()).terminate(eq(1L), anyString(), any(ExecuteState.class), any(ExecuteState.class), any(), any());
+        verify(taskMapper).batchUpdateWorker(null, deadWorker.serialize(), Arrays.asList(2L, 3L));
+    }
+
+    @Test
+    public void testNothingFailover() {
+        List<SchedTask> tasks = Arrays.asList(createTask(1, ExecuteState.EXECUTING), createTask(2, ExecuteState.EXECUTING));
+        when(taskMapper.findBaseByInstanceIdAndStates(eq(INSTANCE_ID), any())).thenReturn(tasks);
+
+        // 所有task仍在原worker中执行
+        when(workerClient.existsTask(eq(deadWorker), anyLong())).thenReturn(true);
+        Assertions.assertFalse(jobManager.failoverInstance(INSTANCE_ID, deadWorker));
+
+        // task已被其它worker变更(CAS失败)
+        when(workerClient.existsTask(eq(deadWorker), anyLong())).thenReturn(false);
+        Assertions.assertFalse(jobManager.failoverInstance(INSTANCE_ID, deadWorker));
+
+        verify(taskMapper, never()).batchUpdateWorker(any(), any(), anyList());
+        verify(workerClient, never()).dispatch(anyString(), anyList());
+    }
+
+    private SchedTask createTask(long taskId, ExecuteState state) {
+        SchedTask task = new SchedTask();
+        task.setTaskId(taskId);
+        task.setInstanceId(INSTANCE_ID);
+        task.setExecuteState(state.value());
+        task.setWorker(deadWorker.serialize());
+        return task;
+    }
+
+    private static SchedJob createJob() {
+        SchedJob job = new SchedJob();
+        job.setJobId(JOB_ID);
+        job.setGroup("g");
+        job.setJobType(JobType.GENERAL.value());
+        job.setRouteStrategy(RouteStrategy.RANDOM.value());
+        return job;
+    }
+
+    private static SchedInstance createInstance() {
+        SchedInstance instance = new SchedInstance();
+        instance.setJobId(JOB_ID);
+        instance.setInstanceId(INSTANCE_ID);
+        instance.setTriggerTime(System.currentTimeMillis());
+        instance.setRunType(RunType.SCHEDULE.value());
+        instance.setRunState(RunState.RUNNING.value());
+        instance.setRetriedCount(0);
+        return instance;
+    }
+
+}
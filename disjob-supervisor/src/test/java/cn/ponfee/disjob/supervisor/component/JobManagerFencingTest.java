@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.common.base.IdGenerator;
+import cn.ponfee.disjob.common.lock.LeaseLockTemplate;
+import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
+import cn.ponfee.disjob.supervisor.dao.mapper.*;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * JobManager lease fencing test
+ *
+ * @author Ponfee
+ */
+public class JobManagerFencingTest {
+
+    @Test
+    public void testFencingRejection() throws Exception {
+        SchedJobMapper jobMapper = mock(SchedJobMapper.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(e -> e.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jobMapper.updateNextTriggerTime(any())).thenReturn(1);
+        JobManager jobManager = new JobManager(
+            new SupervisorProperties(), mock(IdGenerator.class), jobMapper, mock(JobMetadataCache.class),
+            mock(SchedDependMapper.class), mock(SchedInstanceMapper.class), mock(SchedWorkflowMapper.class),
+            mock(SchedTaskMapper.class), mock(WorkerClient.class), transactionTemplate
+        );
+        SchedJob job = new SchedJob();
+        job.setJobId(1L);
+
+        // 不在租约锁内时不校验
+        Assertions.assertTrue(jobManager.updateJobNextTriggerTime(job));
+
+        try (StubLeaseLockTemplate lockTemplate = new StubLeaseLockTemplate()) {
+            Assertions.assertEquals(Boolean.TRUE, lockTemplate.execute(() -> jobManager.updateJobNextTriggerTime(job)));
+            verify(jobMapper, times(2)).updateNextTriggerTime(job);
+
+            // 租约已被其它supervisor抢占
+            lockTemplate.stale.set(true);
+            Assertions.assertNull(lockTemplate.execute(() -> jobManager.updateJobNextTriggerTime(job)));
+            Assertions.assertNull(lockTemplate.execute(() -> {
+                jobManager.updateJobNextScanTime(job);
+                return true;
+            }));
+            verify(jobMapper, times(2)).updateNextTriggerTime(job);
+            verify(jobMapper, never()).updateNextScanTime(job);
+        }
+    }
+
+    private static class StubLeaseLockTemplate extends LeaseLockTemplate {
+        private final AtomicBoolean stale = new AtomicBoolean(false);
+
+        private StubLeaseLockTemplate() {
+            super("test", 3000);
+        }
+
+        @Override
+        protected Long tryAcquire0() {
+            return 1L;
+        }
+
+        @Override
+        protected boolean renew0(long token) {
+            return true;
+        }
+
+        @Override
+        protected void release0(long token) {
+            // noop
+        }
+
+        @Override
+        protected boolean verifyFencing0(long token) {
+            return !stale.get();
+        }
+    }
+
+}
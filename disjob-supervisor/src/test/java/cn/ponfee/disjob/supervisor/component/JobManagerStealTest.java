@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.common.base.IdGenerator;
+import cn.ponfee.disjob.core.base.Supervisor;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.*;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import cn.ponfee.disjob.supervisor.configuration.SupervisorProperties;
+import cn.ponfee.disjob.supervisor.dao.mapper.*;
+import cn.ponfee.disjob.supervisor.model.SchedInstance;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import cn.ponfee.disjob.supervisor.model.SchedTask;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JobManager steal tasks test
+ *
+ * @author Ponfee
+ */
+public class JobManagerStealTest {
+
+    private static final long JOB_ID = 1L;
+    private static final long INSTANCE_ID = 2L;
+
+    private final Worker thief = new Worker("g", "thief", "127.0.0.1", 80);
+    private final Worker victim1 = new Worker("g", "victim1", "127.0.0.2", 80);
+    private final Worker victim2 = new Worker("g", "victim2", "127.0.0.3", 80);
+
+    private JobMetadataCache jobCache;
+    private SchedInstanceMapper instanceMapper;
+    private SchedTaskMapper taskMapper;
+    private WorkerClient workerClient;
+    private JobManager jobManager;
+
+    @BeforeEach
+    public void setup() {
+        jobCache = mock(JobMetadataCache.class);
+        instanceMapper = mock(SchedInstanceMapper.class);
+        taskMapper = mock(SchedTaskMapper.class);
+        workerClient = mock(WorkerClient.class);
+        jobManager = new JobManager(
+            new SupervisorProperties(), mock(IdGenerator.class), mock(SchedJobMapper.class), jobCache,
+            mock(SchedDependMapper.class), instanceMapper, mock(SchedWorkflowMapper.class), taskMapper,
+            workerClient, mock(TransactionTemplate.class)
+        );
+
+        when(workerClient.isAliveWorker(thief)).thenReturn(true);
+        when(workerClient.getDiscoveredWorkers("g")).thenReturn(Arrays.asList(thief, victim1, victim2));
+        when(instanceMapper.get(INSTANCE_ID)).thenReturn(createInstance());
+    }
+
+    @Test
+    public void testStealFromMostBackloggedWorker() {
+        List<SchedTask> waitingTasks = new ArrayList<>();
+        for (long i = 10; i > 0; i--) {
+            waitingTasks.add(createTask(i, victim1));
+        }
+        waitingTasks.add(createTask(11, victim2));
+        waitingTasks.add(createTask(12, victim2));
+        when(taskMapper.findWaitingByWorkers(eq(Arrays.asList(victim1.serialize(), victim2.serialize())), anyInt())).thenReturn(waitingTasks);
+        when(jobCache.get(JOB_ID)).thenReturn(createJob(RouteStrategy.ROUND_ROBIN));
+        when(taskMapper.batchUpdateWorker(eq(thief.serialize()), eq(victim1.serialize()), anyList())).thenAnswer(e -> e.<List<Long>>getArgument(2).size());
+
+        Supervisor.Local local = mock(Supervisor.Local.class);
+        try (MockedStatic<Supervisor> mockedStatic = mockStatic(Supervisor.class)) {
+            mockedStatic.when(Supervisor::local).thenReturn(local);
+            // 只窃取积压最多的worker(victim1)中的一半，且数量不超过请求的数量
+            Assertions.assertEquals(3, jobManager.stealTasks(thief, 3));
+            Assertions.assertEquals(5, jobManager.stealTasks(thief, 100));
+        }
+
+        verify(taskMapper, times(2)).findWaitingByWorkers(anyList(), anyInt());
+        verify(taskMapper).batchUpdateWorker(thief.serialize(), victim1.serialize(), Arrays.asList(8L, 9L, 10L));
+        verify(taskMapper).batchUpdateWorker(thief.serialize(), victim1.serialize(), Arrays.asList(6L, 7L, 8L, 9L, 10L));
+        verify(taskMapper, never()).batchUpdateWorker(anyString(), eq(victim2.serialize()), anyList());
+
+        verify(workerClient, times(2)).dispatch(eq("g"), argThat((List<ExecuteTaskParam> list) -> list.stream().allMatch(e -> thief.equals(e.getWorker()))));
+    }
+
+    @Test
+    public void testStealSkipped() {
+        List<SchedTask> waitingTasks = Arrays.asList(createTask(2, victim1), createTask(1, victim1));
+        when(taskMapper.findWaitingByWorkers(anyList(), anyInt())).thenReturn(waitingTasks);
+
+        // job已被删除
+        when(jobCache.get(JOB_ID)).thenReturn(null);
+        Assertions.assertEquals(0, jobManager.stealTasks(thief, 10));
+
+        // 广播任务不可被窃取
+        when(jobCache.get(JOB_ID)).thenReturn(createJob(RouteStrategy.BROADCAST));
+        Assertions.assertEquals(0, jobManager.stealTasks(thief, 10));
+
+        // 被窃取的task已被原worker启动
+        when(jobCache.get(JOB_ID)).thenReturn(createJob(RouteStrategy.ROUND_ROBIN));
+        when(taskMapper.batchUpdateWorker(anyString(), anyString(), anyList())).thenReturn(0);
+        Assertions.assertEquals(0, jobManager.stealTasks(thief, 10));
+
+        // 只有一个积压的task，不窃取
+        when(taskMapper.findWaitingByWorkers(anyList(), anyInt())).thenReturn(Arrays.asList(createTask(1, victim1)));
+        Assertions.assertEquals(0, jobManager.stealTasks(thief, 10));
+
+        verify(taskMapper, times(1)).batchUpdateWorker(anyString(), anyString(), anyList());
+        verify(workerClient, never()).dispatch(anyString(), anyList());
+    }
+
+    @Test
+    public void testUpdateTaskWorkerTakeOverDeadWorker() {
+        // worker重启后worker id变化，原worker(victim1)已下线，victim2仍存活
+        Worker restarted = new Worker("g", "restarted", "127.0.0.2", 80);
+        when(workerClient.isAliveWorker(victim1)).thenReturn(false);
+        when(workerClient.isAliveWorker(victim2)).thenReturn(true);
+        List<Long> taskIds = Arrays.asList(1L, 2L, 3L, 4L);
+        when(taskMapper.batchUpdateWorker(restarted.serialize(), restarted.serialize(), taskIds)).thenReturn(1);
+        when(taskMapper.findBaseByTaskIds(taskIds)).thenReturn(Arrays.asList(
+            createTask(1, restarted), createTask(2, victim1), createTask(3, victim2), createTask(4, victim1)
+        ));
+
+        jobManager.updateTaskWorker(restarted.serialize(), Arrays.asList(4L, 3L, 2L, 1L));
+
+        verify(taskMapper).batchUpdateWorker(restarted.serialize(), victim1.serialize(), Arrays.asList(2L, 4L));
+        verify(taskMapper, never()).batchUpdateWorker(anyString(), eq(victim2.serialize()), anyList());
+    }
+
+    private static SchedTask createTask(long taskId, Worker worker) {
+        SchedTask task = new SchedTask();
+        task.setTaskId(taskId);
+        task.setInstanceId(INSTANCE_ID);
+        task.setExecuteState(ExecuteState.WAITING.value());
+        task.setWorker(worker.serialize());
+        return task;
+    }
+
+    private static SchedJob createJob(RouteStrategy routeStrategy) {
+        SchedJob job = new SchedJob();
+        job.setJobId(JOB_ID);
+        job.setGroup("g");
+        job.setJobType(JobType.GENERAL.value());
+        job.setRouteStrategy(routeStrategy.value());
+        job.setShutdownStrategy(ShutdownStrategy.RESUME.value());
+        job.setPriority(JobPriority.NORMAL.value());
+        job.setRetryCount(0);
+        job.setExecuteTimeout(0);
+        job.setJobExecutor("test");
+        return job;
+    }
+
+    private static SchedInstance createInstance() {
+        SchedInstance instance = new SchedInstance();
+        instance.setJobId(JOB_ID);
+        instance.setInstanceId(INSTANCE_ID);
+        instance.setTriggerTime(System.currentTimeMillis());
+        instance.setRunType(RunType.SCHEDULE.value());
+        instance.setRunState(RunState.RUNNING.value());
+        instance.setRetriedCount(0);
+        return instance;
+    }
+
+}
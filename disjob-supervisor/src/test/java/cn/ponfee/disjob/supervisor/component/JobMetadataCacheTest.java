@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.component;
+
+import cn.ponfee.disjob.supervisor.dao.mapper.SchedJobMapper;
+import cn.ponfee.disjob.supervisor.model.SchedJob;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * JobMetadataCache test
+ *
+ * @author Ponfee
+ */
+public class JobMetadataCacheTest {
+
+    @Test
+    public void testDefensiveCopy() {
+        SchedJobMapper jobMapper = mock(SchedJobMapper.class);
+        SchedJob loaded = createJob(1000L, 1);
+        when(jobMapper.get(1L)).thenReturn(loaded);
+        JobMetadataCache jobCache = new JobMetadataCache(jobMapper);
+
+        SchedJob job = jobCache.get(1L);
+        Assertions.assertSame(loaded, job);
+
+        // 调用方修改获取到的job，不影响缓存
+        job.setNextTriggerTime(2000L);
+        SchedJob cached = jobCache.get(1L);
+        Assertions.assertNotSame(job, cached);
+        Assertions.assertEquals(1000L, cached.getNextTriggerTime());
+
+        cached.setNextTriggerTime(3000L);
+        Assertions.assertEquals(1000L, jobCache.get(1L).getNextTriggerTime());
+
+        // put后修改原对象，不影响缓存
+        SchedJob newer = createJob(4000L, 2);
+        jobCache.put(newer);
+        newer.setNextTriggerTime(5000L);
+        Assertions.assertEquals(4000L, jobCache.get(1L).getNextTriggerTime());
+
+        // 较旧的版本不覆盖缓存
+        jobCache.put(createJob(6000L, 1));
+        Assertions.assertEquals(4000L, jobCache.get(1L).getNextTriggerTime());
+        verify(jobMapper, times(1)).get(1L);
+    }
+
+    private static SchedJob createJob(long nextTriggerTime, int version) {
+        SchedJob job = new SchedJob();
+        job.setJobId(1L);
+        job.setNextTriggerTime(nextTriggerTime);
+        job.setVersion(version);
+        return job;
+    }
+
+}
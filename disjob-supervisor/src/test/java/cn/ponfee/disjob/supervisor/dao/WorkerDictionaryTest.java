@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.dao;
+
+import cn.ponfee.disjob.supervisor.dao.mapper.SchedWorkerMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * WorkerDictionary test
+ *
+ * @author Ponfee
+ */
+public class WorkerDictionaryTest {
+
+    private static final String WORKER = "app-test:1a2b3c:127.0.0.1:10001";
+
+    @Test
+    public void testRegisterAndCache() {
+        SchedWorkerMapper mapper = mock(SchedWorkerMapper.class);
+        PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+        when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(mapper.getId(WORKER)).thenReturn(null, 7L);
+
+        WorkerDictionary dictionary = new WorkerDictionary(mapper, txManager);
+        Assertions.assertEquals(7L, dictionary.register(WORKER));
+        Assertions.assertEquals(7L, dictionary.register(WORKER));
+        Assertions.assertEquals(7L, dictionary.findId(WORKER));
+        Assertions.assertEquals(WORKER, dictionary.getWorker(7L));
+
+        verify(mapper, times(1)).insertIgnore("app-test", WORKER);
+        verify(mapper, times(2)).getId(WORKER);
+        verify(mapper, never()).getWorker(anyLong());
+        verify(txManager, times(1)).commit(any());
+    }
+
+    @Test
+    public void testTypeHandler() throws Exception {
+        SchedWorkerMapper mapper = mock(SchedWorkerMapper.class);
+        when(mapper.getWorker(9L)).thenReturn(WORKER);
+        WorkerDictionary dictionary = new WorkerDictionary(mapper, mock(PlatformTransactionManager.class));
+        WorkerIdTypeHandler typeHandler = new WorkerIdTypeHandler();
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("worker_id")).thenReturn(9L);
+        when(rs.wasNull()).thenReturn(false);
+        Assertions.assertEquals(WORKER, typeHandler.getResult(rs, "worker_id"));
+
+        // 反向查找后已缓存worker->id，不再访问数据库
+        PreparedStatement ps = mock(PreparedStatement.class);
+        typeHandler.setParameter(ps, 1, WORKER, null);
+        verify(ps).setLong(1, 9L);
+        Assertions.assertEquals(9L, dictionary.findId(WORKER));
+        verify(mapper, never()).getId(any());
+
+        when(rs.getLong("worker_id")).thenReturn(0L);
+        when(rs.wasNull()).thenReturn(true);
+        Assertions.assertNull(typeHandler.getResult(rs, "worker_id"));
+    }
+
+    @Test
+    public void testFindUnknownWorker() throws Exception {
+        SchedWorkerMapper mapper = mock(SchedWorkerMapper.class);
+        PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+        when(mapper.getId(WORKER)).thenReturn(null);
+        new WorkerDictionary(mapper, txManager);
+        WorkerIdTypeHandler typeHandler = new WorkerIdTypeHandler();
+
+        // 查询参数中未注册的worker映射为不存在的id，不写入字典
+        PreparedStatement ps = mock(PreparedStatement.class);
+        typeHandler.setParameter(ps, 1, WORKER, null);
+        verify(ps).setLong(1, WorkerDictionary.UNKNOWN_WORKER_ID);
+        verify(mapper, never()).insertIgnore(any(), any());
+        verify(txManager, never()).getTransaction(any());
+
+        // 未注册的worker不缓存，注册后可查到
+        when(mapper.getId(WORKER)).thenReturn(5L);
+        typeHandler.setParameter(ps, 2, WORKER, null);
+        verify(ps).setLong(2, 5L);
+    }
+
+}
@@ -18,6 +18,7 @@ package cn.ponfee.disjob.supervisor.model;
 
 import cn.ponfee.disjob.common.util.Jsons;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.core.enums.JobType;
 import cn.ponfee.disjob.core.enums.Operation;
 import cn.ponfee.disjob.core.enums.RouteStrategy;
@@ -27,6 +28,8 @@ import cn.ponfee.disjob.supervisor.util.CommonTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 /**
  * @author Ponfee
  */
@@ -35,13 +38,13 @@ public class ExecuteParamTest {
     @Test
     public void test1() {
         ExecuteTaskParam param = CommonTest.createExecuteTaskParam(Operation.TRIGGER, 1, 2, 1L, 3, 5, JobType.GENERAL, RouteStrategy.ROUND_ROBIN, ShutdownStrategy.RESUME, 5, "jobExecutor", new Worker("default", "workerId", "host", 1));
-        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":3,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"default:workerId:host:1\"}", Jsons.toJson(param));
+        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":3,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"priority\":\"NORMAL\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"default:workerId:host:1\"}", Jsons.toJson(param));
 
         Worker worker = new Worker("g", "i", "h", 8081);
         param.setWorker(worker);
         String json = param.toString();
         System.out.println(json);
-        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":3,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"g:i:h:8081\"}", json);
+        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":3,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"priority\":\"NORMAL\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"g:i:h:8081\"}", json);
     }
 
     @Test
@@ -51,8 +54,29 @@ public class ExecuteParamTest {
         param.setWorker(worker);
         String json = param.toString();
         System.out.println(json);
-        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":4,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"g:i:h:8081\"}", json);
+        Assertions.assertEquals("{\"supervisorAuthenticationToken\":\"supervisor token\",\"operation\":\"TRIGGER\",\"taskId\":1,\"instanceId\":2,\"wnstanceId\":1,\"triggerTime\":4,\"jobId\":5,\"retryCount\":0,\"retriedCount\":0,\"jobType\":\"GENERAL\",\"routeStrategy\":\"ROUND_ROBIN\",\"shutdownStrategy\":\"RESUME\",\"priority\":\"NORMAL\",\"executeTimeout\":5,\"jobExecutor\":\"jobExecutor\",\"worker\":\"g:i:h:8081\"}", json);
         Assertions.assertEquals(json, Jsons.fromJson(json, ExecuteTaskParam.class).toString());
     }
 
+    @Test
+    public void testPriorityCompatible() {
+        ExecuteTaskParam param = CommonTest.createExecuteTaskParam(Operation.TRIGGER, 1, 2, 1L, 4, 5, JobType.GENERAL, RouteStrategy.ROUND_ROBIN, ShutdownStrategy.RESUME, 5, "jobExecutor", new Worker("g", "i", "h", 8081));
+        param.setPriority(JobPriority.HIGH);
+        byte[] bytes = param.serialize();
+        Assertions.assertEquals(JobPriority.HIGH, ExecuteTaskParam.deserialize(bytes).getPriority());
+
+        // 旧格式：没有版本号及优先级的前两个字节
+        ExecuteTaskParam legacy = ExecuteTaskParam.deserialize(Arrays.copyOfRange(bytes, 2, bytes.length));
+        Assertions.assertEquals(JobPriority.NORMAL, legacy.getPriority());
+        Assertions.assertEquals(param.getTaskId(), legacy.getTaskId());
+        Assertions.assertEquals(param.getJobExecutor(), legacy.getJobExecutor());
+
+        // 旧版本Supervisor的json中没有priority字段
+        String json = param.toString().replace(",\"priority\":\"HIGH\"", "");
+        ExecuteTaskParam fromJson = Jsons.fromJson(json, ExecuteTaskParam.class);
+        Assertions.assertEquals(JobPriority.NORMAL, fromJson.getPriority());
+        fromJson.setPriority(null);
+        Assertions.assertEquals(JobPriority.NORMAL, ExecuteTaskParam.deserialize(fromJson.serialize()).getPriority());
+    }
+
 }
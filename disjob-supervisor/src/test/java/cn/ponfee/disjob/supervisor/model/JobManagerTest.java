@@ -24,6 +24,7 @@ import cn.ponfee.disjob.supervisor.SpringBootTestBase;
 import cn.ponfee.disjob.supervisor.component.JobManager;
 import cn.ponfee.disjob.supervisor.dao.mapper.SchedJobMapper;
 import cn.ponfee.disjob.supervisor.dao.mapper.SchedTaskMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import javax.annotation.Resource;
@@ -89,6 +90,85 @@ public class JobManagerTest extends SpringBootTestBase<SchedJobMapper> {
         }
     }
 
+    @Test
+    public void testStartTaskWorkerCondition() {
+        long instanceId = idGenerator.generateId();
+        List<SchedTask> tasks = createTasks(3, instanceId);
+        tasks.forEach(e -> e.setTaskId(idGenerator.generateId()));
+        taskMapper.batchInsert(tasks);
+        long taskId1 = tasks.get(0).getTaskId(), taskId2 = tasks.get(1).getTaskId(), taskId3 = tasks.get(2).getTaskId();
+        String worker1 = new Worker("g", UuidUtils.uuid32(), "127.0.0.1", 80).serialize();
+        String worker2 = new Worker("g", UuidUtils.uuid32(), "127.0.0.2", 80).serialize();
+
+        jobManager.updateTaskWorker(worker1, Arrays.asList(taskId2, taskId3));
+
+        // worker为null的task可被任意worker启动
+        Assertions.assertEquals(1, taskMapper.start(taskId1, worker2, UuidUtils.uuid32(), new Date()));
+        // 已绑定了其它worker的task不可被启动
+        Assertions.assertEquals(0, taskMapper.start(taskId2, worker2, UuidUtils.uuid32(), new Date()));
+        // 绑定了当前worker的task可被启动
+        Assertions.assertEquals(1, taskMapper.start(taskId2, worker1, UuidUtils.uuid32(), new Date()));
+        Assertions.assertEquals(worker1, taskMapper.get(taskId2).getWorker());
+
+        // 重置worker时需要匹配当前的worker
+        jobManager.resetTaskWorker(worker2, Collections.singletonList(taskId3));
+        Assertions.assertEquals(worker1, taskMapper.get(taskId3).getWorker());
+        jobManager.resetTaskWorker(worker1, Collections.singletonList(taskId3));
+        Assertions.assertNull(taskMapper.get(taskId3).getWorker());
+    }
+
+    @Test
+    public void testUpdateTaskWorkerAfterStolen() {
+        long instanceId = idGenerator.generateId();
+        List<SchedTask> tasks = createTasks(4, instanceId);
+        tasks.forEach(e -> e.setTaskId(idGenerator.generateId()));
+        taskMapper.batchInsert(tasks);
+        List<Long> taskIds = tasks.stream().map(SchedTask::getTaskId).sorted().collect(Collectors.toList());
+        String victim = new Worker("g", UuidUtils.uuid32(), "127.0.0.1", 80).serialize();
+        String thief = new Worker("g", UuidUtils.uuid32(), "127.0.0.2", 80).serialize();
+
+        jobManager.updateTaskWorker(victim, taskIds);
+        List<SchedTask> waitingTasks = taskMapper.findWaitingByWorkers(Arrays.asList(victim, thief), 3);
+        Assertions.assertEquals(3, waitingTasks.size());
+        Assertions.assertEquals(taskIds.subList(1, 4), waitingTasks.stream().map(SchedTask::getTaskId).sorted().collect(Collectors.toList()));
+
+        // 窃取后，原worker的rotator再更新worker(CAS)不能覆盖窃取者
+        List<Long> stolenTaskIds = taskIds.subList(2, 4);
+        Assertions.assertEquals(2, taskMapper.batchUpdateWorker(thief, victim, stolenTaskIds));
+        jobManager.updateTaskWorker(victim, taskIds);
+        for (Long taskId : stolenTaskIds) {
+            Assertions.assertEquals(thief, taskMapper.get(taskId).getWorker());
+            Assertions.assertEquals(0, taskMapper.start(taskId, victim, UuidUtils.uuid32(), new Date()));
+            Assertions.assertEquals(1, taskMapper.start(taskId, thief, UuidUtils.uuid32(), new Date()));
+        }
+
+        // 已启动的task不可再被窃取
+        Assertions.assertEquals(0, taskMapper.batchUpdateWorker(victim, thief, stolenTaskIds));
+        Assertions.assertEquals(Collections.singletonList(taskIds.get(1)), taskMapper.findWaitingByWorkers(Collections.singletonList(victim), 1)
+            .stream().map(SchedTask::getTaskId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testReplayLedgerAfterWorkerRestart() {
+        long instanceId = idGenerator.generateId();
+        List<SchedTask> tasks = createTasks(2, instanceId);
+        tasks.forEach(e -> e.setTaskId(idGenerator.generateId()));
+        taskMapper.batchInsert(tasks);
+        List<Long> taskIds = tasks.stream().map(SchedTask::getTaskId).sorted().collect(Collectors.toList());
+
+        // 重启前的worker已接收task(已记录到账本)，重启后的worker id变化(原worker未注册，即已下线)
+        String oldWorker = new Worker("g", UuidUtils.uuid32(), "127.0.0.1", 80).serialize();
+        String newWorker = new Worker("g", UuidUtils.uuid32(), "127.0.0.1", 80).serialize();
+        jobManager.updateTaskWorker(oldWorker, taskIds);
+
+        // 回放账本：新的worker接管原worker的task，并可以启动
+        jobManager.updateTaskWorker(newWorker, taskIds);
+        for (Long taskId : taskIds) {
+            Assertions.assertEquals(newWorker, taskMapper.get(taskId).getWorker());
+            Assertions.assertEquals(1, taskMapper.start(taskId, newWorker, UuidUtils.uuid32(), new Date()));
+        }
+    }
+
     private List<SchedTask> createTasks(int count, long instanceId) {
         List<SchedTask> tasks = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
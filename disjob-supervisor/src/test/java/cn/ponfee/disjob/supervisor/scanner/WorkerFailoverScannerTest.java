@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.supervisor.scanner;
+
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.supervisor.scanner.WorkerFailoverScanner.FailoverResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WorkerFailoverScanner test
+ *
+ * @author Ponfee
+ */
+public class WorkerFailoverScannerTest {
+
+    private final Worker worker = new Worker("g", "dead", "127.0.0.1", 80);
+
+    @Test
+    public void testFailoverResult() {
+        List<Long> instanceIds = Arrays.asList(1L, 2L, 3L);
+
+        Assertions.assertEquals(FailoverResult.FINISHED, WorkerFailoverScanner.failover(worker, Collections.emptyList(), 3, e -> true));
+        Assertions.assertEquals(FailoverResult.FINISHED, WorkerFailoverScanner.failover(worker, instanceIds, 4, e -> true));
+        Assertions.assertEquals(FailoverResult.CONTINUE, WorkerFailoverScanner.failover(worker, instanceIds, 3, e -> true));
+
+        // 没有转移任何实例，或部分实例未转移，需要延迟后重试
+        Assertions.assertEquals(FailoverResult.RETRY, WorkerFailoverScanner.failover(worker, instanceIds, 4, e -> false));
+        Assertions.assertEquals(FailoverResult.RETRY, WorkerFailoverScanner.failover(worker, instanceIds, 4, e -> e != 2));
+        Assertions.assertEquals(FailoverResult.RETRY, WorkerFailoverScanner.failover(worker, instanceIds, 4, e -> {
+            throw new IllegalStateException("failover error");
+        }));
+    }
+
+}
@@ -22,6 +22,7 @@ import cn.ponfee.disjob.common.util.ClassUtils;
 import cn.ponfee.disjob.common.util.Files;
 import cn.ponfee.disjob.common.util.Numbers;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobPriority;
 import cn.ponfee.disjob.core.enums.JobType;
 import cn.ponfee.disjob.core.enums.Operation;
 import cn.ponfee.disjob.core.enums.RouteStrategy;
@@ -236,6 +237,7 @@ public class CommonTest {
         param.setJobType(jobType);
         param.setRouteStrategy(routeStrategy);
         param.setShutdownStrategy(shutdownStrategy);
+        param.setPriority(JobPriority.NORMAL);
         param.setExecuteTimeout(executeTimeout);
         param.setSupervisorAuthenticationToken("supervisor token");
         param.setWorker(worker);
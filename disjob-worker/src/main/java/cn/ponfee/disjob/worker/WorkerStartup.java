@@ -18,15 +18,20 @@ package cn.ponfee.disjob.worker;
 
 import cn.ponfee.disjob.common.base.SingletonClassConstraint;
 import cn.ponfee.disjob.common.base.Startable;
+import cn.ponfee.disjob.common.base.TimingWheel;
 import cn.ponfee.disjob.common.concurrent.TripState;
 import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
 import cn.ponfee.disjob.core.base.JobConstants;
 import cn.ponfee.disjob.core.base.RetryProperties;
 import cn.ponfee.disjob.core.base.SupervisorRpcService;
 import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
 import cn.ponfee.disjob.dispatch.TaskReceiver;
 import cn.ponfee.disjob.registry.WorkerRegistry;
 import cn.ponfee.disjob.registry.rpc.DiscoveryServerRestProxy;
+import cn.ponfee.disjob.worker.base.TaskDispatchLedger;
+import cn.ponfee.disjob.worker.base.TaskStealer;
+import cn.ponfee.disjob.worker.base.TaskTimingWheel;
 import cn.ponfee.disjob.worker.base.TimingWheelRotator;
 import cn.ponfee.disjob.worker.base.WorkerThreadPool;
 import cn.ponfee.disjob.worker.configuration.WorkerProperties;
@@ -35,6 +40,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -51,6 +59,8 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
     private final TimingWheelRotator timingWheelRotator;
     private final TaskReceiver taskReceiver;
     private final WorkerRegistry workerRegistry;
+    private final TaskDispatchLedger ledger;
+    private final TaskStealer taskStealer;
     private final TripState state = TripState.create();
 
     public WorkerStartup(Worker.Local localWorker,
@@ -76,10 +86,12 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
         );
 
         this.localWorker = localWorker;
+        this.ledger = createLedger(localWorker, workerProperties, taskReceiver.getTimingWheel());
         this.workerThreadPool = new WorkerThreadPool(
             workerProperties.getMaximumPoolSize(),
             workerProperties.getKeepAliveTimeSeconds(),
-            supervisorRpcClient
+            supervisorRpcClient,
+            ledger
         );
         this.timingWheelRotator = new TimingWheelRotator(
             supervisorRpcClient,
@@ -88,6 +100,13 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
             workerThreadPool,
             workerProperties.getProcessThreadPoolSize()
         );
+        this.taskStealer = !workerProperties.isWorkStealingEnabled() ? null : new TaskStealer(
+            localWorker,
+            supervisorRpcClient,
+            workerRegistry,
+            workerThreadPool,
+            workerProperties.getWorkStealingPeriodMs()
+        );
         this.taskReceiver = taskReceiver;
         this.workerRegistry = workerRegistry;
     }
@@ -102,9 +121,13 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
         LOG.info("Worker start begin: {}", localWorker);
         workerThreadPool.start();
         timingWheelRotator.start();
+        replayLedger();
         taskReceiver.start();
         ThrowingRunnable.doCaught(workerRegistry::discoverServers);
         workerRegistry.register(localWorker);
+        if (taskStealer != null) {
+            taskStealer.start();
+        }
         printBanner();
         LOG.info("Worker start end: {}", localWorker);
     }
@@ -118,9 +141,15 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
 
         LOG.info("Worker stop begin: {}", localWorker);
         ThrowingRunnable.doCaught(workerRegistry::close);
+        if (taskStealer != null) {
+            ThrowingRunnable.doCaught(taskStealer::close);
+        }
         ThrowingRunnable.doCaught(taskReceiver::close);
         ThrowingRunnable.doCaught(timingWheelRotator::close);
         ThrowingRunnable.doCaught(workerThreadPool::close);
+        if (ledger != null) {
+            ThrowingRunnable.doCaught(ledger::close);
+        }
         LOG.info("Worker stop end: {}", localWorker);
     }
 
@@ -128,6 +157,58 @@ public class WorkerStartup extends SingletonClassConstraint implements Startable
         return state.isRunning();
     }
 
+    // ----------------------------------------------------------------------private methods
+
+    private static TaskDispatchLedger createLedger(Worker.Local localWorker,
+                                                   WorkerProperties workerProperties,
+                                                   TimingWheel<ExecuteTaskParam> timingWheel) {
+        if (!workerProperties.isTaskLedgerEnabled()) {
+            return null;
+        }
+        if (!(timingWheel instanceof TaskTimingWheel)) {
+            LOG.warn("Task ledger unsupported timing wheel: {}", timingWheel.getClass());
+            return null;
+        }
+        // 同一台机器可能部署多个worker，以host和port区分账本文件
+        String fileName = "task-ledger-" + localWorker.getHost() + "-" + localWorker.getPort() + ".log";
+        TaskDispatchLedger taskLedger;
+        try {
+            taskLedger = new TaskDispatchLedger(workerProperties.getTaskLedgerDirectory(), fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ((TaskTimingWheel) timingWheel).bindLedger(taskLedger);
+        return taskLedger;
+    }
+
+    private void replayLedger() {
+        if (ledger != null) {
+            replayLedger(ledger, localWorker, taskReceiver.getTimingWheel());
+        }
+    }
+
+    /**
+     * 重新放入上次停止前已接收但未执行完成的task，TimingWheelRotator在处理时会先向supervisor更新task的worker
+     * <p>重启后worker id已变化，supervisor在task的原worker已下线时才允许当前worker接管
+     *
+     * @param ledger      the task dispatch ledger
+     * @param localWorker the local worker
+     * @param timingWheel the timing wheel
+     */
+    static void replayLedger(TaskDispatchLedger ledger, Worker localWorker, TimingWheel<ExecuteTaskParam> timingWheel) {
+        List<ExecuteTaskParam> tasks = ledger.pendingTasks();
+        for (ExecuteTaskParam task : tasks) {
+            if (task.getRouteStrategy().isBroadcast() || !localWorker.equalsGroup(task.getWorker().getGroup())) {
+                // 广播任务绑定的是原worker，无法转交给重启后的worker
+                ledger.completed(task.getTaskId());
+                continue;
+            }
+            task.setWorker(localWorker);
+            timingWheel.offer(task);
+        }
+        LOG.info("Replayed task ledger pending tasks: {}", tasks.size());
+    }
+
     @SuppressWarnings("all")
     private static void printBanner() {
         String bannerWorker = "Disjob worker banner\n\n" +
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
+import cn.ponfee.disjob.common.util.Files;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local append-only ledger of worker received tasks, replay the pending tasks after worker restart.
+ *
+ * <pre>
+ * record format: | length(4) | type(1) | payload(length - 1) |
+ *   ACCEPTED payload: serialized bytes of ExecuteTaskParam
+ *   COMPLETED payload: task id(8)
+ * </pre>
+ *
+ * @author Ponfee
+ */
+public class TaskDispatchLedger implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskDispatchLedger.class);
+    private static final byte ACCEPTED = 1;
+    private static final byte COMPLETED = 2;
+    private static final int COMPACT_THRESHOLD = 10000;
+
+    private final File file;
+
+    /**
+     * Map<taskId, serialized ExecuteTaskParam>
+     */
+    private final Map<Long, byte[]> pending = new LinkedHashMap<>();
+
+    /**
+     * Number of records which can be purged on compact
+     */
+    private int garbageCount = 0;
+    private FileChannel channel;
+
+    public TaskDispatchLedger(String directory, String fileName) throws IOException {
+        this.file = new File(Files.mkdirIfNotExists(directory), fileName);
+        load();
+        compact();
+    }
+
+    /**
+     * Returns the pending tasks which received but not completed before last shutdown.
+     *
+     * @return list of pending task
+     */
+    public synchronized List<ExecuteTaskParam> pendingTasks() {
+        List<ExecuteTaskParam> list = new ArrayList<>(pending.size());
+        pending.forEach((taskId, bytes) -> list.add(ExecuteTaskParam.deserialize(bytes)));
+        return list;
+    }
+
+    synchronized void accepted(ExecuteTaskParam param) {
+        if (channel == null || pending.containsKey(param.getTaskId())) {
+            return;
+        }
+        byte[] bytes = param.serialize();
+        if (append(ACCEPTED, bytes)) {
+            pending.put(param.getTaskId(), bytes);
+        }
+    }
+
+    public synchronized void completed(long taskId) {
+        if (channel == null || pending.remove(taskId) == null) {
+            return;
+        }
+        append(COMPLETED, ByteBuffer.allocate(8).putLong(taskId).array());
+        // ACCEPTED and COMPLETED record both are garbage
+        garbageCount += 2;
+        if (garbageCount >= COMPACT_THRESHOLD) {
+            ThrowingRunnable.doCaught(this::compact, () -> "Compact task ledger error: " + file);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            ThrowingRunnable.doCaught(channel::close);
+            channel = null;
+        }
+    }
+
+    // ----------------------------------------------------------------------private methods
+
+    private void load() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            for (int length; (length = readLength(input)) > 0; ) {
+                byte[] record = new byte[length];
+                input.readFully(record);
+                ByteBuffer buf = ByteBuffer.wrap(record);
+                byte type = buf.get();
+                if (type == ACCEPTED) {
+                    byte[] bytes = new byte[length - 1];
+                    buf.get(bytes);
+                    pending.put(ExecuteTaskParam.deserialize(bytes).getTaskId(), bytes);
+                } else if (type == COMPLETED) {
+                    pending.remove(buf.getLong());
+                } else {
+                    throw new IOException("Invalid task ledger record type: " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // 进程崩溃时可能写入了不完整的记录，忽略最后这条不完整的记录即可
+            LOG.warn("Task ledger truncated record: {}", file);
+        }
+        LOG.info("Task ledger loaded pending tasks: {}, {}", file, pending.size());
+    }
+
+    private static int readLength(DataInputStream input) throws IOException {
+        try {
+            return input.readInt();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Rewrites the ledger file only contains the pending tasks.
+     *
+     * @throws IOException if occur io exception
+     */
+    private synchronized void compact() throws IOException {
+        close();
+        File temp = new File(file.getPath() + ".compact");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (byte[] bytes : pending.values()) {
+                write(out, ACCEPTED, bytes);
+            }
+            out.force(true);
+        }
+        Path target = file.toPath();
+        java.nio.file.Files.move(temp.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.garbageCount = 0;
+        LOG.info("Task ledger compacted: {}, {}", file, pending.size());
+    }
+
+    private boolean append(byte type, byte[] payload) {
+        try {
+            write(channel, type, payload);
+            return true;
+        } catch (IOException e) {
+            LOG.error("Append task ledger error: " + file, e);
+            return false;
+        }
+    }
+
+    private static void write(FileChannel channel, byte type, byte[] payload) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4 + 1 + payload.length)
+            .putInt(1 + payload.length)
+            .put(type)
+            .put(payload);
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+}
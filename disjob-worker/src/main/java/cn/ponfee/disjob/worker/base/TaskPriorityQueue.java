@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.core.enums.JobPriority;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 按任务优先级分道的阻塞队列，每个优先级对应一条FIFO车道
+ * <p>出队时优先选择高优先级车道，低优先级车道的队头任务每等待一个老化周期就提升一级，以避免饥饿
+ *
+ * @author Ponfee
+ */
+final class TaskPriorityQueue {
+
+    /**
+     * Lanes, index 0 is the highest priority lane
+     */
+    private final ArrayDeque<WorkerTask>[] lanes;
+
+    /**
+     * The waiting nanos of promote one lane
+     */
+    private final long agingNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int count = 0;
+
+    @SuppressWarnings("unchecked")
+    TaskPriorityQueue(long agingMillis) {
+        this.lanes = new ArrayDeque[JobPriority.lanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, agingMillis));
+    }
+
+    /**
+     * Inserts the task at the tail of its priority lane.
+     *
+     * @param task the worker task
+     * @return {@code true} always
+     */
+    boolean offerLast(WorkerTask task) {
+        lock.lock();
+        try {
+            task.markEnqueued();
+            lanes[task.getPriority().lane()].offerLast(task);
+            ++count;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the task at the head of its priority lane, used for re-execute the task.
+     * <p>保持首次入队的时间，不会重置老化
+     *
+     * @param task the worker task
+     */
+    void putFirst(WorkerTask task) {
+        lock.lock();
+        try {
+            task.markEnqueued();
+            lanes[task.getPriority().lane()].offerFirst(task);
+            ++count;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the head task of the selected lane, waiting if necessary until a task becomes available.
+     *
+     * @return the worker task
+     * @throws InterruptedException if interrupted while waiting
+     */
+    WorkerTask takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            --count;
+            return lanes[selectLane()].pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            for (ArrayDeque<WorkerTask> lane : lanes) {
+                lane.clear();
+            }
+            count = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean anyMatch(Predicate<WorkerTask> predicate) {
+        lock.lock();
+        try {
+            for (ArrayDeque<WorkerTask> lane : lanes) {
+                for (WorkerTask task : lane) {
+                    if (predicate.test(task)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------------private methods
+
+    /**
+     * 只比较各车道的队头任务：有效车道 = 车道序号 - 等待时长 / 老化周期，取最小者(相同时取原本优先级更高的车道)
+     *
+     * @return the selected lane index
+     */
+    private int selectLane() {
+        long now = System.nanoTime();
+        int selected = -1;
+        long minRank = Long.MAX_VALUE;
+        for (int i = 0; i < lanes.length; i++) {
+            WorkerTask head = lanes[i].peekFirst();
+            if (head == null) {
+                continue;
+            }
+            long rank = i - (now - head.getEnqueueNanos()) / agingNanos;
+            if (rank < minRank) {
+                minRank = rank;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.common.concurrent.LoopThread;
+import cn.ponfee.disjob.common.concurrent.ThreadPoolExecutors;
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
+import cn.ponfee.disjob.core.base.JobConstants;
+import cn.ponfee.disjob.core.base.SupervisorRpcService;
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
+import cn.ponfee.disjob.worker.exception.SavepointFailedException;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections4.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Task savepoint buffer, only keeps the latest execute snapshot per task,
+ * and flush to supervisor on period interval or exceed size threshold.
+ *
+ * <pre>
+ * 保存失败时的处理：
+ *  1）supervisor拒绝保存(task不在该worker上执行)：直接丢弃
+ *  2）rpc调用异常：放回缓冲区在下次flush时重试，超过最大尝试次数后丢弃
+ * 丢弃的快照会记录失败信息，在该task下一次save时抛出{@link SavepointFailedException}报告给调用方
+ * </pre>
+ *
+ * @author Ponfee
+ */
+class TaskSavepointBuffer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskSavepointBuffer.class);
+    private static final long FLUSH_PERIOD_MS = 1000;
+    private static final int FLUSH_THRESHOLD_SIZE = 100;
+    static final int FLUSH_MAX_ATTEMPTS = 5;
+
+    private final SupervisorRpcService supervisorRpcClient;
+
+    /**
+     * Map<taskId, Entry>
+     */
+    private final ConcurrentMap<Long, Entry> buffer = new ConcurrentHashMap<>();
+
+    /**
+     * Map<taskId, failed message>
+     */
+    private final ConcurrentMap<Long, String> failures = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final LoopThread flushThread;
+
+    TaskSavepointBuffer(SupervisorRpcService supervisorRpcClient) {
+        this(supervisorRpcClient, true);
+    }
+
+    TaskSavepointBuffer(SupervisorRpcService supervisorRpcClient, boolean startFlushThread) {
+        this.supervisorRpcClient = supervisorRpcClient;
+        this.flushThread = startFlushThread ? LoopThread.createStarted("task_savepoint_flush", FLUSH_PERIOD_MS, FLUSH_PERIOD_MS, this::flush) : null;
+    }
+
+    /**
+     * Puts the latest task savepoint
+     *
+     * @param param the savepoint param
+     * @throws SavepointFailedException if the previous savepoint of the task was failed
+     */
+    void put(SavepointParam param) throws SavepointFailedException {
+        String failure = failures.remove(param.getTaskId());
+        if (failure != null) {
+            throw new SavepointFailedException(failure);
+        }
+        buffer.put(param.getTaskId(), new Entry(param));
+        if (buffer.size() >= FLUSH_THRESHOLD_SIZE && flushing.compareAndSet(false, true)) {
+            ThreadPoolExecutors.commonThreadPool().execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Flush the task savepoint, called before stop task
+     *
+     * @param taskId the task id
+     * @throws SavepointFailedException if save failed
+     */
+    synchronized void flush(long taskId) throws SavepointFailedException {
+        // task即将结束，不再需要报告给调用方
+        String failure = failures.remove(taskId);
+        Entry entry = buffer.remove(taskId);
+        if (entry == null) {
+            if (failure != null) {
+                throw new SavepointFailedException(failure);
+            }
+            return;
+        }
+        List<Long> unsavedTaskIds;
+        try {
+            unsavedTaskIds = supervisorRpcClient.savepoints(Collections.singletonList(entry.param));
+        } catch (Throwable t) {
+            throw new SavepointFailedException("Flush task savepoint error: " + taskId, t);
+        }
+        if (CollectionUtils.isNotEmpty(unsavedTaskIds)) {
+            throw new SavepointFailedException("Task savepoint rejected by supervisor: " + taskId);
+        }
+    }
+
+    synchronized void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Entry> list = new ArrayList<>(buffer.size());
+        for (Long taskId : buffer.keySet()) {
+            Entry entry = buffer.remove(taskId);
+            if (entry != null) {
+                list.add(entry);
+            }
+        }
+        Lists.partition(list, JobConstants.PROCESS_BATCH_SIZE).forEach(this::send);
+    }
+
+    @Override
+    public void close() {
+        if (flushThread != null) {
+            flushThread.terminate();
+        }
+        ThrowingRunnable.doCaught(this::flush, "Flush task savepoint buffer error.");
+        failures.clear();
+    }
+
+    int size() {
+        return buffer.size();
+    }
+
+    // ------------------------------------------------------------------------private methods
+
+    private void send(List<Entry> entries) {
+        List<SavepointParam> params = new ArrayList<>(entries.size());
+        entries.forEach(e -> params.add(e.param));
+        List<Long> unsavedTaskIds;
+        try {
+            unsavedTaskIds = supervisorRpcClient.savepoints(params);
+        } catch (Throwable t) {
+            LOG.error("Flush task savepoint error: " + params.size(), t);
+            for (Entry entry : entries) {
+                if (++entry.attempts < FLUSH_MAX_ATTEMPTS) {
+                    // put back for next flush, except the task already has a newer snapshot
+                    buffer.putIfAbsent(entry.param.getTaskId(), entry);
+                } else {
+                    discard(entry.param.getTaskId(), "Task savepoint discarded after " + entry.attempts + " attempts: " + t.getMessage());
+                }
+            }
+            return;
+        }
+        if (CollectionUtils.isNotEmpty(unsavedTaskIds)) {
+            unsavedTaskIds.forEach(taskId -> discard(taskId, "Task savepoint rejected by supervisor: " + taskId));
+        }
+    }
+
+    private void discard(long taskId, String message) {
+        LOG.error(message);
+        // 如果task已有更新的快照则无需报告
+        if (!buffer.containsKey(taskId)) {
+            failures.put(taskId, message);
+        }
+    }
+
+    private static class Entry {
+        private final SavepointParam param;
+        private int attempts = 0;
+
+        private Entry(SavepointParam param) {
+            this.param = param;
+        }
+    }
+
+}
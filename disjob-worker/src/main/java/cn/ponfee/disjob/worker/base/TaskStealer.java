@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.common.base.Startable;
+import cn.ponfee.disjob.common.concurrent.LoopThread;
+import cn.ponfee.disjob.core.base.JobConstants;
+import cn.ponfee.disjob.core.base.Supervisor;
+import cn.ponfee.disjob.core.base.SupervisorRpcService;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.registry.Discovery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically steals the waiting tasks of overloaded peer worker when this worker is idle.
+ *
+ * @author Ponfee
+ */
+public class TaskStealer implements Startable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskStealer.class);
+
+    private final Worker.Local localWorker;
+    private final SupervisorRpcService supervisorRpcClient;
+    private final Discovery<Supervisor> discoverSupervisor;
+    private final WorkerThreadPool workerThreadPool;
+    private final LoopThread stealThread;
+
+    public TaskStealer(Worker.Local localWorker,
+                       SupervisorRpcService supervisorRpcClient,
+                       Discovery<Supervisor> discoverSupervisor,
+                       WorkerThreadPool workerThreadPool,
+                       long periodMs) {
+        this.localWorker = localWorker;
+        this.supervisorRpcClient = supervisorRpcClient;
+        this.discoverSupervisor = discoverSupervisor;
+        this.workerThreadPool = workerThreadPool;
+        this.stealThread = new LoopThread("task_stealer", periodMs, periodMs, this::steal);
+    }
+
+    @Override
+    public void start() {
+        stealThread.start();
+    }
+
+    @Override
+    public void stop() {
+        stealThread.terminate();
+    }
+
+    private void steal() throws Exception {
+        if (!discoverSupervisor.hasDiscoveredServers()) {
+            return;
+        }
+        int capacity = workerThreadPool.idleCapacity();
+        if (capacity <= 0) {
+            return;
+        }
+        int count = supervisorRpcClient.stealTasks(localWorker, Math.min(capacity, JobConstants.PROCESS_BATCH_SIZE));
+        if (count > 0) {
+            LOG.info("Stolen waiting tasks from peer worker: {}, {}", capacity, count);
+        }
+    }
+
+}
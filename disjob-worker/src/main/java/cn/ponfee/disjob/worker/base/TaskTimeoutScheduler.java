@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.common.concurrent.NamedThreadFactory;
+import cn.ponfee.disjob.common.concurrent.ThreadPoolExecutors;
+import cn.ponfee.disjob.common.exception.Throwables.ThrowingRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.*;
+
+/**
+ * Shared task execute timeout scheduler, the task executes inline in worker thread.
+ * <p>超时后先协作式停止(调用JobExecutor#stop并中断线程)，宽限期后仍未结束则强制终止(Thread#stop)
+ * <p>JobExecutor#stop为用户代码，在独立的线程池中执行，避免其抛异常或阻塞时影响共享的调度线程
+ *
+ * @author Ponfee
+ */
+class TaskTimeoutScheduler implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskTimeoutScheduler.class);
+
+    /**
+     * Force stop grace period milliseconds after timeout
+     */
+    private static final long FORCE_STOP_GRACE_MS = 3000;
+
+    /**
+     * Max thread count of execute JobExecutor#stop
+     */
+    private static final int STOPPER_POOL_SIZE = 4;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ThreadPoolExecutor stopper;
+
+    TaskTimeoutScheduler() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, NamedThreadFactory.builder()
+            .prefix("task_timeout_scheduler")
+            .daemon(true)
+            .uncaughtExceptionHandler(LOG)
+            .build());
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.stopper = ThreadPoolExecutors.builder()
+            .corePoolSize(STOPPER_POOL_SIZE)
+            .maximumPoolSize(STOPPER_POOL_SIZE)
+            .workQueue(new LinkedBlockingQueue<>(1024))
+            .keepAliveTimeSeconds(60)
+            .allowCoreThreadTimeOut(true)
+            .rejectedHandler(ThreadPoolExecutors.DISCARD)
+            .threadFactory(NamedThreadFactory.builder().prefix("task_timeout_stopper").daemon(true).uncaughtExceptionHandler(LOG).build())
+            .build();
+    }
+
+    /**
+     * Schedule the task execute deadline
+     *
+     * @param thread    the thread of executing task
+     * @param task      the worker task
+     * @param timeoutMs the timeout milliseconds
+     * @return deadline
+     */
+    Deadline schedule(Thread thread, WorkerTask task, long timeoutMs) {
+        Deadline deadline = new Deadline(thread, task);
+        deadline.future = scheduler.schedule(deadline::expire, timeoutMs, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        stopper.shutdownNow();
+    }
+
+    final class Deadline {
+        private final Thread thread;
+        private final WorkerTask task;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean expired = false;
+        private volatile boolean released = false;
+
+        private Deadline(Thread thread, WorkerTask task) {
+            this.thread = thread;
+            this.task = task;
+        }
+
+        boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * Release the deadline after task executed, must be called by the executing thread.
+         */
+        synchronized void release() {
+            released = true;
+            if (expired) {
+                // clear the interrupted status, then the worker thread can be reused
+                Thread.interrupted();
+            } else {
+                future.cancel(false);
+            }
+        }
+
+        private synchronized void expire() {
+            if (released) {
+                return;
+            }
+            expired = true;
+            LOG.warn("Task execute timeout, stop it: {}, {}", task.getTaskId(), thread.getName());
+            // 先布置强制终止，保证后续步骤异常时仍会执行
+            ThrowingRunnable.doCaught(() -> scheduler.schedule(this::forceStop, FORCE_STOP_GRACE_MS, TimeUnit.MILLISECONDS));
+            ThrowingRunnable.doCaught(() -> stopper.execute(this::stopTask), "Submit stop task error: {}");
+            ThrowingRunnable.doCaught(thread::interrupt, "Interrupt timeout task thread error: {}");
+        }
+
+        /**
+         * 在stopper线程中执行，不持有Deadline的锁，避免JobExecutor#stop阻塞时worker线程无法release
+         */
+        private void stopTask() {
+            if (!released) {
+                ThrowingRunnable.doCaught(task::stop, "Stop timeout task error: {}");
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        private synchronized void forceStop() {
+            if (released) {
+                return;
+            }
+            LOG.warn("Task execute timeout force stop: {}, {}", task.getTaskId(), thread.getName());
+            // 调用后，正在执行的任务会抛出java.lang.ThreadDeath异常，由WorkerThread捕获后按超时处理
+            ThrowingRunnable.doCaught(thread::stop, "Force stop timeout task thread error: {}");
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 package cn.ponfee.disjob.worker.base;
 
 import cn.ponfee.disjob.common.base.TimingWheel;
+import cn.ponfee.disjob.core.enums.Operation;
 import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
 
 import java.util.Objects;
@@ -29,10 +30,19 @@ import java.util.Objects;
 public class TaskTimingWheel extends TimingWheel<ExecuteTaskParam> {
     private static final long serialVersionUID = 5234431161365689615L;
 
+    /**
+     * Records the received tasks, it is null if not enabled task ledger
+     */
+    private transient volatile TaskDispatchLedger ledger;
+
     public TaskTimingWheel(long tickMs, int ringSize) {
         super(tickMs, ringSize);
     }
 
+    public void bindLedger(TaskDispatchLedger ledger) {
+        this.ledger = ledger;
+    }
+
     @Override
     protected boolean verify(ExecuteTaskParam param) {
         Objects.requireNonNull(param, "Execute task param cannot be null.");
@@ -40,4 +50,12 @@ public class TaskTimingWheel extends TimingWheel<ExecuteTaskParam> {
         return true;
     }
 
+    @Override
+    protected void offered(ExecuteTaskParam param) {
+        TaskDispatchLedger taskLedger = this.ledger;
+        if (taskLedger != null && param.getOperation() == Operation.TRIGGER) {
+            taskLedger.accepted(param);
+        }
+    }
+
 }
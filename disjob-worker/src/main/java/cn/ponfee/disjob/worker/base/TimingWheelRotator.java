@@ -127,6 +127,7 @@ public class TimingWheelRotator extends SingletonClassConstraint implements Star
         }
 
         String worker = Collects.getFirst(list).getWorker().serialize();
+        // supervisor端以CAS方式更新(当前worker为null或为本worker时才更新)，不会覆盖已被其它worker窃取的task
         for (List<Long> ids : Lists.partition(taskIds, PROCESS_BATCH_SIZE)) {
             ThrowingRunnable.doCaught(() -> supervisorRpcClient.updateTaskWorker(worker, ids), () -> "Update task worker error: " + ids);
         }
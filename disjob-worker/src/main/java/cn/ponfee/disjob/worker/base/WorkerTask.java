@@ -27,6 +27,7 @@ import cn.ponfee.disjob.worker.executor.ExecutionTask;
 import cn.ponfee.disjob.worker.executor.JobExecutor;
 import lombok.AccessLevel;
 import lombok.Getter;
+import org.apache.commons.lang3.ObjectUtils;
 
 import java.util.Date;
 import java.util.Objects;
@@ -50,6 +51,7 @@ final class WorkerTask {
     private final JobType jobType;
     private final RouteStrategy routeStrategy;
     private final ShutdownStrategy shutdownStrategy;
+    private final JobPriority priority;
     private final int executeTimeout;
     private final String jobExecutor;
     private final Worker worker;
@@ -66,6 +68,12 @@ final class WorkerTask {
     @Getter(AccessLevel.NONE)
     private final AtomicReference<JobExecutor> taskExecutorRef = new AtomicReference<>();
 
+    /**
+     * 首次进入执行队列的时间(System#nanoTime)，重新入队时保持不变，用于优先级老化(只在队列锁内访问)
+     */
+    @Getter(AccessLevel.NONE)
+    private Long enqueueNanos;
+
     WorkerTask(ExecuteTaskParam param) {
         this.operationRef = new AtomicReference<>(Objects.requireNonNull(param.getOperation()));
         this.taskId = param.getTaskId();
@@ -78,6 +86,7 @@ final class WorkerTask {
         this.jobType = Objects.requireNonNull(param.getJobType());
         this.routeStrategy = Objects.requireNonNull(param.getRouteStrategy());
         this.shutdownStrategy = Objects.requireNonNull(param.getShutdownStrategy());
+        this.priority = ObjectUtils.defaultIfNull(param.getPriority(), JobPriority.NORMAL);
         this.executeTimeout = param.getExecuteTimeout();
         this.jobExecutor = param.getJobExecutor();
         this.worker = Objects.requireNonNull(param.getWorker());
@@ -89,6 +98,16 @@ final class WorkerTask {
         return wnstanceId != null ? wnstanceId : instanceId;
     }
 
+    void markEnqueued() {
+        if (enqueueNanos == null) {
+            enqueueNanos = System.nanoTime();
+        }
+    }
+
+    long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+
     Operation getOperation() {
         return operationRef.get();
     }
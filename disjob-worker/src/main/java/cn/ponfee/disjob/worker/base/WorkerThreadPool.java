@@ -26,6 +26,7 @@ import cn.ponfee.disjob.core.base.CoreUtils;
 import cn.ponfee.disjob.core.base.JobConstants;
 import cn.ponfee.disjob.core.base.SupervisorRpcService;
 import cn.ponfee.disjob.core.base.WorkerMetrics;
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
 import cn.ponfee.disjob.core.dto.supervisor.StartTaskResult;
 import cn.ponfee.disjob.core.dto.supervisor.StopTaskParam;
 import cn.ponfee.disjob.core.enums.ExecuteState;
@@ -39,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import javax.annotation.Nullable;
 import javax.annotation.PreDestroy;
 import java.io.Closeable;
 import java.util.Collections;
@@ -61,13 +63,28 @@ public class WorkerThreadPool extends Thread implements Closeable {
     private static final Logger LOG = LoggerFactory.getLogger(WorkerThreadPool.class);
     private static final int ERROR_MSG_MAX_LENGTH = 2048;
     private static final AtomicInteger NAMED_SEQ = new AtomicInteger(1);
-    private static final AtomicInteger FUTURE_TASK_NAMED_SEQ = new AtomicInteger(1);
+    private static final long TASK_AGING_MILLIS = 10000L;
 
     /**
      * Supervisor rpc client
      */
     private final SupervisorRpcService supervisorRpcClient;
 
+    /**
+     * Task savepoint buffer
+     */
+    private final TaskSavepointBuffer savepointBuffer;
+
+    /**
+     * Task dispatch ledger, it is null if not enabled
+     */
+    private final TaskDispatchLedger ledger;
+
+    /**
+     * Task execute timeout scheduler
+     */
+    private final TaskTimeoutScheduler timeoutScheduler = new TaskTimeoutScheduler();
+
     /**
      * Maximum pool size
      */
@@ -89,9 +106,9 @@ public class WorkerThreadPool extends Thread implements Closeable {
     private final LinkedBlockingDeque<WorkerThread> idlePool = new LinkedBlockingDeque<>();
 
     /**
-     * Task execution task queue
+     * Task execution task queue, lanes by task priority
      */
-    private final LinkedBlockingDeque<WorkerTask> taskQueue = new LinkedBlockingDeque<>();
+    private final TaskPriorityQueue taskQueue = new TaskPriorityQueue(TASK_AGING_MILLIS);
 
     /**
      * Counts worker thread number
@@ -109,10 +126,19 @@ public class WorkerThreadPool extends Thread implements Closeable {
     private final TripState threadPoolState = TripState.createStarted();
 
     public WorkerThreadPool(int maximumPoolSize, long keepAliveTimeSeconds, SupervisorRpcService supervisorRpcClient) {
+        this(maximumPoolSize, keepAliveTimeSeconds, supervisorRpcClient, null);
+    }
+
+    public WorkerThreadPool(int maximumPoolSize,
+                            long keepAliveTimeSeconds,
+                            SupervisorRpcService supervisorRpcClient,
+                            @Nullable TaskDispatchLedger ledger) {
         Assert.isTrue(keepAliveTimeSeconds > 0, "Keep alive time seconds must be positive number.");
         setMaximumPoolSize(maximumPoolSize);
         this.keepAliveTime = TimeUnit.SECONDS.toNanos(keepAliveTimeSeconds);
         this.supervisorRpcClient = Objects.requireNonNull(supervisorRpcClient);
+        this.ledger = ledger;
+        this.savepointBuffer = new TaskSavepointBuffer(supervisorRpcClient);
         SingletonClassConstraint.constrain(this);
 
         super.setDaemon(true);
@@ -168,6 +194,12 @@ public class WorkerThreadPool extends Thread implements Closeable {
         // stop active pool thread
         ThrowingRunnable.doCaught(activePool::close);
 
+        // flush the remaining task savepoint
+        ThrowingRunnable.doCaught(savepointBuffer::close);
+
+        // shutdown task timeout scheduler
+        ThrowingRunnable.doCaught(timeoutScheduler::close);
+
         LOG.info("Close worker thread pool end.");
     }
 
@@ -208,11 +240,23 @@ public class WorkerThreadPool extends Thread implements Closeable {
         this.maximumPoolSize = value;
     }
 
+    /**
+     * Returns the number of tasks can be executed immediately
+     *
+     * @return idle capacity
+     */
+    int idleCapacity() {
+        if (threadPoolState.isStopped()) {
+            return 0;
+        }
+        return maximumPoolSize - activePool.size() - taskQueue.size();
+    }
+
     boolean existsTask(long taskId) {
         if (activePool.containsKey(taskId)) {
             return true;
         }
-        if (taskQueue.stream().anyMatch(e -> e.getTaskId() == taskId)) {
+        if (taskQueue.anyMatch(e -> e.getTaskId() == taskId)) {
             return true;
         }
         return activePool.containsKey(taskId);
@@ -325,20 +369,44 @@ public class WorkerThreadPool extends Thread implements Closeable {
         stopTask(task, ops, ops.toState(), errorMsg);
     }
 
-    private void stopTask(WorkerTask task, Operation ops, ExecuteState toState, String errorMsg) {
+    private void stopTask(WorkerTask task, Operation ops, ExecuteState state, String message) {
         Assert.notNull(ops, "Stop task operation cannot be null.");
         if (!task.updateOperation(ops, null)) {
             // already stopped
-            LOG.info("Stop task conflict: {}, {}, {}", task.getTaskId(), ops, toState);
+            LOG.info("Stop task conflict: {}, {}, {}", task.getTaskId(), ops, state);
             return;
         }
 
         completedTaskCounter.incrementAndGet();
 
+        ExecuteState toState = state;
+        String errorMsg = message;
+        // force flush the buffered savepoint before stop task
+        try {
+            savepointBuffer.flush(task.getTaskId());
+        } catch (SavepointFailedException e) {
+            LOG.error("Flush task savepoint error: " + task.getTaskId() + ", " + toState, e);
+            if (toState == COMPLETED) {
+                // 最终快照未保存成功，不能按执行成功结束，改为执行失败(由supervisor按重试策略处理)
+                toState = EXECUTE_FAILED;
+            }
+            errorMsg = StringUtils.isBlank(errorMsg) ? toErrorMsg(e) : errorMsg + "; " + e.getMessage();
+        }
+
         StopTaskParam param = task.toStopTaskParam(ops, toState, errorMsg);
         LOG.info("Stop task operation: {}, {}, {}", task.getTaskId(), ops, toState);
-        Supplier<String> msgSupplier = () -> "Stop task error: " + task.getTaskId() + ", " + ops + ", " + toState;
-        CoreUtils.doInSynchronized(task.getLockInstanceId(), () -> supervisorRpcClient.stopTask(param), msgSupplier);
+        Supplier<String> msgSupplier = () -> "Stop task error: " + task.getTaskId() + ", " + ops + ", " + param.getToState();
+        try {
+            CoreUtils.doInSynchronized(task.getLockInstanceId(), () -> supervisorRpcClient.stopTask(param), msgSupplier);
+        } finally {
+            completeLedger(task.getTaskId());
+        }
+    }
+
+    private void completeLedger(long taskId) {
+        if (ledger != null) {
+            ThrowingRunnable.doCaught(() -> ledger.completed(taskId), () -> "Complete task ledger error: " + taskId);
+        }
     }
 
     private void stopInstance(WorkerTask task, Operation ops, String errorMsg) {
@@ -465,12 +533,12 @@ public class WorkerThreadPool extends Thread implements Closeable {
 
         @Override
         public void save(String executeSnapshot) throws Exception {
-            if (StringUtils.length(executeSnapshot) > JobConstants.CLOB_MAXIMUM_LENGTH) {
-                throw new SavepointFailedException("Execution snapshot length too large: " + executeSnapshot.length());
-            }
-            if (!supervisorRpcClient.savepoint(taskId, worker, executeSnapshot)) {
-                throw new SavepointFailedException("Save execution snapshot data occur error.");
+            String snapshot = CoreUtils.compressSnapshot(executeSnapshot);
+            if (StringUtils.length(snapshot) > JobConstants.CLOB_MAXIMUM_LENGTH) {
+                throw new SavepointFailedException("Execution snapshot length too large: " + snapshot.length());
             }
+            // 只保留最新的快照数据，异步批量保存(任务结束前会强制刷新)，之前保存失败的快照会在此抛出异常
+            savepointBuffer.put(SavepointParam.of(taskId, worker, snapshot));
         }
     }
 
@@ -625,6 +693,7 @@ public class WorkerThreadPool extends Thread implements Closeable {
                     workerTask.getLockInstanceId(), () -> supervisorRpcClient.startTask(workerTask.toStartTaskParam()));
                 if (!startTaskResult.isSuccess()) {
                     LOG.warn("Start task failed: {}, {}", workerTask, startTaskResult.getFailedMessage());
+                    completeLedger(workerTask.getTaskId());
                     return;
                 }
                 executionTask = workerTask.toExecutionTask(startTaskResult);
@@ -633,9 +702,12 @@ public class WorkerThreadPool extends Thread implements Closeable {
                 if (workerTask.getRouteStrategy().isNotBroadcast()) {
                     // reset task worker
                     List<Long> list = Collections.singletonList(workerTask.getTaskId());
-                    ThrowingRunnable<?> action = () -> supervisorRpcClient.updateTaskWorker(null, list);
+                    String worker = workerTask.getWorker().serialize();
+                    ThrowingRunnable<?> action = () -> supervisorRpcClient.resetTaskWorker(worker, list);
                     ThrowingRunnable.doCaught(action, () -> "Reset task worker error: " + workerTask);
                 }
+                // 启动失败的task交由supervisor重新派发
+                completeLedger(workerTask.getTaskId());
                 Threads.interruptIfNecessary(t);
                 return;
             }
@@ -685,15 +757,22 @@ public class WorkerThreadPool extends Thread implements Closeable {
         private void execute(WorkerTask workerTask, JobExecutor taskExecutor, ExecutionTask executionTask) throws Exception {
             ExecutionResult result;
             Savepoint savepoint = new TaskSavepoint(workerTask.getTaskId(), workerTask.getWorker().serialize());
-            if (workerTask.getExecuteTimeout() > 0) {
-                FutureTask<ExecutionResult> futureTask = new FutureTask<>(() -> taskExecutor.execute(executionTask, savepoint));
-                String threadName = "WorkerThread#FutureTaskThread-" + FUTURE_TASK_NAMED_SEQ.getAndIncrement();
-                Thread futureTaskThread = Threads.newThread(threadName, true, Thread.NORM_PRIORITY, futureTask, LOG);
-                futureTaskThread.start();
+            long timeout = workerTask.getExecuteTimeout();
+            if (timeout > 0) {
+                // 在当前WorkerThread中直接执行，由共享的超时调度器负责到期停止，避免每次执行都创建新线程
+                TaskTimeoutScheduler.Deadline deadline = timeoutScheduler.schedule(this, workerTask, timeout);
                 try {
-                    result = futureTask.get(workerTask.getExecuteTimeout(), TimeUnit.MILLISECONDS);
+                    result = taskExecutor.execute(executionTask, savepoint);
+                } catch (Throwable t) {
+                    if (deadline.isExpired()) {
+                        throw new TimeoutException("Execute task timeout " + timeout + "ms: " + t);
+                    }
+                    throw t;
                 } finally {
-                    Threads.stopThread(futureTaskThread, 0);
+                    deadline.release();
+                }
+                if (deadline.isExpired()) {
+                    throw new TimeoutException("Execute task timeout " + timeout + "ms.");
                 }
             } else {
                 result = taskExecutor.execute(executionTask, savepoint);
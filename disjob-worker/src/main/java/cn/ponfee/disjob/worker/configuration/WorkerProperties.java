@@ -20,6 +20,7 @@ import cn.ponfee.disjob.common.base.Symbol.Str;
 import cn.ponfee.disjob.common.base.ToJsonString;
 import cn.ponfee.disjob.core.base.JobConstants;
 import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.Assert;
@@ -68,6 +69,26 @@ public class WorkerProperties extends ToJsonString implements Serializable {
      */
     private int processThreadPoolSize = 5;
 
+    /**
+     * Whether enabled the local task dispatch ledger, replay the received but not executed tasks after restart.
+     */
+    private boolean taskLedgerEnabled = false;
+
+    /**
+     * Task dispatch ledger directory, default is the working directory: ${user.dir}/disjob-ledger
+     */
+    private String taskLedgerDirectory = System.getProperty("user.dir") + "/disjob-ledger";
+
+    /**
+     * Whether enabled work stealing, the idle worker steals waiting tasks from overloaded peer worker.
+     */
+    private boolean workStealingEnabled = false;
+
+    /**
+     * Work stealing period milliseconds.
+     */
+    private long workStealingPeriodMs = 3000;
+
     /**
      * The token which use call rpc to supervisor
      */
@@ -90,6 +111,8 @@ public class WorkerProperties extends ToJsonString implements Serializable {
         Assert.isTrue(maximumPoolSize > 0, "Maximum pool size must be greater 0.");
         Assert.isTrue(keepAliveTimeSeconds > 0, "Keep alive time seconds must be greater 0.");
         Assert.isTrue(processThreadPoolSize > 0, "Process thread pool size must be greater than 0.");
+        Assert.isTrue(workStealingPeriodMs > 0, "Work stealing period ms must be greater than 0.");
+        Assert.isTrue(!taskLedgerEnabled || StringUtils.isNotBlank(taskLedgerDirectory), "Task ledger directory cannot be blank.");
         Assert.isTrue(supervisorContextPath.startsWith(Str.SLASH), () -> "Supervisor context-path must start with '/': " + supervisorContextPath);
         if (supervisorContextPath.length() > 1 && supervisorContextPath.endsWith(Str.SLASH)) {
             throw new IllegalArgumentException("Supervisor context-path cannot end with '/': " + supervisorContextPath);
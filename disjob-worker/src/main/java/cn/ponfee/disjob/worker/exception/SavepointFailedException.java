@@ -32,4 +32,8 @@ public class SavepointFailedException extends Exception {
         super(message);
     }
 
+    public SavepointFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
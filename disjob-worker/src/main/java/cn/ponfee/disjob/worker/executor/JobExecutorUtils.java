@@ -29,16 +29,20 @@ import cn.ponfee.disjob.core.dto.worker.SplitJobParam;
 import cn.ponfee.disjob.core.dto.worker.VerifyJobParam;
 import cn.ponfee.disjob.core.exception.JobException;
 import cn.ponfee.disjob.core.exception.JobRuntimeException;
-import org.apache.commons.io.IOUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.util.Assert;
 
-import java.io.InputStream;
+import java.io.File;
 import java.lang.reflect.Modifier;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -48,6 +52,19 @@ import java.util.stream.Collectors;
  */
 public class JobExecutorUtils {
 
+    /**
+     * Map<jobExecutor text, JobExecutorResolver>
+     * <p>verify只会清除接收到请求的那个worker上的缓存，其它worker依赖写入后过期(expireAfterWrite)来重新解析，
+     * 因此过期时间不宜过长，也不能使用expireAfterAccess(频繁调度的job永远不会过期)
+     */
+    private static final Cache<String, JobExecutorResolver> RESOLVER_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(1000)
+        .expireAfterWrite(5, TimeUnit.MINUTES)
+        .build();
+
+    private static final long PROCESS_OUTPUT_DRAIN_TIMEOUT_MS = 10000;
+    private static final String WORKER_PROCESS_LOG_DIR = SystemUtils.USER_HOME + "/disjob/worker/logs/";
+
     public static void verify(VerifyJobParam param) throws JobException {
         try {
             Set<String> jobExecutors;
@@ -64,6 +81,8 @@ public class JobExecutorUtils {
             }
 
             for (String jobExecutorStr : jobExecutors) {
+                // verify job is called when add or update job, so re-resolve the job executor
+                invalidate(jobExecutorStr);
                 JobExecutor jobExecutor = loadJobExecutor(jobExecutorStr);
                 boolean result = jobExecutor.verify(convert(param));
                 Assert.isTrue(result, () -> "Verify job failed: " + param);
@@ -105,45 +124,73 @@ public class JobExecutorUtils {
 
     /**
      * Load JobExecutor instance, String parameter can be spring bean name or qualified class name or source code
+     * <p>The resolved result(spring bean name, bean type or class) is cached by the text, at most 5 minutes
      *
      * @param text spring bean name or qualified class name or source code
      * @return JobExecutor instance object
      * @throws JobException if new instance failed
      */
     public static JobExecutor loadJobExecutor(String text) throws JobException {
-        if (SpringContextHolder.isNotNull()) {
-            // must be annotated with @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-            // get by spring bean name
-            JobExecutor executor = SpringContextHolder.getPrototypeBean(text, JobExecutor.class);
-            if (executor != null) {
-                return executor;
-            }
+        JobExecutorResolver resolver = RESOLVER_CACHE.getIfPresent(text);
+        if (resolver == null) {
+            resolver = resolve(text);
+            RESOLVER_CACHE.put(text, resolver);
+        }
+        JobExecutor executor = resolver.newInstance();
+        if (executor == null) {
+            // the spring bean maybe removed, resolve again
+            invalidate(text);
+            throw new JobException(JobCodeMsg.LOAD_JOB_EXECUTOR_ERROR, "Not found job executor bean: " + text);
+        }
+        return executor;
+    }
 
-            Class<? extends JobExecutor> jobExecutorClass = getJobExecutorClass(text);
-            executor = SpringContextHolder.getPrototypeBean(jobExecutorClass);
-            if (executor != null) {
-                return executor;
-            }
+    /**
+     * Invalidates the cached job executor resolver
+     *
+     * @param text spring bean name or qualified class name or source code
+     */
+    public static void invalidate(String text) {
+        RESOLVER_CACHE.invalidate(text);
+    }
 
-            executor = ClassUtils.newInstance(jobExecutorClass);
-            SpringContextHolder.autowireBean(executor);
-            return executor;
-        } else {
-            Class<? extends JobExecutor> jobExecutorClass = getJobExecutorClass(text);
-            return ClassUtils.newInstance(jobExecutorClass);
-        }
+    /**
+     * Returns the worker local log file of the task process output
+     *
+     * @param taskId the task id
+     * @return log file
+     */
+    public static File processOutputLogFile(long taskId) {
+        return new File(WORKER_PROCESS_LOG_DIR + "task_" + taskId + ".log");
     }
 
     public static ExecutionResult completeProcess(Process process, Charset charset, ExecutionTask task, Logger log) {
-        try (InputStream is = process.getInputStream(); InputStream es = process.getErrorStream()) {
-            // 一次性获取全部执行结果信息：不是在控制台实时展示执行信息，所以此处不用通过异步线程去获取命令的实时执行信息
-            String verbose = IOUtils.toString(is, charset);
-            String error = IOUtils.toString(es, charset);
+        return completeProcess(process, charset, null, task, log);
+    }
+
+    /**
+     * Waits the process completed, and returns the execution result.
+     * <p>标准输出与错误输出由共享的线程非阻塞读取，只保留尾部内容，不论进程输出多少内存占用都是有界的
+     *
+     * @param process the process
+     * @param charset the charset
+     * @param logFile the log file which append all the process output, nullable
+     * @param task    the execution task
+     * @param log     the logger
+     * @return execution result
+     */
+    public static ExecutionResult completeProcess(Process process, Charset charset, File logFile, ExecutionTask task, Logger log) {
+        ProcessOutputPump.Output output = null;
+        try {
+            output = ProcessOutputPump.pump(process, logFile);
             int code = process.waitFor();
+            if (!output.await(PROCESS_OUTPUT_DRAIN_TIMEOUT_MS)) {
+                log.warn("Process output drain timeout: {}", task.getTaskId());
+            }
             if (code == ProcessUtils.SUCCESS_CODE) {
-                return ExecutionResult.success(verbose);
+                return ExecutionResult.success(output.stdout(charset));
             } else {
-                return ExecutionResult.failure(JobCodeMsg.JOB_EXECUTE_FAILED.getCode(), code + ": " + error);
+                return ExecutionResult.failure(JobCodeMsg.JOB_EXECUTE_FAILED.getCode(), code + ": " + output.stderr(charset));
             }
         } catch (Throwable t) {
             log.error("Process execute error: " + task, t);
@@ -151,11 +198,50 @@ public class JobExecutorUtils {
             return ExecutionResult.failure(JobCodeMsg.JOB_EXECUTE_ERROR.getCode(), Throwables.getRootCauseMessage(t));
         } finally {
             ProcessUtils.destroy(process);
+            if (output != null) {
+                output.close();
+            }
         }
     }
 
     // ---------------------------------------------------------------------------------private methods
 
+    private static JobExecutorResolver resolve(String text) throws JobException {
+        if (SpringContextHolder.isNotNull()) {
+            // must be annotated with @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+            // 通过bean definition判断类型，解析时不创建bean实例
+            ListableBeanFactory factory = SpringContextHolder.getListableBeanFactory();
+            // get by spring bean name
+            if (factory.containsBean(text) && isJobExecutorType(factory.getType(text))) {
+                Assert.state(factory.isPrototype(text), () -> "Bean name is not a prototype bean: " + text);
+                return () -> SpringContextHolder.getPrototypeBean(text, JobExecutor.class);
+            }
+
+            Class<? extends JobExecutor> jobExecutorClass = getJobExecutorClass(text);
+            String[] beanNames = factory.getBeanNamesForType(jobExecutorClass);
+            if (beanNames.length > 0) {
+                for (String beanName : beanNames) {
+                    Assert.state(factory.isPrototype(beanName), () -> "Bean type is not a prototype bean: " + jobExecutorClass);
+                }
+                return () -> SpringContextHolder.getPrototypeBean(jobExecutorClass);
+            }
+
+            return () -> {
+                JobExecutor executor = ClassUtils.newInstance(jobExecutorClass);
+                SpringContextHolder.autowireBean(executor);
+                return executor;
+            };
+        } else {
+            Class<? extends JobExecutor> jobExecutorClass = getJobExecutorClass(text);
+            return () -> ClassUtils.newInstance(jobExecutorClass);
+        }
+    }
+
+    private static boolean isJobExecutorType(Class<?> type) {
+        // type is null if cannot be determined, then check it when get bean
+        return type == null || JobExecutor.class.isAssignableFrom(type);
+    }
+
     private static Class<? extends JobExecutor> getJobExecutorClass(String text) throws JobException {
         Class<? extends JobExecutor> type = ClassUtils.getClass(text);
         if (type == null) {
@@ -187,4 +273,9 @@ public class JobExecutorUtils {
         return splitParam;
     }
 
+    @FunctionalInterface
+    private interface JobExecutorResolver {
+        JobExecutor newInstance();
+    }
+
 }
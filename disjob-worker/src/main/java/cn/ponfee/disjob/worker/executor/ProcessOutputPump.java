@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.executor;
+
+import cn.ponfee.disjob.common.concurrent.Threads;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Process output pump, reads all the processes stdout and stderr on a shared thread.
+ * <p>通过`InputStream#available`非阻塞读取，只保留输出的尾部内容(有界内存)，可选将全部输出写入到本地日志文件
+ *
+ * @author Ponfee
+ */
+final class ProcessOutputPump {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessOutputPump.class);
+
+    /**
+     * Retained tail bytes of each output stream
+     */
+    private static final int TAIL_CAPACITY = 64 * 1024;
+
+    /**
+     * Maximum read bytes of each output stream per round
+     */
+    private static final int READ_CHUNK_SIZE = 8192;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final Queue<Output> OUTPUTS = new ConcurrentLinkedQueue<>();
+
+    private static final Thread PUMP_THREAD;
+
+    static {
+        PUMP_THREAD = Threads.newThread("process_output_pump", true, Thread.NORM_PRIORITY, ProcessOutputPump::loop, LOG);
+        PUMP_THREAD.start();
+    }
+
+    private ProcessOutputPump() {
+        throw new AssertionError("No ProcessOutputPump instances for you!");
+    }
+
+    /**
+     * Register the process to pump output
+     *
+     * @param process the process
+     * @param logFile the log file which append all output, nullable
+     * @return process output
+     * @throws IOException if open log file occur error
+     */
+    static Output pump(Process process, File logFile) throws IOException {
+        OutputStream log = null;
+        if (logFile != null) {
+            FileUtils.forceMkdirParent(logFile);
+            log = new BufferedOutputStream(new FileOutputStream(logFile, true));
+        }
+        Output output = new Output(process, log);
+        OUTPUTS.add(output);
+        LockSupport.unpark(PUMP_THREAD);
+        return output;
+    }
+
+    private static void loop() {
+        byte[] buffer = new byte[READ_CHUNK_SIZE];
+        while (true) {
+            boolean busy = false;
+            for (Iterator<Output> iter = OUTPUTS.iterator(); iter.hasNext(); ) {
+                Output output = iter.next();
+                try {
+                    busy |= output.pump(buffer);
+                    if (output.isDrained()) {
+                        iter.remove();
+                        output.finish();
+                    }
+                } catch (Throwable t) {
+                    if (!output.closed) {
+                        LOG.warn("Pump process output error: {}", t.getMessage());
+                    }
+                    iter.remove();
+                    output.finish();
+                }
+            }
+            if (!busy) {
+                // 没有可读取的数据时短暂休眠，有新注册的进程时会被唤醒
+                LockSupport.parkNanos(OUTPUTS.isEmpty() ? IDLE_PARK_NANOS * 100 : IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * The process output
+     */
+    static final class Output implements Closeable {
+        private final Process process;
+        private final InputStream stdout;
+        private final InputStream stderr;
+        private final TailBuffer stdoutTail = new TailBuffer(TAIL_CAPACITY);
+        private final TailBuffer stderrTail = new TailBuffer(TAIL_CAPACITY);
+        private final OutputStream log;
+        private final CountDownLatch drained = new CountDownLatch(1);
+        private volatile boolean closed = false;
+
+        private Output(Process process, OutputStream log) {
+            this.process = process;
+            this.stdout = process.getInputStream();
+            this.stderr = process.getErrorStream();
+            this.log = log;
+        }
+
+        /**
+         * Waits the process output drained
+         *
+         * @param timeoutMs the timeout milliseconds
+         * @return {@code true} if drained
+         * @throws InterruptedException if interrupted
+         */
+        boolean await(long timeoutMs) throws InterruptedException {
+            return drained.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        String stdout(Charset charset) {
+            return stdoutTail.toString(charset);
+        }
+
+        String stderr(Charset charset) {
+            return stderrTail.toString(charset);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            LockSupport.unpark(PUMP_THREAD);
+        }
+
+        private boolean pump(byte[] buffer) throws IOException {
+            if (closed) {
+                throw new EOFException("Process output closed.");
+            }
+            boolean read = pump(stdout, stdoutTail, buffer);
+            return pump(stderr, stderrTail, buffer) || read;
+        }
+
+        private boolean pump(InputStream input, TailBuffer tail, byte[] buffer) throws IOException {
+            int available = input.available();
+            if (available <= 0) {
+                return false;
+            }
+            int n = input.read(buffer, 0, Math.min(available, buffer.length));
+            if (n <= 0) {
+                return false;
+            }
+            tail.write(buffer, n);
+            if (log != null) {
+                log.write(buffer, 0, n);
+            }
+            return true;
+        }
+
+        private boolean isDrained() throws IOException {
+            return !process.isAlive() && stdout.available() <= 0 && stderr.available() <= 0;
+        }
+
+        private void finish() {
+            IOUtils.closeQuietly(stdout, stderr, log);
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Bounded ring buffer, retains the tail bytes.
+     */
+    private static final class TailBuffer {
+        private final byte[] ring;
+        private long total = 0;
+
+        private TailBuffer(int capacity) {
+            this.ring = new byte[capacity];
+        }
+
+        private synchronized void write(byte[] bytes, int len) {
+            int capacity = ring.length;
+            int off = 0;
+            if (len > capacity) {
+                off = len - capacity;
+                total += off;
+                len = capacity;
+            }
+            int pos = (int) (total % capacity);
+            int first = Math.min(len, capacity - pos);
+            System.arraycopy(bytes, off, ring, pos, first);
+            System.arraycopy(bytes, off + first, ring, 0, len - first);
+            total += len;
+        }
+
+        private synchronized String toString(Charset charset) {
+            int capacity = ring.length;
+            if (total <= capacity) {
+                return new String(ring, 0, (int) total, charset);
+            }
+            int pos = (int) (total % capacity);
+            byte[] bytes = new byte[capacity];
+            System.arraycopy(ring, pos, bytes, 0, capacity - pos);
+            System.arraycopy(ring, 0, bytes, capacity - pos, pos);
+            return "...(truncated " + (total - capacity) + " bytes)" + new String(bytes, charset);
+        }
+    }
+
+}
@@ -26,6 +26,8 @@ public interface Savepoint {
 
     /**
      * Save the task execution snapshot
+     * <p>快照数据是异步批量保存的，同一个task只会保留最新的快照数据；
+     * <p>如果之前的快照保存失败(被supervisor拒绝或多次重试后仍失败)，则在本次调用时抛出SavepointFailedException
      *
      * @param executeSnapshot the task execution snapshot data
      * @throws Exception if saved occur exception
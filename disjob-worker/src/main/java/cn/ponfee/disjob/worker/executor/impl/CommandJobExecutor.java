@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 
@@ -77,7 +78,8 @@ public class CommandJobExecutor extends JobExecutor {
         Process process = Runtime.getRuntime().exec(commandParam.cmdarray, commandParam.envp);
         this.pid = ProcessUtils.getProcessId(process);
         LOG.info("Command process id: {}, {}", task.getTaskId(), pid);
-        return JobExecutorUtils.completeProcess(process, charset, task, LOG);
+        File logFile = commandParam.logOutput ? JobExecutorUtils.processOutputLogFile(task.getTaskId()) : null;
+        return JobExecutorUtils.completeProcess(process, charset, logFile, task, LOG);
     }
 
     @Getter
@@ -88,6 +90,11 @@ public class CommandJobExecutor extends JobExecutor {
         private String[] cmdarray;
         private String[] envp;
         private String charset;
+
+        /**
+         * Whether append the process output to worker local log file
+         */
+        private boolean logOutput;
     }
 
 }
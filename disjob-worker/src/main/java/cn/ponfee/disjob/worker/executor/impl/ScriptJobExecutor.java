@@ -19,11 +19,11 @@ package cn.ponfee.disjob.worker.executor.impl;
 import cn.ponfee.disjob.common.util.Files;
 import cn.ponfee.disjob.common.util.Jsons;
 import cn.ponfee.disjob.common.util.ProcessUtils;
-import cn.ponfee.disjob.core.base.JobCodeMsg;
-import cn.ponfee.disjob.core.exception.JobRuntimeException;
+import cn.ponfee.disjob.common.util.UuidUtils;
 import cn.ponfee.disjob.worker.executor.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
@@ -36,6 +36,8 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.StandardCopyOption;
 
 import static org.apache.commons.lang3.SystemUtils.IS_OS_WINDOWS;
 import static org.apache.commons.lang3.SystemUtils.OS_NAME;
@@ -81,13 +83,29 @@ public class ScriptJobExecutor extends JobExecutor {
         scriptParam.type.check();
         this.charset = Files.charset(scriptParam.charset);
 
-        String scriptFileName = scriptParam.type.buildFileName(task.getTaskId());
-        String scriptPath = prepareScriptFile(scriptParam.script, scriptFileName, charset);
+        Assert.hasText(scriptParam.script, "Script source cannot be empty.");
+        boolean download = StringUtils.startsWithAny(scriptParam.script, DOWNLOAD_PROTOCOL);
+        File scriptFile;
+        if (download) {
+            // 远程脚本内容可能会变化，每次执行都重新下载
+            scriptFile = downloadScriptFile(scriptParam.script, scriptParam.type.buildFileName("task_" + task.getTaskId()));
+        } else {
+            // 以脚本内容的hash值作为文件名，相同的脚本在多次执行间复用
+            String sha1 = DigestUtils.sha1Hex(scriptParam.script + charset.name());
+            scriptFile = prepareScriptFile(scriptParam.script, scriptParam.type.buildFileName(sha1), charset);
+        }
 
-        Process process = scriptParam.type.exec(scriptPath, scriptParam.envp);
-        this.pid = ProcessUtils.getProcessId(process);
-        LOG.info("Script process id: {}, {}", task.getTaskId(), pid);
-        return JobExecutorUtils.completeProcess(process, charset, task, LOG);
+        try {
+            Process process = scriptParam.type.exec(scriptFile.getAbsolutePath(), scriptParam.envp);
+            this.pid = ProcessUtils.getProcessId(process);
+            LOG.info("Script process id: {}, {}", task.getTaskId(), pid);
+            File logFile = scriptParam.logOutput ? JobExecutorUtils.processOutputLogFile(task.getTaskId()) : null;
+            return JobExecutorUtils.completeProcess(process, charset, logFile, task, LOG);
+        } finally {
+            if (download) {
+                FileUtils.deleteQuietly(scriptFile);
+            }
+        }
     }
 
     public enum ScriptType {
@@ -101,8 +119,8 @@ public class ScriptJobExecutor extends JobExecutor {
             }
 
             @Override
-            public String buildFileName(long taskId) {
-                return String.format("cmd_%d.bat", taskId);
+            public String buildFileName(String id) {
+                return String.format("cmd_%s.bat", id);
             }
 
             @Override
@@ -120,8 +138,8 @@ public class ScriptJobExecutor extends JobExecutor {
             }
 
             @Override
-            public String buildFileName(long taskId) {
-                return String.format("powershell_%d.ps1", taskId);
+            public String buildFileName(String id) {
+                return String.format("powershell_%s.ps1", id);
             }
 
             @Override
@@ -139,13 +157,12 @@ public class ScriptJobExecutor extends JobExecutor {
             }
 
             @Override
-            public String buildFileName(long taskId) {
-                return String.format("shell_%d.sh", taskId);
+            public String buildFileName(String id) {
+                return String.format("shell_%s.sh", id);
             }
 
             @Override
             public Process exec(String scriptPath, String[] envp) throws Exception {
-                chmodFile(scriptPath);
                 return Runtime.getRuntime().exec(new String[]{"/bin/sh", scriptPath}, envp);
             }
         },
@@ -159,15 +176,12 @@ public class ScriptJobExecutor extends JobExecutor {
             }
 
             @Override
-            public String buildFileName(long taskId) {
-                return String.format("python_%d.py", taskId);
+            public String buildFileName(String id) {
+                return String.format("python_%s.py", id);
             }
 
             @Override
             public Process exec(String scriptPath, String[] envp) throws Exception {
-                if (!IS_OS_WINDOWS) {
-                    chmodFile(scriptPath);
-                }
                 return Runtime.getRuntime().exec(new String[]{"python", scriptPath}, envp);
             }
         },
@@ -175,7 +189,7 @@ public class ScriptJobExecutor extends JobExecutor {
 
         public abstract void check();
 
-        public abstract String buildFileName(long taskId);
+        public abstract String buildFileName(String id);
 
         public abstract Process exec(String scriptPath, String[] envp) throws Exception;
     }
@@ -189,34 +203,47 @@ public class ScriptJobExecutor extends JobExecutor {
         private String charset;
         private String script;
         private String[] envp;
-    }
 
-    private static String prepareScriptFile(String script, String scriptFileName, Charset charset) throws IOException {
-        Assert.hasText(script, "Script source cannot be empty.");
-        String scriptPath = WORKER_SCRIPT_DIR + scriptFileName;
+        /**
+         * Whether append the process output to worker local log file
+         */
+        private boolean logOutput;
+    }
 
-        File scriptFile = new File(scriptPath);
+    private static File prepareScriptFile(String script, String scriptFileName, Charset charset) throws Exception {
+        File scriptFile = new File(WORKER_SCRIPT_DIR + scriptFileName);
         if (scriptFile.exists()) {
-            return scriptPath;
+            return scriptFile;
         }
 
-        FileUtils.forceMkdirParent(scriptFile);
-        if (!scriptFile.createNewFile()) {
-            throw new JobRuntimeException(JobCodeMsg.JOB_EXECUTE_ERROR, "Create script file failed: " + scriptPath);
-        }
-
-        // download script from url
-        if (StringUtils.startsWithAny(script, DOWNLOAD_PROTOCOL)) {
-            // read-timeout: 10 minutes
-            FileUtils.copyURLToFile(new URL(script), scriptFile, 5000, 600000);
-            return scriptPath;
+        // 先写入临时文件再原子重命名，避免并发执行时读取到不完整的脚本文件
+        File tempFile = new File(WORKER_SCRIPT_DIR + scriptFileName + "." + UuidUtils.uuid32() + ".tmp");
+        try {
+            FileUtils.write(tempFile, script, charset);
+            chmodFile(tempFile);
+            java.nio.file.Files.move(tempFile.toPath(), scriptFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ignored) {
+            // created by other thread
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
         }
+        return scriptFile;
+    }
 
-        FileUtils.write(scriptFile, script, charset);
-        return scriptPath;
+    private static File downloadScriptFile(String url, String scriptFileName) throws Exception {
+        File scriptFile = new File(WORKER_SCRIPT_DIR + scriptFileName);
+        FileUtils.forceMkdirParent(scriptFile);
+        // read-timeout: 10 minutes
+        FileUtils.copyURLToFile(new URL(url), scriptFile, 5000, 600000);
+        chmodFile(scriptFile);
+        return scriptFile;
     }
 
-    private static void chmodFile(String scriptPath) throws Exception {
+    private static void chmodFile(File scriptFile) throws Exception {
+        if (IS_OS_WINDOWS) {
+            return;
+        }
+        String scriptPath = scriptFile.getAbsolutePath();
         //Runtime.getRuntime().exec(new String[]{"/bin/chmod", "755", scriptPath}).waitFor();
         int code = new ProcessBuilder("/bin/chmod", "755", scriptPath).start().waitFor();
         Assert.state(code == 0, () -> "Chmod script file '" + scriptPath + "' failed, code: " + code);
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker;
+
+import cn.ponfee.disjob.common.util.Files;
+import cn.ponfee.disjob.common.util.UuidUtils;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.*;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import cn.ponfee.disjob.worker.base.TaskDispatchLedger;
+import cn.ponfee.disjob.worker.base.TaskTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Worker startup test
+ *
+ * @author Ponfee
+ */
+public class WorkerStartupTest {
+
+    @Test
+    public void testReplayLedgerAfterRestart() throws Exception {
+        String directory = Files.tmpDir() + "disjob-ledger-test-" + System.nanoTime();
+        String fileName = "task-ledger.log";
+        Worker oldWorker = new Worker("default", UuidUtils.uuid32(), "127.0.0.1", 80);
+
+        // 重启前接收的task
+        TaskTimingWheel timingWheel = new TaskTimingWheel(100, 60);
+        TaskDispatchLedger ledger = new TaskDispatchLedger(directory, fileName);
+        timingWheel.bindLedger(ledger);
+        timingWheel.offer(createParam(1, oldWorker, RouteStrategy.ROUND_ROBIN));
+        timingWheel.offer(createParam(2, oldWorker, RouteStrategy.BROADCAST));
+        timingWheel.offer(createParam(3, oldWorker, RouteStrategy.RANDOM));
+        ledger.close();
+
+        // 重启后的worker id已变化
+        Worker newWorker = new Worker("default", UuidUtils.uuid32(), "127.0.0.1", 80);
+        timingWheel = new TaskTimingWheel(100, 60);
+        ledger = new TaskDispatchLedger(directory, fileName);
+        timingWheel.bindLedger(ledger);
+        WorkerStartup.replayLedger(ledger, newWorker, timingWheel);
+
+        List<ExecuteTaskParam> tasks = timingWheel.poll(System.currentTimeMillis() + 100);
+        assertThat(tasks.stream().map(ExecuteTaskParam::getTaskId).sorted().collect(Collectors.toList())).containsExactly(1L, 3L);
+        assertThat(tasks).allMatch(e -> newWorker.equals(e.getWorker()));
+        // 广播任务不可转交，从账本中移除
+        assertThat(ledger.pendingTasks().stream().map(ExecuteTaskParam::getTaskId).collect(Collectors.toList())).containsExactly(1L, 3L);
+        ledger.close();
+    }
+
+    private static ExecuteTaskParam createParam(long taskId, Worker worker, RouteStrategy routeStrategy) {
+        ExecuteTaskParam param = new ExecuteTaskParam();
+        param.setOperation(Operation.TRIGGER);
+        param.setTaskId(taskId);
+        param.setInstanceId(100);
+        param.setTriggerTime(System.currentTimeMillis());
+        param.setJobId(10);
+        param.setJobType(JobType.GENERAL);
+        param.setRouteStrategy(routeStrategy);
+        param.setShutdownStrategy(ShutdownStrategy.RESUME);
+        param.setPriority(JobPriority.NORMAL);
+        param.setJobExecutor("jobExecutor");
+        param.setWorker(worker);
+        return param;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.common.util.Files;
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.JobPriority;
+import cn.ponfee.disjob.core.enums.JobType;
+import cn.ponfee.disjob.core.enums.Operation;
+import cn.ponfee.disjob.core.enums.RouteStrategy;
+import cn.ponfee.disjob.core.enums.ShutdownStrategy;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Task dispatch ledger test
+ *
+ * @author Ponfee
+ */
+public class TaskDispatchLedgerTest {
+
+    @Test
+    public void testReplay() throws Exception {
+        String directory = Files.tmpDir() + "disjob-ledger-test-" + System.nanoTime();
+        String fileName = "task-ledger.log";
+
+        TaskDispatchLedger ledger = new TaskDispatchLedger(directory, fileName);
+        for (long taskId = 1; taskId <= 5; taskId++) {
+            ledger.accepted(createParam(taskId));
+        }
+        ledger.accepted(createParam(3));
+        ledger.completed(2);
+        ledger.completed(4);
+        ledger.completed(9);
+        ledger.close();
+
+        // 模拟进程崩溃时写入的不完整记录
+        try (FileOutputStream out = new FileOutputStream(new File(directory, fileName), true)) {
+            out.write(new byte[]{0, 0, 0, 100, 1, 2});
+        }
+
+        ledger = new TaskDispatchLedger(directory, fileName);
+        List<ExecuteTaskParam> tasks = ledger.pendingTasks();
+        assertThat(tasks.stream().map(ExecuteTaskParam::getTaskId).collect(Collectors.toList())).containsExactly(1L, 3L, 5L);
+        assertThat(tasks.get(0).getWorker()).isEqualTo(new Worker("default", "workerId", "host", 1));
+        assertThat(tasks.get(0).getJobExecutor()).isEqualTo("jobExecutor");
+
+        ledger.completed(1);
+        ledger.close();
+        ledger = new TaskDispatchLedger(directory, fileName);
+        assertThat(ledger.pendingTasks().stream().map(ExecuteTaskParam::getTaskId).collect(Collectors.toList())).containsExactly(3L, 5L);
+        ledger.close();
+    }
+
+    private static ExecuteTaskParam createParam(long taskId) {
+        ExecuteTaskParam param = new ExecuteTaskParam();
+        param.setOperation(Operation.TRIGGER);
+        param.setTaskId(taskId);
+        param.setInstanceId(100);
+        param.setTriggerTime(System.currentTimeMillis());
+        param.setJobId(10);
+        param.setJobType(JobType.GENERAL);
+        param.setRouteStrategy(RouteStrategy.ROUND_ROBIN);
+        param.setShutdownStrategy(ShutdownStrategy.RESUME);
+        param.setPriority(JobPriority.NORMAL);
+        param.setJobExecutor("jobExecutor");
+        param.setWorker(new Worker("default", "workerId", "host", 1));
+        return param;
+    }
+
+}
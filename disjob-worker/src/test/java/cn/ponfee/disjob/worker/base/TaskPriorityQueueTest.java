@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.*;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Task priority queue test
+ *
+ * @author Ponfee
+ */
+public class TaskPriorityQueueTest {
+
+    @Test
+    public void testPriorityLanes() throws InterruptedException {
+        TaskPriorityQueue queue = new TaskPriorityQueue(60000);
+        queue.offerLast(createTask(1, JobPriority.LOW));
+        queue.offerLast(createTask(2, JobPriority.NORMAL));
+        queue.offerLast(createTask(3, JobPriority.LOW));
+        queue.offerLast(createTask(4, JobPriority.HIGH));
+        queue.putFirst(createTask(5, JobPriority.NORMAL));
+        assertThat(queue.size()).isEqualTo(5);
+        assertThat(queue.anyMatch(e -> e.getTaskId() == 3)).isTrue();
+
+        List<Long> taskIds = new ArrayList<>();
+        while (queue.size() > 0) {
+            taskIds.add(queue.takeFirst().getTaskId());
+        }
+        assertThat(taskIds).containsExactly(4L, 5L, 2L, 1L, 3L);
+    }
+
+    @Test
+    public void testAging() throws InterruptedException {
+        TaskPriorityQueue queue = new TaskPriorityQueue(10);
+        queue.offerLast(createTask(1, JobPriority.LOW));
+        Thread.sleep(50);
+        queue.offerLast(createTask(2, JobPriority.HIGH));
+        assertThat(queue.takeFirst().getTaskId()).isEqualTo(1L);
+        assertThat(queue.takeFirst().getTaskId()).isEqualTo(2L);
+
+        // 重新入队的task保持首次入队的时间
+        queue.offerLast(createTask(3, JobPriority.LOW));
+        Thread.sleep(50);
+        WorkerTask task = queue.takeFirst();
+        queue.offerLast(createTask(4, JobPriority.HIGH));
+        queue.putFirst(task);
+        assertThat(queue.takeFirst().getTaskId()).isEqualTo(3L);
+
+        queue.clear();
+        assertThat(queue.size()).isZero();
+    }
+
+    private static WorkerTask createTask(long taskId, JobPriority priority) {
+        ExecuteTaskParam param = new ExecuteTaskParam();
+        param.setOperation(Operation.TRIGGER);
+        param.setTaskId(taskId);
+        param.setInstanceId(100);
+        param.setJobId(10);
+        param.setJobType(JobType.GENERAL);
+        param.setRouteStrategy(RouteStrategy.ROUND_ROBIN);
+        param.setShutdownStrategy(ShutdownStrategy.RESUME);
+        param.setPriority(priority);
+        param.setJobExecutor("jobExecutor");
+        param.setWorker(new Worker("default", "workerId", "host", 1));
+        return new WorkerTask(param);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.core.base.SupervisorRpcService;
+import cn.ponfee.disjob.core.dto.supervisor.SavepointParam;
+import cn.ponfee.disjob.worker.exception.SavepointFailedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * TaskSavepointBuffer test
+ *
+ * @author Ponfee
+ */
+public class TaskSavepointBufferTest {
+
+    private static final String WORKER = "app-test:1a2b3c:127.0.0.1:10001";
+
+    @Test
+    public void testRetryThenDiscard() throws Exception {
+        SupervisorRpcService rpc = mock(SupervisorRpcService.class);
+        when(rpc.savepoints(anyList())).thenThrow(new IllegalStateException("supervisor unavailable"));
+        TaskSavepointBuffer buffer = new TaskSavepointBuffer(rpc, false);
+
+        buffer.put(SavepointParam.of(1L, WORKER, "s1"));
+        for (int i = 1; i < TaskSavepointBuffer.FLUSH_MAX_ATTEMPTS; i++) {
+            buffer.flush();
+            Assertions.assertEquals(1, buffer.size());
+        }
+        buffer.flush();
+        Assertions.assertEquals(0, buffer.size());
+        verify(rpc, times(TaskSavepointBuffer.FLUSH_MAX_ATTEMPTS)).savepoints(anyList());
+
+        // 丢弃后在下一次save时报告给调用方，之后恢复正常
+        Assertions.assertThrows(SavepointFailedException.class, () -> buffer.put(SavepointParam.of(1L, WORKER, "s2")));
+        buffer.put(SavepointParam.of(1L, WORKER, "s3"));
+        Assertions.assertEquals(1, buffer.size());
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        SupervisorRpcService rpc = mock(SupervisorRpcService.class);
+        when(rpc.savepoints(anyList())).thenReturn(Collections.singletonList(2L));
+        TaskSavepointBuffer buffer = new TaskSavepointBuffer(rpc, false);
+
+        buffer.put(SavepointParam.of(1L, WORKER, "s1"));
+        buffer.put(SavepointParam.of(2L, WORKER, "s2"));
+        buffer.flush();
+        Assertions.assertEquals(0, buffer.size());
+        verify(rpc, times(1)).savepoints(anyList());
+
+        buffer.put(SavepointParam.of(1L, WORKER, "s1"));
+        Assertions.assertThrows(SavepointFailedException.class, () -> buffer.put(SavepointParam.of(2L, WORKER, "s2")));
+    }
+
+    @Test
+    public void testFlushTask() throws Exception {
+        SupervisorRpcService rpc = mock(SupervisorRpcService.class);
+        when(rpc.savepoints(anyList())).thenReturn(Collections.emptyList()).thenReturn(Collections.singletonList(1L));
+        TaskSavepointBuffer buffer = new TaskSavepointBuffer(rpc, false);
+
+        buffer.flush(1L);
+        verify(rpc, never()).savepoints(anyList());
+
+        buffer.put(SavepointParam.of(1L, WORKER, "s1"));
+        buffer.flush(1L);
+        buffer.put(SavepointParam.of(1L, WORKER, "s2"));
+        Assertions.assertThrows(SavepointFailedException.class, () -> buffer.flush(1L));
+        Assertions.assertEquals(0, buffer.size());
+    }
+
+}
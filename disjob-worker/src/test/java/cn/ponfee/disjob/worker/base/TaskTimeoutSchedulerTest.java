@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.base;
+
+import cn.ponfee.disjob.core.base.Worker;
+import cn.ponfee.disjob.core.enums.*;
+import cn.ponfee.disjob.dispatch.ExecuteTaskParam;
+import cn.ponfee.disjob.worker.executor.ExecutionResult;
+import cn.ponfee.disjob.worker.executor.ExecutionTask;
+import cn.ponfee.disjob.worker.executor.JobExecutor;
+import cn.ponfee.disjob.worker.executor.Savepoint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskTimeoutScheduler test
+ *
+ * @author Ponfee
+ */
+public class TaskTimeoutSchedulerTest {
+
+    private static final Worker WORKER = new Worker("g", "w", "127.0.0.1", 80);
+
+    @Test
+    public void testStopError() throws Exception {
+        try (TaskTimeoutScheduler scheduler = new TaskTimeoutScheduler()) {
+            CountDownLatch stopped = new CountDownLatch(1);
+            WorkerTask task = createTask(1, () -> {
+                stopped.countDown();
+                throw new IllegalStateException("stop error");
+            });
+
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+            thread.start();
+
+            TaskTimeoutScheduler.Deadline deadline = scheduler.schedule(thread, task, 50);
+            Assertions.assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+            Assertions.assertTrue(stopped.await(2, TimeUnit.SECONDS));
+            Assertions.assertTrue(deadline.isExpired());
+        }
+    }
+
+    @Test
+    public void testStopBlocked() throws Exception {
+        try (TaskTimeoutScheduler scheduler = new TaskTimeoutScheduler()) {
+            CountDownLatch blocker = new CountDownLatch(1);
+            CountDownLatch blockedStopped = new CountDownLatch(1);
+            WorkerTask blockedTask = createTask(1, () -> {
+                blockedStopped.countDown();
+                awaitQuietly(blocker);
+            });
+            Thread blockedThread = new Thread(() -> awaitQuietly(new CountDownLatch(1)));
+            blockedThread.start();
+            scheduler.schedule(blockedThread, blockedTask, 10);
+            Assertions.assertTrue(blockedStopped.await(2, TimeUnit.SECONDS));
+
+            // 前一个任务的stop阻塞，不影响后续任务的超时处理
+            CountDownLatch stopped = new CountDownLatch(1);
+            WorkerTask task = createTask(2, stopped::countDown);
+            Thread thread = new Thread(() -> awaitQuietly(new CountDownLatch(1)));
+            thread.start();
+            TaskTimeoutScheduler.Deadline deadline = scheduler.schedule(thread, task, 10);
+            Assertions.assertTrue(stopped.await(2, TimeUnit.SECONDS));
+            Assertions.assertTrue(deadline.isExpired());
+            blocker.countDown();
+        }
+    }
+
+    private static WorkerTask createTask(long taskId, Runnable onStop) {
+        ExecuteTaskParam param = new ExecuteTaskParam();
+        param.setOperation(Operation.TRIGGER);
+        param.setTaskId(taskId);
+        param.setInstanceId(100);
+        param.setTriggerTime(System.currentTimeMillis());
+        param.setJobId(10);
+        param.setJobType(JobType.GENERAL);
+        param.setRouteStrategy(RouteStrategy.RANDOM);
+        param.setShutdownStrategy(ShutdownStrategy.RESUME);
+        param.setPriority(JobPriority.NORMAL);
+        param.setJobExecutor("jobExecutor");
+        param.setWorker(WORKER);
+        WorkerTask task = new WorkerTask(param);
+        task.bindTaskExecutor(new JobExecutor() {
+            @Override
+            protected void onStop() {
+                onStop.run();
+            }
+
+            @Override
+            public ExecutionResult execute(ExecutionTask executionTask, Savepoint savepoint) {
+                return ExecutionResult.success();
+            }
+        });
+        return task;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ignored) {
+            // ignored
+        }
+    }
+
+}
@@ -51,4 +51,25 @@ public class CommandJobExecutorTest {
         Assertions.assertEquals(expect, Jsons.toJson(result));
     }
 
+    @Test
+    public void testLargeOutput() throws Exception {
+        if (!SystemUtils.IS_OS_UNIX) {
+            return;
+        }
+
+        ExecutionTask task = new ExecutionTask();
+        task.setTaskId(2L);
+
+        // 输出约1MB，只保留尾部内容
+        CommandJobExecutor.CommandParam commandParam = new CommandJobExecutor.CommandParam();
+        commandParam.setCmdarray(new String[]{"/bin/sh", "-c", "i=0; while [ $i -lt 20000 ]; do echo \"line-$i-0123456789012345678901234567890123456789\"; i=$((i+1)); done"});
+        task.setTaskParam(Jsons.toJson(commandParam));
+
+        ExecutionResult result = new CommandJobExecutor().execute(task, Savepoint.NOOP);
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertTrue(result.getMsg().startsWith("...(truncated "));
+        Assertions.assertTrue(result.getMsg().endsWith("line-19999-0123456789012345678901234567890123456789\n"));
+        Assertions.assertTrue(result.getMsg().length() < 70 * 1024);
+    }
+
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022-2024 Ponfee (http://www.ponfee.cn/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.ponfee.disjob.worker.executor;
+
+import cn.ponfee.disjob.common.spring.SpringContextHolder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JobExecutorUtils test
+ *
+ * @author Ponfee
+ */
+public class JobExecutorUtilsTest {
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    public static void setup() {
+        context = new AnnotationConfigApplicationContext(SpringContextHolder.class, JobExecutorConfiguration.class);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        context.close();
+    }
+
+    @Test
+    public void testLoadByBeanName() throws Exception {
+        JobExecutorUtils.invalidate("namedJobExecutor");
+        NamedJobExecutor.INSTANCES.set(0);
+
+        // 解析时不创建bean实例，每次加载只创建一个新的prototype bean
+        JobExecutor executor1 = JobExecutorUtils.loadJobExecutor("namedJobExecutor");
+        assertThat(executor1).isInstanceOf(NamedJobExecutor.class);
+        assertThat(NamedJobExecutor.INSTANCES.get()).isEqualTo(1);
+
+        JobExecutor executor2 = JobExecutorUtils.loadJobExecutor("namedJobExecutor");
+        assertThat(executor2).isNotSameAs(executor1);
+        assertThat(NamedJobExecutor.INSTANCES.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoadByBeanType() throws Exception {
+        String text = TypedJobExecutor.class.getName();
+        JobExecutorUtils.invalidate(text);
+        TypedJobExecutor.INSTANCES.set(0);
+
+        assertThat(JobExecutorUtils.loadJobExecutor(text)).isInstanceOf(TypedJobExecutor.class);
+        assertThat(TypedJobExecutor.INSTANCES.get()).isEqualTo(1);
+        assertThat(JobExecutorUtils.loadJobExecutor(text)).isInstanceOf(TypedJobExecutor.class);
+        assertThat(TypedJobExecutor.INSTANCES.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoadByClassName() throws Exception {
+        JobExecutor executor = JobExecutorUtils.loadJobExecutor(PlainJobExecutor.class.getName());
+        assertThat(executor).isInstanceOf(PlainJobExecutor.class);
+        assertThat(((PlainJobExecutor) executor).environment).isNotNull();
+    }
+
+    @Test
+    public void testLoadNotPrototypeBean() {
+        assertThatThrownBy(() -> JobExecutorUtils.loadJobExecutor("singletonJobExecutor"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("Bean name is not a prototype bean");
+        assertThatThrownBy(() -> JobExecutorUtils.loadJobExecutor("notExistsJobExecutor"))
+            .hasMessageContaining("notExistsJobExecutor");
+    }
+
+    @Configuration
+    public static class JobExecutorConfiguration {
+        @Bean
+        @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+        public NamedJobExecutor namedJobExecutor() {
+            return new NamedJobExecutor();
+        }
+
+        @Bean
+        @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+        public TypedJobExecutor typedJobExecutor() {
+            return new TypedJobExecutor();
+        }
+
+        @Bean
+        public SingletonJobExecutor singletonJobExecutor() {
+            return new SingletonJobExecutor();
+        }
+    }
+
+    public static class NamedJobExecutor extends TestJobExecutor {
+        private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public NamedJobExecutor() {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    public static class TypedJobExecutor extends TestJobExecutor {
+        private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public TypedJobExecutor() {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    public static class SingletonJobExecutor extends TestJobExecutor {
+    }
+
+    public static class PlainJobExecutor extends TestJobExecutor {
+        @Autowired
+        private Environment environment;
+    }
+
+    public abstract static class TestJobExecutor extends JobExecutor {
+        @Override
+        public ExecutionResult execute(ExecutionTask task, Savepoint savepoint) {
+            return ExecutionResult.success();
+        }
+    }
+
+}
@@ -50,6 +50,7 @@ CREATE TABLE `sched_job` (
   `misfire_strategy`      TINYINT        UNSIGNED  NOT NULL  DEFAULT '1'                  COMMENT '过期策略：1-立即触发执行一次；2-跳过所有被错过的；3-执行所有被错过的；',
   `route_strategy`        TINYINT        UNSIGNED  NOT NULL  DEFAULT '1'                  COMMENT '任务分派给哪一个worker的路由策略：1-轮询；2-随机；3-简单的哈希；4-一致性哈希；5-本地优先；6-广播；',
   `shutdown_strategy`     TINYINT        UNSIGNED  NOT NULL  DEFAULT '1'                  COMMENT 'Worker关机的执行策略(如重新发布服务时)：1-恢复执行；2-暂停执行；3-取消执行；',
+  `priority`              TINYINT        UNSIGNED  NOT NULL  DEFAULT '2'                  COMMENT '任务优先级(Worker按优先级分道执行)：1-低优先级；2-普通优先级；3-高优先级；',
   `last_trigger_time`     BIGINT         UNSIGNED            DEFAULT NULL                 COMMENT '最近一次的触发时间(毫秒时间戳)',
   `next_trigger_time`     BIGINT         UNSIGNED            DEFAULT NULL                 COMMENT '下一次的触发时间(毫秒时间戳)',
   `next_scan_time`        DATETIME(3)              NOT NULL  DEFAULT CURRENT_TIMESTAMP(3) COMMENT '下一次的扫描时间',
@@ -96,6 +97,9 @@ CREATE TABLE `sched_instance` (
   `run_end_time`          DATETIME(3)                        DEFAULT NULL                 COMMENT '运行结束时间',
   `retried_count`         TINYINT        UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '当前是第几次重试(the maximum value is sched_job.retry_count)',
   `next_scan_time`        DATETIME(3)              NOT NULL  DEFAULT CURRENT_TIMESTAMP(3) COMMENT '下一次的扫描时间',
+  `task_count`            INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT 'task总数量(0表示未统计)',
+  `terminated_task_count` INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '已结束(终止状态)的task数量',
+  `paused_task_count`     INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '已暂停(PAUSED状态)的task数量',
   `workflow_cur_node`     VARCHAR(255)                       DEFAULT NULL                 COMMENT '工作流任务的当前节点(sched_workflow.cur_node，非工作流任务时为NULL)',
   `version`               INT            UNSIGNED  NOT NULL  DEFAULT '1'                  COMMENT '行记录版本号',
   `updated_at`            DATETIME(3)              NOT NULL  DEFAULT CURRENT_TIMESTAMP(3) COMMENT '更新时间' ON UPDATE CURRENT_TIMESTAMP(3),
@@ -121,7 +125,7 @@ CREATE TABLE `sched_task` (
   `execute_end_time`      DATETIME(3)                        DEFAULT NULL                 COMMENT '执行结束时间',
   `execute_state`         TINYINT        UNSIGNED  NOT NULL                               COMMENT '执行状态：10-等待执行；20-正在执行；30-暂停执行；40-执行完成；50-派发失败；51-初始化异常；52-执行失败；53-执行异常；54-执行超时；55-执行冲突；56-广播终止；57-执行终止；58-关机取消；59-手动取消；',
   `execute_snapshot`      TEXT                               DEFAULT NULL                 COMMENT '保存的执行快照数据',
-  `worker`                VARCHAR(255)                       DEFAULT NULL                 COMMENT '工作进程(JVM进程，GROUP:WORKER-ID:HOST:PORT)',
+  `worker_id`             BIGINT         UNSIGNED            DEFAULT NULL                 COMMENT '工作进程ID(sched_worker.id)',
   `start_request_id`      VARCHAR(32)                        DEFAULT NULL                 COMMENT 'Start task时的请求ID，用于start请求超时重试幂等',
   `dispatch_failed_count` TINYINT        UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '任务派发失败的次数(失败次数达到阈值后需要终止)',
   `error_msg`             VARCHAR(2048)                      DEFAULT NULL                 COMMENT '执行错误信息',
@@ -130,10 +134,22 @@ CREATE TABLE `sched_task` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_taskid` (`task_id`),
   UNIQUE KEY `uk_instanceid_taskno` (`instance_id`, `task_no`),
+  KEY `ix_instanceid_executestate` (`instance_id`, `execute_state`),
+  KEY `ix_workerid_executestate` (`worker_id`, `execute_state`),
   KEY `ix_updatedat` (`updated_at`),
   KEY `ix_createdat` (`created_at`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='调度任务表';
 
+CREATE TABLE `sched_worker` (
+  `id`                    BIGINT         UNSIGNED  NOT NULL  AUTO_INCREMENT               COMMENT '自增主键ID(sched_task.worker_id)',
+  `group`                 VARCHAR(60)              NOT NULL                               COMMENT '分组名称(同sched_job.group)',
+  `worker`                VARCHAR(255)             NOT NULL                               COMMENT '工作进程(JVM进程，GROUP:WORKER-ID:HOST:PORT)',
+  `created_at`            DATETIME(3)              NOT NULL  DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_worker` (`worker`),
+  KEY `ix_group` (`group`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='工作进程字典表';
+
 CREATE TABLE `sched_workflow` (
   `id`                    BIGINT         UNSIGNED  NOT NULL  AUTO_INCREMENT               COMMENT '自增主键ID',
   `wnstance_id`           BIGINT         UNSIGNED  NOT NULL                               COMMENT 'sched_instance.wnstance_id',
@@ -160,6 +176,9 @@ CREATE TABLE `sched_group` (
   `alert_users`           VARCHAR(512)                       DEFAULT NULL                 COMMENT '告警接收人员(多个逗号分隔)',
   `worker_context_path`   VARCHAR(100)             NOT NULL  DEFAULT '/'                  COMMENT '该组下的Worker服务的context-path',
   `webhook`               VARCHAR(255)                       DEFAULT NULL                 COMMENT 'webhook地址',
+  `max_executing_tasks`   INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '最大并发执行(已派发未结束)的task数量，0表示不限制',
+  `max_dispatch_rate`     INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '每秒最大派发task数量，0表示不限制',
+  `max_triggers_per_scan` INT            UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '每次扫描最大触发job数量，0表示不限制',
   `version`               INT            UNSIGNED  NOT NULL  DEFAULT '1'                  COMMENT '行记录版本号',
   `is_deleted`            BIGINT         UNSIGNED  NOT NULL  DEFAULT '0'                  COMMENT '是否已删除：0-否；{id}-是(用id来解决因软删引起的唯一索引冲突问题)；',
   `updated_by`            VARCHAR(60)                        DEFAULT NULL                 COMMENT '更新人',
@@ -180,6 +199,16 @@ CREATE TABLE IF NOT EXISTS `sched_lock` (
   UNIQUE KEY `uk_name` (`name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='Distributed lock based database';
 
+CREATE TABLE IF NOT EXISTS `sched_lease` (
+  `id`                    BIGINT       UNSIGNED    NOT NULL  AUTO_INCREMENT               COMMENT 'auto increment primary key id',
+  `name`                  VARCHAR(60)              NOT NULL                               COMMENT 'lease name',
+  `owner`                 VARCHAR(64)              NOT NULL  DEFAULT ''                   COMMENT 'lease owner',
+  `fencing_token`         BIGINT       UNSIGNED    NOT NULL  DEFAULT '0'                  COMMENT 'fencing token, increment when acquired',
+  `expire_time`           BIGINT       UNSIGNED    NOT NULL  DEFAULT '0'                  COMMENT 'lease expire time milliseconds',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_name` (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='Distributed lease lock based database';
+
 CREATE TABLE IF NOT EXISTS `sched_snowflake` (
   `id`                    BIGINT        UNSIGNED   NOT NULL  AUTO_INCREMENT               COMMENT 'auto increment primary key id',
   `biz_tag`               VARCHAR(60)              NOT NULL                               COMMENT 'biz tag',
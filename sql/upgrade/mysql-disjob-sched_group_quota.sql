@@ -0,0 +1,10 @@
+-- ----------------------------
+-- UPGRADE: sched_group add max_executing_tasks, max_dispatch_rate, max_triggers_per_scan
+-- ----------------------------
+-- 默认值0表示不限制，升级后已有分组的行为不变
+USE disjob;
+
+ALTER TABLE `sched_group`
+  ADD COLUMN `max_executing_tasks`   INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT '最大并发执行(已派发未结束)的task数量，0表示不限制'  AFTER `webhook`,
+  ADD COLUMN `max_dispatch_rate`     INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT '每秒最大派发task数量，0表示不限制'                  AFTER `max_executing_tasks`,
+  ADD COLUMN `max_triggers_per_scan` INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT '每次扫描最大触发job数量，0表示不限制'              AFTER `max_dispatch_rate`;
@@ -0,0 +1,10 @@
+-- ----------------------------
+-- UPGRADE: sched_instance add task_count, terminated_task_count, paused_task_count
+-- ----------------------------
+-- 已有的instance记录task_count为0(表示未统计)，会回退到按sched_task统计的方式，因此无需回填数据
+USE disjob;
+
+ALTER TABLE `sched_instance`
+  ADD COLUMN `task_count`            INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT 'task总数量(0表示未统计)'          AFTER `next_scan_time`,
+  ADD COLUMN `terminated_task_count` INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT '已结束(终止状态)的task数量'       AFTER `task_count`,
+  ADD COLUMN `paused_task_count`     INT  UNSIGNED  NOT NULL  DEFAULT '0'  COMMENT '已暂停(PAUSED状态)的task数量'     AFTER `terminated_task_count`;
@@ -0,0 +1,11 @@
+-- ----------------------------
+-- UPGRADE: sched_job add priority, sched_task add index ix_instanceid_executestate
+-- ----------------------------
+-- 已有的job默认为普通优先级(2)；sched_task数据量较大时，建议在业务低峰期执行新建索引
+USE disjob;
+
+ALTER TABLE `sched_job`
+  ADD COLUMN `priority` TINYINT  UNSIGNED  NOT NULL  DEFAULT '2'  COMMENT '任务优先级(Worker按优先级分道执行)：1-低优先级；2-普通优先级；3-高优先级；' AFTER `shutdown_strategy`;
+
+ALTER TABLE `sched_task`
+  ADD KEY `ix_instanceid_executestate` (`instance_id`, `execute_state`);
@@ -0,0 +1,29 @@
+-- ----------------------------
+-- UPGRADE: sched_task.worker(VARCHAR) -> sched_task.worker_id(BIGINT, sched_worker.id)
+-- ----------------------------
+-- 升级前先停止所有Supervisor与Worker，执行完成后再部署新版本
+USE disjob;
+
+CREATE TABLE IF NOT EXISTS `sched_worker` (
+  `id`                    BIGINT         UNSIGNED  NOT NULL  AUTO_INCREMENT               COMMENT '自增主键ID(sched_task.worker_id)',
+  `group`                 VARCHAR(60)              NOT NULL                               COMMENT '分组名称(同sched_job.group)',
+  `worker`                VARCHAR(255)             NOT NULL                               COMMENT '工作进程(JVM进程，GROUP:WORKER-ID:HOST:PORT)',
+  `created_at`            DATETIME(3)              NOT NULL  DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_worker` (`worker`),
+  KEY `ix_group` (`group`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='工作进程字典表';
+
+-- 1、登记已有的worker
+INSERT IGNORE INTO `sched_worker` (`group`, `worker`)
+SELECT DISTINCT SUBSTRING_INDEX(`worker`, ':', 1), `worker` FROM `sched_task` WHERE `worker` IS NOT NULL AND `worker` != '';
+
+-- 2、新增worker_id列并回填
+ALTER TABLE `sched_task` ADD COLUMN `worker_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '工作进程ID(sched_worker.id)' AFTER `execute_snapshot`;
+UPDATE `sched_task` t INNER JOIN `sched_worker` w ON t.`worker` = w.`worker` SET t.`worker_id` = w.`id`;
+
+-- 3、删除旧列与旧索引，新建索引
+ALTER TABLE `sched_task`
+  DROP INDEX `ix_worker_executestate`,
+  DROP COLUMN `worker`,
+  ADD KEY `ix_workerid_executestate` (`worker_id`, `execute_state`);